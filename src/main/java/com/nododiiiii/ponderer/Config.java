@@ -12,5 +12,15 @@ public class Config {
                  "the built-in Blueprint item will not appear in the creative tab.")
         .define("blueprintCarrierItem", "minecraft:paper");
 
+    public static final ModConfigSpec.BooleanValue WATCH_SCENE_FILES = BUILDER
+        .comment("Watch config/ponderer/scripts and config/ponderer/structures for changes",
+                 "and hot-reload edited files automatically (no /ponderer reload needed).")
+        .define("watchSceneFiles", false);
+
+    public static final ModConfigSpec.BooleanValue LAZY_SCENE_COMPILE = BUILDER
+        .comment("Compile ponder scenes the first time they are opened instead of at every reload.",
+                 "Speeds up reloads for large scene packs; step errors are then logged on first open.")
+        .define("lazySceneCompile", false);
+
     public static final ModConfigSpec SPEC = BUILDER.build();
 }
@@ -4,18 +4,25 @@ import net.neoforged.bus.api.IEventBus;
 import net.neoforged.fml.ModContainer;
 import net.neoforged.fml.common.Mod;
 import net.neoforged.fml.config.ModConfig;
+import net.neoforged.fml.event.config.ModConfigEvent;
 import net.neoforged.fml.event.lifecycle.FMLClientSetupEvent;
+import net.neoforged.neoforge.client.event.ClientPlayerNetworkEvent;
 import net.neoforged.neoforge.client.event.RegisterClientCommandsEvent;
 import net.neoforged.neoforge.common.NeoForge;
+import net.neoforged.neoforge.event.GameShuttingDownEvent;
 import net.neoforged.neoforge.event.BuildCreativeModeTabContentsEvent;
+import net.neoforged.neoforge.event.entity.player.PlayerEvent;
 import com.nododiiiii.ponderer.blueprint.BlueprintFeature;
 import com.nododiiiii.ponderer.ponder.DynamicPonderPlugin;
 import com.nododiiiii.ponderer.ponder.PondererClientCommands;
+import com.nododiiiii.ponderer.ponder.SceneFileWatcher;
 import com.nododiiiii.ponderer.ponder.SceneStore;
 import com.nododiiiii.ponderer.registry.ModItems;
+import com.nododiiiii.ponderer.ui.SceneEditorScreen;
 import net.createmod.ponder.foundation.PonderIndex;
 import net.createmod.ponder.enums.PonderConfig;
 import com.nododiiiii.ponderer.network.PondererNetwork;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.item.CreativeModeTabs;
 import net.minecraft.world.item.ItemStack;
 import net.neoforged.neoforge.network.event.RegisterPayloadHandlersEvent;
@@ -31,7 +38,11 @@ public class Ponderer {
         modEventBus.addListener(this::onClientSetup);
         modEventBus.addListener(this::onRegisterPayloads);
         modEventBus.addListener(this::onBuildCreativeTab);
+        modEventBus.addListener(this::onConfigReload);
         NeoForge.EVENT_BUS.addListener(this::onRegisterClientCommands);
+        NeoForge.EVENT_BUS.addListener(this::onGameShuttingDown);
+        NeoForge.EVENT_BUS.addListener(this::onPlayerLoggedOut);
+        NeoForge.EVENT_BUS.addListener(this::onClientLoggingOut);
     }
 
     private void onClientSetup(FMLClientSetupEvent event) {
@@ -41,9 +52,35 @@ public class Ponderer {
             SceneStore.reloadFromDisk();
             PonderIndex.addPlugin(new DynamicPonderPlugin());
             PonderIndex.reload();
+            if (Config.WATCH_SCENE_FILES.get()) {
+                SceneFileWatcher.start();
+            }
         });
     }
 
+    private void onConfigReload(ModConfigEvent.Reloading event) {
+        if (event.getConfig().getSpec() != Config.SPEC) return;
+        if (Config.WATCH_SCENE_FILES.get()) {
+            SceneFileWatcher.start();
+        } else {
+            SceneFileWatcher.stop();
+        }
+    }
+
+    private void onGameShuttingDown(GameShuttingDownEvent event) {
+        SceneFileWatcher.stop();
+    }
+
+    private void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            PondererNetwork.onPlayerLoggedOut(player);
+        }
+    }
+
+    private void onClientLoggingOut(ClientPlayerNetworkEvent.LoggingOut event) {
+        SceneEditorScreen.flushOpenEditor();
+    }
+
     private void onRegisterClientCommands(RegisterClientCommandsEvent event) {
         PondererClientCommands.register(event);
     }
@@ -3,10 +3,10 @@ package com.nododiiiii.ponderer.mixin;
 import com.mojang.logging.LogUtils;
 import com.nododiiiii.ponderer.Ponderer;
 import com.nododiiiii.ponderer.ponder.SceneStore;
+import com.nododiiiii.ponderer.ponder.StructurePrefetcher;
+import com.nododiiiii.ponderer.ponder.StructureTemplateCache;
 import net.createmod.ponder.foundation.registration.PonderSceneRegistry;
-import net.minecraft.client.Minecraft;
 import net.minecraft.resources.ResourceLocation;
-import net.minecraft.world.level.storage.LevelResource;
 import net.minecraft.server.packs.resources.ResourceManager;
 import net.minecraft.world.level.levelgen.structure.templatesystem.StructureTemplate;
 import org.slf4j.Logger;
@@ -15,8 +15,6 @@ import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
-import java.io.InputStream;
-import java.nio.file.Files;
 import java.nio.file.Path;
 
 @Mixin(PonderSceneRegistry.class)
@@ -31,40 +29,25 @@ public class PonderSceneRegistryMixin {
     private static void ponderer$loadLocalSchematic(ResourceManager resourceManager, ResourceLocation location,
                                                     CallbackInfoReturnable<StructureTemplate> cir) {
         if (Ponderer.MODID.equals(location.getNamespace())) {
-            Path path = SceneStore.getStructurePath(location.getPath());
-            if (!Files.exists(path)) {
-                LOGGER.warn("Ponderer schematic missing: {}", path);
-                return;
-            }
-
-            try (InputStream stream = Files.newInputStream(path)) {
-                cir.setReturnValue(PonderSceneRegistry.loadSchematic(stream));
-            } catch (Exception e) {
-                LOGGER.error("Failed to read ponderer schematic: {}", path, e);
+            StructureTemplate template = StructureTemplateCache.getLocal(location.getPath());
+            if (template != null) {
+                cir.setReturnValue(template);
+            } else {
+                LOGGER.warn("Ponderer schematic missing or unreadable: {}", SceneStore.getStructurePath(location.getPath()));
             }
             return;
         }
 
         // Native singleplayer generated structures fallback:
         // saves/<world>/generated/<namespace>/structures/<path>.nbt
-        var server = Minecraft.getInstance().getSingleplayerServer();
-        if (server == null) {
-            return;
-        }
-        Path root = server.getWorldPath(LevelResource.ROOT);
-        Path generatedPath = root.resolve("generated")
-            .resolve(location.getNamespace())
-            .resolve("structures")
-            .resolve(location.getPath() + ".nbt");
-
-        if (!Files.exists(generatedPath)) {
+        Path generatedPath = StructurePrefetcher.resolveLocalPath(location);
+        if (generatedPath == null) {
             return;
         }
 
-        try (InputStream stream = Files.newInputStream(generatedPath)) {
-            cir.setReturnValue(PonderSceneRegistry.loadSchematic(stream));
-        } catch (Exception e) {
-            LOGGER.error("Failed to read generated schematic: {}", generatedPath, e);
+        StructureTemplate template = StructureTemplateCache.get(generatedPath);
+        if (template != null) {
+            cir.setReturnValue(template);
         }
     }
 }
@@ -1,6 +1,7 @@
 package com.nododiiiii.ponderer.mixin;
 
 import com.nododiiiii.ponderer.ponder.NbtSceneFilter;
+import com.nododiiiii.ponderer.ponder.StructurePrefetcher;
 import net.createmod.catnip.registry.RegisteredObjectsHelper;
 import net.createmod.ponder.foundation.PonderIndex;
 import net.createmod.ponder.foundation.PonderTooltipHandler;
@@ -13,7 +14,7 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 /**
  * Prevent showing the ponder tooltip for items whose scenes are ALL
- * filtered out by NBT filters.
+ * filtered out by NBT filters, and prefetch the structure for the ones that are shown.
  */
 @Mixin(PonderTooltipHandler.class)
 public class PonderTooltipNbtMixin {
@@ -33,7 +34,11 @@ public class PonderTooltipNbtMixin {
             // Scenes exist for this item type, but do any pass the NBT filter?
             if (NbtSceneFilter.hasFilters(itemId) && !NbtSceneFilter.hasVisibleScenes(stack, itemId)) {
                 ci.cancel();
+                return;
             }
+
+            // Warm the structure cache so the ponder opens without reading the schematic
+            StructurePrefetcher.onHover(itemId);
         } catch (Exception ignored) {
             // If anything goes wrong, let the original method handle it
         }
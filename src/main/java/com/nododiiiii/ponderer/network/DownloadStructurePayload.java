@@ -2,19 +2,21 @@ package com.nododiiiii.ponderer.network;
 
 import com.nododiiiii.ponderer.Ponderer;
 import com.nododiiiii.ponderer.ponder.SceneStore;
+import com.nododiiiii.ponderer.ponder.StructureLibrary;
 import net.minecraft.network.RegistryFriendlyByteBuf;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.codec.StreamCodec;
 import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.level.storage.LevelResource;
 import net.neoforged.neoforge.network.PacketDistributor;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.List;
 
 public record DownloadStructurePayload(String sourceId) implements CustomPacketPayload {
     public static final Type<DownloadStructurePayload> TYPE =
@@ -49,50 +51,76 @@ public record DownloadStructurePayload(String sourceId) implements CustomPacketP
             return;
         }
 
-        Path sourcePath = resolveSourcePath(player, source);
-
-        if (sourcePath == null || !Files.exists(sourcePath)) {
-            player.sendSystemMessage(Component.translatable("ponderer.cmd.download.not_found", source.toString()));
-            PacketDistributor.sendToPlayer(player,
-                new DownloadStructureResultPayload(source.toString(), "", false,
-                    "Structure not found"));
-            return;
-        }
-
         ResourceLocation target = source.getNamespace().equals(Ponderer.MODID)
             ? source
             : ResourceLocation.fromNamespaceAndPath(Ponderer.MODID, source.getPath());
-        try {
-            byte[] bytes = Files.readAllBytes(sourcePath);
-            boolean ok = SceneStore.saveStructureToServer(player.server, target.toString(), bytes);
-            if (!ok) {
-                player.sendSystemMessage(Component.translatable("ponderer.cmd.download.import_failed", source.toString()));
-                PacketDistributor.sendToPlayer(player,
-                    new DownloadStructureResultPayload(source.toString(), target.toString(), false,
-                        "Import failed"));
-                return;
+        MinecraftServer server = player.server;
+        boolean accepted = ServerIoExecutor.submit(player, () -> importStructure(server, source, target), outcome -> {
+            switch (outcome) {
+                case NOT_FOUND -> {
+                    player.sendSystemMessage(Component.translatable("ponderer.cmd.download.not_found", source.toString()));
+                    PacketDistributor.sendToPlayer(player,
+                        new DownloadStructureResultPayload(source.toString(), "", false,
+                            "Structure not found"));
+                }
+                case IMPORT_FAILED -> {
+                    player.sendSystemMessage(Component.translatable("ponderer.cmd.download.import_failed", source.toString()));
+                    PacketDistributor.sendToPlayer(player,
+                        new DownloadStructureResultPayload(source.toString(), target.toString(), false,
+                            "Import failed"));
+                }
+                case READ_FAILED -> {
+                    player.sendSystemMessage(Component.translatable("ponderer.cmd.download.read_failed", source.toString()));
+                    PacketDistributor.sendToPlayer(player,
+                        new DownloadStructureResultPayload(source.toString(), target.toString(), false,
+                            "Read failed"));
+                }
+                case OK -> SyncTransfer.sendAll(player, sent -> {
+                    // Only now has the client received the structure, so it may save the step referencing it
+                    PacketDistributor.sendToPlayer(player,
+                        new DownloadStructureResultPayload(source.toString(), target.toString(), sent,
+                            sent ? "OK" : "Sync failed"));
+
+                    if (sent) {
+                        player.sendSystemMessage(Component.translatable("ponderer.cmd.download.done", source.toString(), target.toString()));
+                    }
+                });
             }
-
-            List<SyncResponsePayload.FileEntry> scripts = SceneStore.collectServerScripts(player.server);
-            List<SyncResponsePayload.FileEntry> structures = SceneStore.collectServerStructures(player.server);
-            PacketDistributor.sendToPlayer(player, new SyncResponsePayload(scripts, structures));
-
+        });
+        if (!accepted) {
+            player.sendSystemMessage(Component.translatable("ponderer.cmd.server_busy"));
             PacketDistributor.sendToPlayer(player,
-                new DownloadStructureResultPayload(source.toString(), target.toString(), true,
-                    "OK"));
+                new DownloadStructureResultPayload(source.toString(), "", false,
+                    "Server busy"));
+        }
+    }
 
-            player.sendSystemMessage(Component.translatable("ponderer.cmd.download.done", source.toString(), target.toString()));
+    /**
+     * Locate, read and copy the source structure into server storage. Runs on the {@link ServerIoExecutor}.
+     */
+    private static Outcome importStructure(MinecraftServer server, ResourceLocation source, ResourceLocation target) {
+        try {
+            byte[] bytes = readSource(server, source);
+            if (bytes == null) {
+                return Outcome.NOT_FOUND;
+            }
+            synchronized (ServerIoExecutor.STORE_LOCK) {
+                return SceneStore.saveStructureToServer(server, target.toString(), bytes)
+                    ? Outcome.OK
+                    : Outcome.IMPORT_FAILED;
+            }
         } catch (Exception e) {
-            player.sendSystemMessage(Component.translatable("ponderer.cmd.download.read_failed", source.toString()));
-            PacketDistributor.sendToPlayer(player,
-                new DownloadStructureResultPayload(source.toString(), target.toString(), false,
-                    "Read failed"));
+            return Outcome.READ_FAILED;
         }
     }
 
-    private static Path resolveSourcePath(ServerPlayer player, ResourceLocation source) {
+    private enum Outcome {
+        OK, NOT_FOUND, IMPORT_FAILED, READ_FAILED
+    }
+
+    private static Path resolveSourcePath(MinecraftServer server, ResourceLocation source) {
         if (Ponderer.MODID.equals(source.getNamespace())) {
-            Path serverRoot = SceneStore.getServerStructureDir(player.server);
+            Path serverRoot = SceneStore.getServerStructureDir(server);
             Path direct = serverRoot.resolve(source.getPath() + ".nbt");
             if (Files.exists(direct)) {
                 return direct;
@@ -100,7 +128,7 @@ public record DownloadStructurePayload(String sourceId) implements CustomPacketP
             return null;
         }
 
-        Path generatedPath = player.server.getWorldPath(LevelResource.ROOT)
+        Path generatedPath = server.getWorldPath(LevelResource.ROOT)
             .resolve("generated")
             .resolve(source.getNamespace())
             .resolve("structures")
@@ -109,11 +137,29 @@ public record DownloadStructurePayload(String sourceId) implements CustomPacketP
             return generatedPath;
         }
 
-        Path serverRoot = SceneStore.getServerStructureDir(player.server);
+        Path serverRoot = SceneStore.getServerStructureDir(server);
         Path fallback = serverRoot.resolve(source.getNamespace()).resolve(source.getPath() + ".nbt");
         if (Files.exists(fallback)) {
             return fallback;
         }
         return null;
     }
+
+    /**
+     * Bytes of the source structure: a loose file from {@link #resolveSourcePath}, else an entry of the
+     * server's packed {@link StructureLibrary}, or null if it exists in neither.
+     */
+    private static byte[] readSource(MinecraftServer server, ResourceLocation source) throws IOException {
+        Path sourcePath = resolveSourcePath(server, source);
+        if (sourcePath != null) {
+            return Files.readAllBytes(sourcePath);
+        }
+        StructureLibrary library = StructureLibrary.forDir(SceneStore.getServerStructureDir(server));
+        if (library == null) {
+            return null;
+        }
+        return Ponderer.MODID.equals(source.getNamespace())
+            ? library.read(source.getPath())
+            : library.read(source.getNamespace() + "/" + source.getPath());
+    }
 }
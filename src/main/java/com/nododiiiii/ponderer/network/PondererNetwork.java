@@ -3,29 +3,45 @@ package com.nododiiiii.ponderer.network;
 import net.neoforged.neoforge.network.event.RegisterPayloadHandlersEvent;
 import net.neoforged.neoforge.network.registration.PayloadRegistrar;
 import net.minecraft.server.level.ServerPlayer;
-import net.neoforged.neoforge.network.PacketDistributor;
-import com.nododiiiii.ponderer.ponder.SceneStore;
-import java.util.List;
 
 public final class PondererNetwork {
-    public static final String VERSION = "1";
+    /**
+     * Protocol version; peers must match exactly. Bumped whenever a payload's wire format changes:
+     *   2 - chunked pulls (manifest, chunk, ack payloads); pull requests carry last-synced hashes
+     *   3 - SyncCompression blocks for file contents in sync and upload payloads
+     *   4 - batched pushes
+     * Older peers are refused at login rather than served through a compatibility path: since version 2 the
+     * pull request carries hashes and large pulls arrive as payload types a version 1 client doesn't know,
+     * so sending file contents uncompressed would not let it pull anyway. Every block carries its codec byte,
+     * so {@link SyncCompression#RAW} stays valid and senders may skip compression per entry.
+     */
+    public static final String VERSION = "4";
 
     private PondererNetwork() {
     }
 
+    /**
+     * Drop per-player sync state when a player leaves, so an abandoned pull or pull request
+     * doesn't hold on to the player until they pull again.
+     */
+    public static void onPlayerLoggedOut(ServerPlayer player) {
+        SyncTransfer.cancel(player);
+        SyncRequestPayload.forget(player);
+    }
+
     public static void register(RegisterPayloadHandlersEvent event) {
         PayloadRegistrar registrar = event.registrar(VERSION);
         registrar.playToServer(UploadScenePayload.TYPE, UploadScenePayload.CODEC, (payload, ctx) -> {
             ctx.enqueueWork(() -> UploadScenePayload.handle(payload, (ServerPlayer) ctx.player()));
         });
+        registrar.playToServer(UploadBatchPayload.TYPE, UploadBatchPayload.CODEC, (payload, ctx) -> {
+            ctx.enqueueWork(() -> UploadBatchPayload.handle(payload, (ServerPlayer) ctx.player()));
+        });
         registrar.playToServer(SyncRequestPayload.TYPE, SyncRequestPayload.CODEC, (payload, ctx) -> {
-            ctx.enqueueWork(() -> {
-                ServerPlayer player = (ServerPlayer) ctx.player();
-                if (player == null) return;
-                List<SyncResponsePayload.FileEntry> scripts = SceneStore.collectServerScripts(player.server);
-                List<SyncResponsePayload.FileEntry> structures = SceneStore.collectServerStructures(player.server);
-                PacketDistributor.sendToPlayer(player, new SyncResponsePayload(scripts, structures));
-            });
+            ctx.enqueueWork(() -> SyncRequestPayload.handle(payload, (ServerPlayer) ctx.player()));
+        });
+        registrar.playToServer(SyncChunkAckPayload.TYPE, SyncChunkAckPayload.CODEC, (payload, ctx) -> {
+            ctx.enqueueWork(() -> SyncChunkAckPayload.handle(payload, (ServerPlayer) ctx.player()));
         });
         registrar.playToServer(DownloadStructurePayload.TYPE, DownloadStructurePayload.CODEC, (payload, ctx) -> {
             ctx.enqueueWork(() -> DownloadStructurePayload.handle(payload, (ServerPlayer) ctx.player()));
@@ -33,11 +49,20 @@ public final class PondererNetwork {
         registrar.playToClient(SyncResponsePayload.TYPE, SyncResponsePayload.CODEC, (payload, ctx) -> {
             ctx.enqueueWork(() -> SyncResponsePayload.handle(payload));
         });
+        registrar.playToClient(SyncManifestPayload.TYPE, SyncManifestPayload.CODEC, (payload, ctx) -> {
+            ctx.enqueueWork(() -> SyncManifestPayload.handle(payload));
+        });
+        registrar.playToClient(SyncChunkPayload.TYPE, SyncChunkPayload.CODEC, (payload, ctx) -> {
+            ctx.enqueueWork(() -> SyncChunkPayload.handle(payload));
+        });
         registrar.playToClient(DownloadStructureResultPayload.TYPE, DownloadStructureResultPayload.CODEC, (payload, ctx) -> {
             ctx.enqueueWork(() -> DownloadStructureResultPayload.handle(payload));
         });
         registrar.playToClient(UploadResponsePayload.TYPE, UploadResponsePayload.CODEC, (payload, ctx) -> {
             ctx.enqueueWork(() -> UploadResponsePayload.handle(payload));
         });
+        registrar.playToClient(UploadBatchResponsePayload.TYPE, UploadBatchResponsePayload.CODEC, (payload, ctx) -> {
+            ctx.enqueueWork(() -> UploadBatchResponsePayload.handle(payload));
+        });
     }
 }
\ No newline at end of file
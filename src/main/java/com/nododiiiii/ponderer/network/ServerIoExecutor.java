@@ -0,0 +1,125 @@
+package com.nododiiiii.ponderer.network;
+
+import com.mojang.logging.LogUtils;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import org.slf4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Worker pool for disk I/O done on behalf of network handlers (pull, push, structure import),
+ * keeping it off the server tick thread.
+ *
+ * Each player's tasks run in submission order, at most {@link #MAX_RUNNING_PER_PLAYER} at a time,
+ * so a player pushing hundreds of scenes waits on their own earlier tasks instead of occupying every worker.
+ *
+ * Tasks of different players run concurrently, so anything that checks server storage and then writes it
+ * must hold {@link #STORE_LOCK} for the whole sequence.
+ */
+public final class ServerIoExecutor {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final int THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    private static final int MAX_RUNNING_PER_PLAYER = 1;
+    private static final int MAX_QUEUED_PER_PLAYER = 4096;
+
+    private static final AtomicInteger THREAD_ID = new AtomicInteger();
+    private static final ExecutorService POOL = Executors.newFixedThreadPool(THREADS, r -> {
+        Thread t = new Thread(r, "Ponderer-ServerIO-" + THREAD_ID.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+    /** Guarded by the class lock. */
+    private static final Map<UUID, PlayerQueue> QUEUES = new HashMap<>();
+    /**
+     * Serializes writes to server storage. Held from a push's conflict check through its writes and the
+     * re-hash sent back, so two players pushing the same scene can't both pass the check.
+     */
+    static final Object STORE_LOCK = new Object();
+
+    private ServerIoExecutor() {
+    }
+
+    /**
+     * Run {@code work} on the I/O pool, then hand its result to {@code onServerThread} on the server thread.
+     *
+     * @return false if the player already has too many queued tasks; nothing is run in that case
+     */
+    public static <T> boolean submit(ServerPlayer player, Supplier<T> work, Consumer<T> onServerThread) {
+        MinecraftServer server = player.server;
+        return submit(player, () -> {
+            T result = work.get();
+            server.execute(() -> onServerThread.accept(result));
+        });
+    }
+
+    /**
+     * Queue a task for the player. The task must marshal any packet sending back to the server thread itself.
+     *
+     * @return false if the player already has too many queued tasks
+     */
+    public static synchronized boolean submit(ServerPlayer player, Runnable task) {
+        UUID uuid = player.getUUID();
+        PlayerQueue queue = QUEUES.computeIfAbsent(uuid, k -> new PlayerQueue());
+        if (queue.pending.size() >= MAX_QUEUED_PER_PLAYER) {
+            LOGGER.warn("Rejecting I/O task from {}: {} task(s) already queued",
+                player.getScoreboardName(), queue.pending.size());
+            return false;
+        }
+        queue.pending.add(task);
+        drain(uuid, queue);
+        return true;
+    }
+
+    /**
+     * Run a continuation (e.g. the next chunks of a running transfer) outside any per-player queue.
+     */
+    public static void execute(Runnable task) {
+        POOL.execute(() -> runSafely(task));
+    }
+
+    private static void drain(UUID uuid, PlayerQueue queue) {
+        while (queue.running < MAX_RUNNING_PER_PLAYER && !queue.pending.isEmpty()) {
+            Runnable task = queue.pending.poll();
+            queue.running++;
+            POOL.execute(() -> {
+                try {
+                    runSafely(task);
+                } finally {
+                    finished(uuid, queue);
+                }
+            });
+        }
+    }
+
+    private static synchronized void finished(UUID uuid, PlayerQueue queue) {
+        queue.running--;
+        if (queue.running == 0 && queue.pending.isEmpty()) {
+            QUEUES.remove(uuid, queue);
+        } else {
+            drain(uuid, queue);
+        }
+    }
+
+    private static void runSafely(Runnable task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            LOGGER.error("Ponderer I/O task failed", e);
+        }
+    }
+
+    private static final class PlayerQueue {
+        final Deque<Runnable> pending = new ArrayDeque<>();
+        int running;
+    }
+}
@@ -0,0 +1,42 @@
+package com.nododiiiii.ponderer.network;
+
+import com.nododiiiii.ponderer.Ponderer;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Client -> Server: number of chunks of a transfer received so far. Opens the send window.
+ * {@link #CANCEL} instead tells the server the client dropped the transfer.
+ */
+public record SyncChunkAckPayload(int transferId, int received) implements CustomPacketPayload {
+    public static final int CANCEL = -1;
+    public static final Type<SyncChunkAckPayload> TYPE =
+        new Type<>(ResourceLocation.fromNamespaceAndPath(Ponderer.MODID, "sync_chunk_ack"));
+    public static final StreamCodec<RegistryFriendlyByteBuf, SyncChunkAckPayload> CODEC =
+        StreamCodec.of(SyncChunkAckPayload::encode, SyncChunkAckPayload::decode);
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+
+    private static void encode(RegistryFriendlyByteBuf buf, SyncChunkAckPayload payload) {
+        buf.writeVarInt(payload.transferId());
+        buf.writeVarInt(payload.received());
+    }
+
+    private static SyncChunkAckPayload decode(RegistryFriendlyByteBuf buf) {
+        return new SyncChunkAckPayload(buf.readVarInt(), buf.readVarInt());
+    }
+
+    public static void handle(SyncChunkAckPayload payload, @Nullable ServerPlayer player) {
+        if (player == null) {
+            return;
+        }
+        SyncTransfer.onAck(player, payload.transferId(), payload.received());
+    }
+}
@@ -0,0 +1,39 @@
+package com.nododiiiii.ponderer.network;
+
+import com.nododiiiii.ponderer.Ponderer;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+
+/**
+ * Server -> Client: the next slice of file {@code fileIndex} of a chunked pull,
+ * as a {@link SyncCompression} block. Chunks arrive in file order; a negative fileIndex aborts the transfer.
+ */
+public record SyncChunkPayload(int transferId, int fileIndex, byte[] data) implements CustomPacketPayload {
+    public static final Type<SyncChunkPayload> TYPE =
+        new Type<>(ResourceLocation.fromNamespaceAndPath(Ponderer.MODID, "sync_chunk"));
+    public static final StreamCodec<RegistryFriendlyByteBuf, SyncChunkPayload> CODEC =
+        StreamCodec.of(SyncChunkPayload::encode, SyncChunkPayload::decode);
+
+    public static final int ABORT = -1;
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+
+    private static void encode(RegistryFriendlyByteBuf buf, SyncChunkPayload payload) {
+        buf.writeVarInt(payload.transferId());
+        buf.writeVarInt(payload.fileIndex());
+        buf.writeByteArray(payload.data());
+    }
+
+    private static SyncChunkPayload decode(RegistryFriendlyByteBuf buf) {
+        return new SyncChunkPayload(buf.readVarInt(), buf.readVarInt(), buf.readByteArray());
+    }
+
+    public static void handle(SyncChunkPayload payload) {
+        SyncTransferClient.accept(payload);
+    }
+}
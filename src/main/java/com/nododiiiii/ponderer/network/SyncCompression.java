@@ -0,0 +1,189 @@
+package com.nododiiiii.ponderer.network;
+
+import io.netty.handler.codec.DecoderException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Block encoding for file contents in sync and upload payloads.
+ *
+ * A block is one codec byte followed by the data:
+ *   {@link #RAW}        - the bytes as-is (structures are already gzip'd, tiny files aren't worth it)
+ *   {@link #DEFLATE_V1} - 4-byte raw length, then DEFLATE output primed with {@link #DICTIONARY}
+ *
+ * Decoding understands every codec, so the sender is free to choose per entry.
+ * Peers without block support are kept out by the PondererNetwork.VERSION check.
+ *
+ * Blocks from clients are inflated through a {@link Budget}, by the handler rather than the payload codec,
+ * so nothing is inflated before the sender's permissions have been checked.
+ */
+public final class SyncCompression {
+    public static final byte RAW = 0;
+    public static final byte DEFLATE_V1 = 1;
+
+    /** Entries smaller than this are always sent raw. */
+    private static final int MIN_COMPRESS_SIZE = 256;
+    /** Largest inflated block accepted from a peer. */
+    private static final int MAX_INFLATED_SIZE = 32 * 1024 * 1024;
+
+    /**
+     * Preset dictionary for scene JSON as written by SceneStore (pretty-printed Gson).
+     * DEFLATE favours matches near the end of the dictionary, so the most frequent strings come last.
+     * Changing this requires a new codec id.
+     */
+    private static final byte[] DICTIONARY = String.join("",
+        "\"blockProperties\": {", "\"blockPos2\": [", "\"rotX\": ", "\"rotY\": ", "\"rotZ\": ",
+        "\"reDrawBlocks\": true,", "\"destroyParticles\": true,", "\"spawnParticles\": true,",
+        "\"whileSneaking\": true,", "\"whileCTRL\": true,", "\"soundVolume\": ", "\"source\": ",
+        "\"lookAt\": [", "\"motion\": [", "\"yaw\": ", "\"pitch\": ", "\"degrees\": ", "\"bounds\": [",
+        "\"linkId\": \"", "\"action\": \"", "\"nbtFilter\": \"", "\"height\": ", "\"count\": ",
+        "\"direction\": \"", "\"offset\": [", "\"nbt\": \"", "\"sound\": \"minecraft:", "\"entity\": \"minecraft:",
+        "\"item\": \"minecraft:", "\"block\": \"minecraft:", "\"pos\": [",
+        "\"type\": \"rotate_camera_y\"", "\"type\": \"play_sound\"", "\"type\": \"create_entity\"",
+        "\"type\": \"create_item_entity\"", "\"type\": \"destroy_block\"", "\"type\": \"replace_blocks\"",
+        "\"type\": \"set_block\"", "\"type\": \"show_controls\"", "\"type\": \"indicate_redstone\"",
+        "\"type\": \"hide_section\"", "\"type\": \"show_section_and_merge\"", "\"type\": \"encapsulate_bounds\"",
+        "\"type\": \"shared_text\"", "\"key\": \"ponderer.", "\"structures\": [", "\"tags\": [],",
+        "\"items\": [", "\"title\": {", "\"scenes\": [", "\"steps\": [],", "\"id\": \"ponderer:",
+        "\"structure\": \"ponderer:", "\"type\": \"show_structure\"", "\"color\": \"input\",", "\"color\": \"green\",",
+        "\"zh_cn\": \"", "\"en_us\": \"", "\"text\": {", "\"type\": \"text\",", "\"point\": [",
+        "\"blockPos\": [", "\"type\": \"idle\",", "\"duration\": ", "\"placeNearTarget\": true,",
+        "\"attachKeyFrame\": true", "\n        },\n        {\n          \"type\": \"",
+        "\n          ],\n", "\n            2.5,\n            "
+    ).getBytes(StandardCharsets.UTF_8);
+
+    private SyncCompression() {
+    }
+
+    /**
+     * Encode one block, compressing it if {@code compressible} and it actually gets smaller.
+     */
+    public static byte[] encode(byte[] data, boolean compressible) {
+        if (compressible && data.length >= MIN_COMPRESS_SIZE) {
+            byte[] deflated = deflate(data);
+            if (deflated.length + 5 < data.length) {
+                return ByteBuffer.allocate(5 + deflated.length)
+                    .put(DEFLATE_V1)
+                    .putInt(data.length)
+                    .put(deflated)
+                    .array();
+            }
+        }
+        byte[] block = new byte[data.length + 1];
+        block[0] = RAW;
+        System.arraycopy(data, 0, block, 1, data.length);
+        return block;
+    }
+
+    /**
+     * Decode a block produced by {@link #encode}.
+     *
+     * @throws DecoderException if the block is malformed or exceeds the size limit
+     */
+    public static byte[] decode(byte[] block) {
+        if (block.length == 0) {
+            throw new DecoderException("Empty sync block");
+        }
+        switch (block[0]) {
+            case RAW -> {
+                byte[] data = new byte[block.length - 1];
+                System.arraycopy(block, 1, data, 0, data.length);
+                return data;
+            }
+            case DEFLATE_V1 -> {
+                if (block.length < 5) {
+                    throw new DecoderException("Truncated sync block");
+                }
+                int size = ByteBuffer.wrap(block, 1, 4).getInt();
+                if (size < 0 || size > MAX_INFLATED_SIZE) {
+                    throw new DecoderException("Sync block too large: " + size);
+                }
+                return inflate(block, 5, block.length - 5, size);
+            }
+            default -> throw new DecoderException("Unknown sync block codec: " + block[0]);
+        }
+    }
+
+    /**
+     * Caps the total inflated size of the blocks in one payload, on top of the per-block limit.
+     * Not thread-safe; use one per payload.
+     */
+    public static final class Budget {
+        private long remaining;
+
+        public Budget(long limit) {
+            this.remaining = limit;
+        }
+
+        /**
+         * {@link SyncCompression#decode Decode} {@code block}, charging its size to this budget first.
+         *
+         * @throws DecoderException if the block is malformed or the budget is used up
+         */
+        public byte[] decode(byte[] block) {
+            long size = declaredSize(block);
+            if (size > remaining) {
+                throw new DecoderException("Sync payload inflates past its size limit");
+            }
+            remaining -= size;
+            return SyncCompression.decode(block);
+        }
+    }
+
+    /** The size {@code block} says it inflates to, or -1 for a block that decode rejects anyway. */
+    private static long declaredSize(byte[] block) {
+        if (block.length == 0) return -1;
+        if (block[0] == DEFLATE_V1) {
+            return block.length < 5 ? -1 : ByteBuffer.wrap(block, 1, 4).getInt();
+        }
+        return block.length - 1;
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setDictionary(DICTIONARY);
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] block, int offset, int length, int size) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setDictionary(DICTIONARY);
+            inflater.setInput(block, offset, length);
+            byte[] data = new byte[size];
+            int filled = 0;
+            while (filled < size) {
+                int n = inflater.inflate(data, filled, size - filled);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    break;
+                }
+                filled += n;
+            }
+            if (filled != size) {
+                throw new DecoderException("Sync block inflated to " + filled + " bytes, expected " + size);
+            }
+            return data;
+        } catch (DataFormatException e) {
+            throw new DecoderException("Corrupt sync block", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.nododiiiii.ponderer.network;
+
+import com.nododiiiii.ponderer.Ponderer;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Server -> Client: start of a chunked pull. Lists every file that will follow as
+ * {@link SyncChunkPayload}s, in order, so the client can preallocate and reassemble them.
+ */
+public record SyncManifestPayload(int transferId, List<FileInfo> files) implements CustomPacketPayload {
+    public static final Type<SyncManifestPayload> TYPE =
+        new Type<>(ResourceLocation.fromNamespaceAndPath(Ponderer.MODID, "sync_manifest"));
+    public static final StreamCodec<RegistryFriendlyByteBuf, SyncManifestPayload> CODEC =
+        StreamCodec.of(SyncManifestPayload::encode, SyncManifestPayload::decode);
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+
+    public record FileInfo(boolean structure, String id, int size) {
+    }
+
+    private static void encode(RegistryFriendlyByteBuf buf, SyncManifestPayload payload) {
+        buf.writeVarInt(payload.transferId());
+        buf.writeVarInt(payload.files().size());
+        for (FileInfo file : payload.files()) {
+            buf.writeBoolean(file.structure());
+            buf.writeUtf(file.id());
+            buf.writeVarInt(file.size());
+        }
+    }
+
+    private static SyncManifestPayload decode(RegistryFriendlyByteBuf buf) {
+        int transferId = buf.readVarInt();
+        int size = buf.readVarInt();
+        List<FileInfo> files = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            files.add(new FileInfo(buf.readBoolean(), buf.readUtf(), buf.readVarInt()));
+        }
+        return new SyncManifestPayload(transferId, files);
+    }
+
+    public static void handle(SyncManifestPayload payload) {
+        SyncTransferClient.begin(payload);
+    }
+}
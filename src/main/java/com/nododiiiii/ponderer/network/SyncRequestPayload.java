@@ -5,15 +5,93 @@ import net.minecraft.network.RegistryFriendlyByteBuf;
 import net.minecraft.network.codec.StreamCodec;
 import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+import net.neoforged.neoforge.network.PacketDistributor;
+import org.jetbrains.annotations.Nullable;
 
-public record SyncRequestPayload() implements CustomPacketPayload {
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Client -> Server pull request. Carries the client's last-synced hashes
+ * ({@code "scripts/<id>"} / {@code "structures/<id>"} -> 64-bit hash prefix) so the
+ * server only sends files that changed since. Large maps are split over several
+ * packets; the server starts the transfer when the one marked {@code last} arrives.
+ */
+public record SyncRequestPayload(Map<String, Long> knownHashes, boolean last) implements CustomPacketPayload {
     public static final Type<SyncRequestPayload> TYPE =
         new Type<>(ResourceLocation.fromNamespaceAndPath(Ponderer.MODID, "sync_request"));
     public static final StreamCodec<RegistryFriendlyByteBuf, SyncRequestPayload> CODEC =
-        StreamCodec.of((buf, payload) -> {}, buf -> new SyncRequestPayload());
+        StreamCodec.of(SyncRequestPayload::encode, SyncRequestPayload::decode);
+
+    /** Hash entries per packet, keeps each request well under the serverbound size limit. */
+    private static final int BATCH_SIZE = 256;
+    /** Upper bound on entries accepted from one client for one pull. */
+    private static final int MAX_ENTRIES = 1 << 16;
+
+    private static final Map<UUID, Map<String, Long>> PENDING = new ConcurrentHashMap<>();
 
     @Override
     public Type<? extends CustomPacketPayload> type() {
         return TYPE;
     }
-}
\ No newline at end of file
+
+    private static void encode(RegistryFriendlyByteBuf buf, SyncRequestPayload payload) {
+        buf.writeBoolean(payload.last());
+        buf.writeVarInt(payload.knownHashes().size());
+        for (var e : payload.knownHashes().entrySet()) {
+            buf.writeUtf(e.getKey());
+            buf.writeLong(e.getValue());
+        }
+    }
+
+    private static SyncRequestPayload decode(RegistryFriendlyByteBuf buf) {
+        boolean last = buf.readBoolean();
+        int size = buf.readVarInt();
+        Map<String, Long> known = new HashMap<>(Math.min(size, BATCH_SIZE) * 2);
+        for (int i = 0; i < size; i++) {
+            known.put(buf.readUtf(), buf.readLong());
+        }
+        return new SyncRequestPayload(known, last);
+    }
+
+    /**
+     * Send a pull request, splitting the known hashes over as many packets as needed.
+     */
+    public static void send(Map<String, Long> knownHashes) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(knownHashes.entrySet());
+        int i = 0;
+        do {
+            int end = Math.min(entries.size(), i + BATCH_SIZE);
+            Map<String, Long> batch = new HashMap<>();
+            for (var e : entries.subList(i, end)) {
+                batch.put(e.getKey(), e.getValue());
+            }
+            PacketDistributor.sendToServer(new SyncRequestPayload(batch, end >= entries.size()));
+            i = end;
+        } while (i < entries.size());
+    }
+
+    /** Discard a request whose {@code last} packet never arrived. */
+    static void forget(ServerPlayer player) {
+        PENDING.remove(player.getUUID());
+    }
+
+    public static void handle(SyncRequestPayload payload, @Nullable ServerPlayer player) {
+        if (player == null) {
+            return;
+        }
+        Map<String, Long> known = PENDING.computeIfAbsent(player.getUUID(), k -> new HashMap<>());
+        if (known.size() + payload.knownHashes().size() <= MAX_ENTRIES) {
+            known.putAll(payload.knownHashes());
+        }
+        if (payload.last()) {
+            PENDING.remove(player.getUUID());
+            SyncTransfer.sendChanged(player, known);
+        }
+    }
+}
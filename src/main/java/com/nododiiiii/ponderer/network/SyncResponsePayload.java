@@ -3,7 +3,10 @@ package com.nododiiiii.ponderer.network;
 import com.mojang.logging.LogUtils;
 import com.nododiiiii.ponderer.Ponderer;
 import com.nododiiiii.ponderer.ponder.PondererClientCommands;
+import com.nododiiiii.ponderer.ponder.SceneFileWatcher;
+import com.nododiiiii.ponderer.ponder.SceneMerge;
 import com.nododiiiii.ponderer.ponder.SceneStore;
+import com.nododiiiii.ponderer.ponder.StructureTemplateCache;
 import com.nododiiiii.ponderer.ponder.SyncMeta;
 import net.createmod.ponder.foundation.PonderIndex;
 import net.minecraft.client.Minecraft;
@@ -38,12 +41,12 @@ public record SyncResponsePayload(List<FileEntry> scripts, List<FileEntry> struc
         buf.writeVarInt(payload.scripts().size());
         for (FileEntry entry : payload.scripts()) {
             buf.writeUtf(entry.id());
-            buf.writeByteArray(entry.bytes());
+            buf.writeByteArray(SyncCompression.encode(entry.bytes(), true));
         }
         buf.writeVarInt(payload.structures().size());
         for (FileEntry entry : payload.structures()) {
             buf.writeUtf(entry.id());
-            buf.writeByteArray(entry.bytes());
+            buf.writeByteArray(SyncCompression.encode(entry.bytes(), false));
         }
     }
 
@@ -51,12 +54,12 @@ public record SyncResponsePayload(List<FileEntry> scripts, List<FileEntry> struc
         int scriptsSize = buf.readVarInt();
         List<FileEntry> scripts = new ArrayList<>(scriptsSize);
         for (int i = 0; i < scriptsSize; i++) {
-            scripts.add(new FileEntry(buf.readUtf(), buf.readByteArray()));
+            scripts.add(new FileEntry(buf.readUtf(), SyncCompression.decode(buf.readByteArray())));
         }
         int structuresSize = buf.readVarInt();
         List<FileEntry> structures = new ArrayList<>(structuresSize);
         for (int i = 0; i < structuresSize; i++) {
-            structures.add(new FileEntry(buf.readUtf(), buf.readByteArray()));
+            structures.add(new FileEntry(buf.readUtf(), SyncCompression.decode(buf.readByteArray())));
         }
         return new SyncResponsePayload(scripts, structures);
     }
@@ -80,13 +83,37 @@ public record SyncResponsePayload(List<FileEntry> scripts, List<FileEntry> struc
         boolean isCheckMode = "check".equals(pullMode);
         java.util.Map<String, byte[]> syncedHashes = new java.util.HashMap<>();
 
+        // Hash every local counterpart up front, in parallel, against a single read of the sync meta
+        java.util.Map<String, String> statuses = java.util.Map.of();
+        if (!"force".equals(pullMode)) {
+            List<SyncMeta.PulledFile> pulled = new ArrayList<>(payload.scripts().size() + payload.structures().size());
+            for (FileEntry entry : payload.scripts()) {
+                pulled.add(new SyncMeta.PulledFile("scripts/" + entry.id(), entry.bytes(),
+                    resolveLocalPath(scriptsDir, entry.id(), ".json")));
+            }
+            for (FileEntry entry : payload.structures()) {
+                pulled.add(new SyncMeta.PulledFile("structures/" + entry.id(), entry.bytes(),
+                    resolveLocalPath(structuresDir, entry.id(), ".nbt")));
+            }
+            statuses = SyncMeta.checkConflicts(pulled);
+        }
+
         for (FileEntry entry : payload.scripts()) {
             String metaKey = "scripts/" + entry.id();
-            Path localFile = resolveLocalPath(scriptsDir, entry.id(), ".json");
 
             if (!"force".equals(pullMode)) {
-                String status = SyncMeta.checkConflict(metaKey, entry.bytes(), localFile);
+                String status = statuses.get(metaKey);
                 if ("both_modified".equals(status)) {
+                    byte[] merged = tryMerge(metaKey, entry, resolveLocalPath(scriptsDir, entry.id(), ".json"));
+                    if (merged != null) {
+                        // The server version becomes the sync point; the merged file is a local change on top of it
+                        writeFile(scriptsDir, entry.id(), merged, ".json");
+                        syncedHashes.put(metaKey, entry.bytes());
+                        SyncMeta.saveBase(metaKey, entry.bytes());
+                        notifyClient(net.minecraft.network.chat.Component.translatable("ponderer.cmd.pull.merged", entry.id()));
+                        written++;
+                        continue;
+                    }
                     conflicts++;
                     if (isCheckMode) {
                         notifyClient(net.minecraft.network.chat.Component.translatable("ponderer.cmd.pull.conflict_both", entry.id()));
@@ -107,15 +134,15 @@ public record SyncResponsePayload(List<FileEntry> scripts, List<FileEntry> struc
 
             writeFile(scriptsDir, entry.id(), entry.bytes(), ".json");
             syncedHashes.put(metaKey, entry.bytes());
+            SyncMeta.saveBase(metaKey, entry.bytes());
             written++;
         }
 
         for (FileEntry entry : payload.structures()) {
             String metaKey = "structures/" + entry.id();
-            Path localFile = resolveLocalPath(structuresDir, entry.id(), ".nbt");
 
             if (!"force".equals(pullMode)) {
-                String status = SyncMeta.checkConflict(metaKey, entry.bytes(), localFile);
+                String status = statuses.get(metaKey);
                 if ("both_modified".equals(status)) {
                     conflicts++;
                     if (isCheckMode) {
@@ -152,6 +179,29 @@ public record SyncResponsePayload(List<FileEntry> scripts, List<FileEntry> struc
         }
     }
 
+    /**
+     * Three-way merge a script changed on both sides against its stored sync base.
+     *
+     * @return the merged file, or null if there is no base or the changes overlap (the overlaps are reported)
+     */
+    private static byte[] tryMerge(String metaKey, FileEntry entry, Path localFile) {
+        byte[] base = SyncMeta.loadBase(metaKey);
+        if (base == null) return null;
+        SceneMerge.Result result;
+        try {
+            result = SceneMerge.merge(base, Files.readAllBytes(localFile), entry.bytes());
+        } catch (Exception e) {
+            LOGGER.warn("Failed to merge {}", entry.id(), e);
+            return null;
+        }
+        if (result == null) return null;
+        if (!result.clean()) {
+            notifyClient(net.minecraft.network.chat.Component.translatable("ponderer.cmd.pull.merge_conflict",
+                entry.id(), String.join(", ", result.conflicts())));
+        }
+        return result.merged();
+    }
+
     private static Path resolveLocalPath(Path root, String id, String ext) {
         ResourceLocation loc = ResourceLocation.tryParse(id);
         if (loc == null) return root.resolve(id + ext);
@@ -177,7 +227,9 @@ public record SyncResponsePayload(List<FileEntry> scripts, List<FileEntry> struc
             : root.resolve(loc.getNamespace()).resolve(loc.getPath() + ext);
         try {
             Files.createDirectories(path.getParent());
+            SceneFileWatcher.markOwnWrite(path);
             Files.write(path, bytes);
+            StructureTemplateCache.invalidate(path);
         } catch (Exception e) {
             LOGGER.warn("Failed to write file: {}", path, e);
         }
@@ -0,0 +1,316 @@
+package com.nododiiiii.ponderer.network;
+
+import com.mojang.logging.LogUtils;
+import com.nododiiiii.ponderer.ponder.SceneStore;
+import com.nododiiiii.ponderer.ponder.ServerHashCache;
+import com.nododiiiii.ponderer.ponder.SyncMeta;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.neoforged.neoforge.network.PacketDistributor;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Server side of a pull. Small libraries still go out as one {@link SyncResponsePayload};
+ * larger ones are announced with a {@link SyncManifestPayload} and streamed as
+ * {@link SyncChunkPayload}s, at most {@link #WINDOW} chunks ahead of the client's acks.
+ *
+ * Files are listed and read on the {@link ServerIoExecutor}; only packet sending is
+ * handed back to the server thread. The optional completion callback runs on the server thread
+ * once the last packet of the pull has been queued, so anything it sends reaches the client after the files.
+ */
+public final class SyncTransfer {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    /** Payload bytes per chunk packet. */
+    static final int CHUNK_SIZE = 32 * 1024;
+    /** Chunks that may be in flight without an ack before the server pauses. */
+    static final int WINDOW = 16;
+    /** Pulls below this total size are sent as a single packet. */
+    static final long CHUNKED_THRESHOLD = 512 * 1024;
+    /** Largest single file a pull sends; the client refuses manifests announcing more. */
+    static final int MAX_FILE_SIZE = 32 * 1024 * 1024;
+    /** Largest total a chunked pull may announce; the client refuses manifests announcing more. */
+    static final long MAX_TOTAL_SIZE = 256L * 1024 * 1024;
+
+    private static final Map<UUID, Outgoing> OUTGOING = new ConcurrentHashMap<>();
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    private SyncTransfer() {
+    }
+
+    /**
+     * Send every server script and structure to the player.
+     */
+    public static void sendAll(ServerPlayer player) {
+        sendChanged(player, Map.of(), sent -> {
+        });
+    }
+
+    /**
+     * Send every server script and structure to the player, then call {@code onDone} on the server thread
+     * with whether the transfer ran to the end (files over the size limit are reported and left out).
+     */
+    public static void sendAll(ServerPlayer player, Consumer<Boolean> onDone) {
+        sendChanged(player, Map.of(), onDone);
+    }
+
+    /**
+     * Send the server scripts and structures whose hash differs from the client's
+     * last-synced hash in {@code knownHashes} (keyed like SyncMeta, values from SyncMeta.shortHash).
+     */
+    public static void sendChanged(ServerPlayer player, Map<String, Long> knownHashes) {
+        sendChanged(player, knownHashes, sent -> {
+        });
+    }
+
+    private static void sendChanged(ServerPlayer player, Map<String, Long> knownHashes, Consumer<Boolean> onDone) {
+        MinecraftServer server = player.server;
+        boolean accepted = ServerIoExecutor.submit(player, () -> {
+            List<SceneStore.ServerFile> scripts = changedOnly(server, SceneStore.listServerScripts(server), "scripts/", knownHashes);
+            List<SceneStore.ServerFile> structures = changedOnly(server, SceneStore.listServerStructures(server), "structures/", knownHashes);
+            long total = 0;
+            for (SceneStore.ServerFile file : scripts) total += file.size();
+            for (SceneStore.ServerFile file : structures) total += file.size();
+
+            if (total < CHUNKED_THRESHOLD) {
+                SyncResponsePayload response = new SyncResponsePayload(
+                    SceneStore.readServerFiles(scripts), SceneStore.readServerFiles(structures));
+                server.execute(() -> {
+                    PacketDistributor.sendToPlayer(player, response);
+                    onDone.accept(true);
+                });
+                return;
+            }
+
+            List<SceneStore.ServerFile> files = new ArrayList<>(scripts.size() + structures.size());
+            List<SyncManifestPayload.FileInfo> infos = new ArrayList<>(scripts.size() + structures.size());
+            List<String> skipped = new ArrayList<>();
+            long announced = 0;
+            for (SceneStore.ServerFile file : scripts) {
+                announced += add(file, false, files, infos, skipped, announced);
+            }
+            for (SceneStore.ServerFile file : structures) {
+                announced += add(file, true, files, infos, skipped, announced);
+            }
+            if (!skipped.isEmpty()) {
+                LOGGER.warn("Not sending {} file(s) to {}, over the sync size limit: {}",
+                    skipped.size(), player.getScoreboardName(), skipped);
+                server.execute(() -> player.sendSystemMessage(Component.translatable("ponderer.cmd.pull.too_large",
+                    skipped.size(), MAX_FILE_SIZE / (1024 * 1024), MAX_TOTAL_SIZE / (1024 * 1024), String.join(", ", skipped))));
+            }
+
+            Outgoing out = new Outgoing(NEXT_ID.incrementAndGet(), player, files, infos, onDone);
+            Outgoing previous = OUTGOING.put(player.getUUID(), out);
+            if (previous != null) {
+                previous.finish(false); // superseded by this pull
+            }
+            SyncManifestPayload manifest = new SyncManifestPayload(out.id, infos);
+            server.execute(() -> PacketDistributor.sendToPlayer(player, manifest));
+            LOGGER.info("Streaming {} file(s), {} bytes to {}", files.size(), announced, player.getScoreboardName());
+            pump(out);
+        });
+        if (!accepted) {
+            player.sendSystemMessage(Component.translatable("ponderer.cmd.server_busy"));
+            onDone.accept(false);
+        }
+    }
+
+    /**
+     * Add {@code file} to a chunked transfer unless it would exceed what the client accepts.
+     *
+     * @return the bytes added to the transfer
+     */
+    private static long add(SceneStore.ServerFile file, boolean structure, List<SceneStore.ServerFile> files,
+                            List<SyncManifestPayload.FileInfo> infos, List<String> skipped, long announced) {
+        if (file.size() > MAX_FILE_SIZE || announced + file.size() > MAX_TOTAL_SIZE) {
+            skipped.add((structure ? "structures/" : "scripts/") + file.id());
+            return 0;
+        }
+        files.add(file);
+        infos.add(new SyncManifestPayload.FileInfo(structure, file.id(), (int) file.size()));
+        return file.size();
+    }
+
+    private static List<SceneStore.ServerFile> changedOnly(MinecraftServer server, List<SceneStore.ServerFile> files,
+                                                           String keyPrefix, Map<String, Long> knownHashes) {
+        if (knownHashes.isEmpty()) {
+            return files;
+        }
+        List<SceneStore.ServerFile> changed = new ArrayList<>(files.size());
+        for (SceneStore.ServerFile file : files) {
+            Long known = knownHashes.get(keyPrefix + file.id());
+            if (known == null || known != SyncMeta.shortHash(ServerHashCache.hash(server, file.path()))) {
+                changed.add(file);
+            }
+        }
+        ServerHashCache.flush();
+        return changed;
+    }
+
+    /** End the player's transfer, if any, e.g. because they disconnected with no ack on the way. */
+    static void cancel(ServerPlayer player) {
+        Outgoing out = OUTGOING.remove(player.getUUID());
+        if (out != null) {
+            out.finish(false);
+        }
+    }
+
+    static void onAck(ServerPlayer player, int transferId, int received) {
+        Outgoing out = OUTGOING.get(player.getUUID());
+        if (out == null || out.id != transferId) {
+            return;
+        }
+        if (received == SyncChunkAckPayload.CANCEL) {
+            OUTGOING.remove(player.getUUID(), out);
+            out.finish(false);
+            return;
+        }
+        out.acked = Math.max(out.acked, received);
+        ServerIoExecutor.execute(() -> pump(out));
+    }
+
+    /**
+     * Send chunks until the window is full or the transfer is done. Runs on the I/O pool;
+     * pumps for the same transfer are serialized on the transfer itself.
+     */
+    private static void pump(Outgoing out) {
+        synchronized (out) {
+            pumpLocked(out);
+        }
+    }
+
+    private static void pumpLocked(Outgoing out) {
+        UUID uuid = out.player.getUUID();
+        if (OUTGOING.get(uuid) != out) {
+            return; // superseded by a newer pull
+        }
+        if (out.player.hasDisconnected()) {
+            OUTGOING.remove(uuid, out);
+            out.finish(false);
+            return;
+        }
+
+        while (true) {
+            while (out.fileIndex < out.files.size() && out.files.get(out.fileIndex).size() == 0) {
+                out.fileIndex++;
+            }
+            if (out.fileIndex >= out.files.size()) {
+                // Done as soon as the last chunk is queued; the client doesn't ack the tail of a transfer
+                OUTGOING.remove(uuid, out);
+                out.finish(true);
+                return;
+            }
+            if (out.sent - out.acked >= WINDOW) {
+                return;
+            }
+
+            SceneStore.ServerFile file = out.files.get(out.fileIndex);
+            int len = (int) Math.min(CHUNK_SIZE, file.size() - out.offset);
+            byte[] data;
+            try {
+                data = out.readChunk(file, len);
+            } catch (IOException e) {
+                LOGGER.warn("Failed to read {} for sync, aborting transfer", file.path(), e);
+                OUTGOING.remove(uuid, out);
+                SyncChunkPayload abort = new SyncChunkPayload(out.id, SyncChunkPayload.ABORT,
+                    SyncCompression.encode(new byte[0], false));
+                out.player.server.execute(() -> PacketDistributor.sendToPlayer(out.player, abort));
+                out.finish(false);
+                return;
+            }
+
+            // Scripts compress well; structure .nbt files are already gzip'd
+            boolean compressible = !out.infos.get(out.fileIndex).structure();
+            SyncChunkPayload chunk = new SyncChunkPayload(out.id, out.fileIndex, SyncCompression.encode(data, compressible));
+            out.player.server.execute(() -> PacketDistributor.sendToPlayer(out.player, chunk));
+            out.sent++;
+            out.offset += len;
+            if (out.offset >= file.size()) {
+                out.closeFile();
+                out.fileIndex++;
+                out.offset = 0;
+            }
+        }
+    }
+
+    private static final class Outgoing {
+        final int id;
+        final ServerPlayer player;
+        final List<SceneStore.ServerFile> files;
+        final List<SyncManifestPayload.FileInfo> infos;
+        private final Consumer<Boolean> onDone;
+        private final AtomicBoolean finished = new AtomicBoolean();
+        /** Written on the server thread by acks, read by the pump. */
+        volatile int acked;
+        // Only touched while pumping, under the transfer's lock
+        int sent;
+        int fileIndex;
+        long offset;
+        /** The file being sent, open from its first chunk to its last. */
+        private FileChannel channel;
+
+        Outgoing(int id, ServerPlayer player, List<SceneStore.ServerFile> files,
+                 List<SyncManifestPayload.FileInfo> infos, Consumer<Boolean> onDone) {
+            this.id = id;
+            this.player = player;
+            this.files = files;
+            this.infos = infos;
+            this.onDone = onDone;
+        }
+
+        /**
+         * Read the next chunk of {@code file}. The file stays open until its last chunk, so a push that replaces
+         * it by rename mid-transfer doesn't mix old and new bytes: this transfer keeps reading the old content.
+         */
+        byte[] readChunk(SceneStore.ServerFile file, int len) throws IOException {
+            if (channel == null) {
+                channel = FileChannel.open(file.path(), StandardOpenOption.READ);
+                if (channel.size() != file.size()) {
+                    throw new IOException("File changed size since the sync manifest: " + file.path());
+                }
+            }
+            byte[] data = new byte[len];
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new IOException("File changed size during sync: " + file.path());
+                }
+            }
+            return data;
+        }
+
+        void closeFile() {
+            if (channel == null) return;
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOGGER.debug("Failed to close {}", files.get(fileIndex).path(), e);
+            }
+            channel = null;
+        }
+
+        /** Report the outcome once, on the server thread after every packet queued so far. */
+        void finish(boolean sent) {
+            if (finished.compareAndSet(false, true)) {
+                // Under the transfer's lock so a pump in progress finishes its read first
+                synchronized (this) {
+                    closeFile();
+                }
+                player.server.execute(() -> onDone.accept(sent));
+            }
+        }
+    }
+}
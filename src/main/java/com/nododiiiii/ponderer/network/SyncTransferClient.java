@@ -0,0 +1,136 @@
+package com.nododiiiii.ponderer.network;
+
+import com.mojang.logging.LogUtils;
+import com.nododiiiii.ponderer.ponder.PondererClientCommands;
+import io.netty.handler.codec.DecoderException;
+import net.minecraft.client.Minecraft;
+import net.minecraft.network.chat.Component;
+import net.neoforged.neoforge.network.PacketDistributor;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Client side of a chunked pull: reassembles {@link SyncChunkPayload}s announced by a
+ * {@link SyncManifestPayload}, acks progress, and hands the finished files to
+ * {@link SyncResponsePayload#handle} exactly as a single-packet pull would.
+ * All methods run on the client thread.
+ */
+public final class SyncTransferClient {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    /** Ack after this many chunks; must not exceed the server window. */
+    private static final int ACK_INTERVAL = SyncTransfer.WINDOW / 4;
+
+    private static Incoming current;
+
+    private SyncTransferClient() {
+    }
+
+    static void begin(SyncManifestPayload manifest) {
+        // Sizes come from the server; refuse to preallocate more than a legitimate pull can need
+        long total = 0;
+        for (SyncManifestPayload.FileInfo info : manifest.files()) {
+            if (info.size() < 0 || info.size() > SyncTransfer.MAX_FILE_SIZE) {
+                total = Long.MAX_VALUE;
+                break;
+            }
+            total += info.size();
+        }
+        if (total > SyncTransfer.MAX_TOTAL_SIZE) {
+            LOGGER.warn("Refusing chunked sync {}: manifest announces too much data", manifest.transferId());
+            current = null;
+            PacketDistributor.sendToServer(new SyncChunkAckPayload(manifest.transferId(), SyncChunkAckPayload.CANCEL));
+            PondererClientCommands.consumePullMode();
+            notifyClient(Component.translatable("ponderer.cmd.pull.rejected"));
+            return;
+        }
+        current = new Incoming(manifest);
+        if (current.isComplete()) {
+            finish(current);
+        }
+    }
+
+    static void accept(SyncChunkPayload chunk) {
+        Incoming in = current;
+        if (in == null || in.manifest.transferId() != chunk.transferId()) {
+            return;
+        }
+        if (chunk.fileIndex() == SyncChunkPayload.ABORT || !in.append(chunk.fileIndex(), decode(chunk.data()))) {
+            LOGGER.warn("Chunked sync {} aborted", chunk.transferId());
+            current = null;
+            PondererClientCommands.consumePullMode();
+            notifyClient(Component.translatable("ponderer.cmd.pull.aborted"));
+            return;
+        }
+
+        in.received++;
+        if (in.isComplete()) {
+            finish(in);
+        } else if (in.received % ACK_INTERVAL == 0) {
+            PacketDistributor.sendToServer(new SyncChunkAckPayload(in.manifest.transferId(), in.received));
+        }
+    }
+
+    private static byte[] decode(byte[] block) {
+        try {
+            return SyncCompression.decode(block);
+        } catch (DecoderException e) {
+            LOGGER.warn("Invalid sync chunk", e);
+            return null;
+        }
+    }
+
+    private static void finish(Incoming in) {
+        current = null;
+        List<SyncResponsePayload.FileEntry> scripts = new ArrayList<>();
+        List<SyncResponsePayload.FileEntry> structures = new ArrayList<>();
+        List<SyncManifestPayload.FileInfo> files = in.manifest.files();
+        for (int i = 0; i < files.size(); i++) {
+            SyncManifestPayload.FileInfo info = files.get(i);
+            SyncResponsePayload.FileEntry entry = new SyncResponsePayload.FileEntry(info.id(), in.data[i]);
+            (info.structure() ? structures : scripts).add(entry);
+        }
+        SyncResponsePayload.handle(new SyncResponsePayload(scripts, structures));
+    }
+
+    private static void notifyClient(Component message) {
+        if (Minecraft.getInstance().player != null) {
+            Minecraft.getInstance().player.displayClientMessage(message, false);
+        }
+    }
+
+    private static final class Incoming {
+        final SyncManifestPayload manifest;
+        final byte[][] data;
+        final int[] filled;
+        long remaining;
+        int received;
+
+        Incoming(SyncManifestPayload manifest) {
+            this.manifest = manifest;
+            int n = manifest.files().size();
+            this.data = new byte[n][];
+            this.filled = new int[n];
+            for (int i = 0; i < n; i++) {
+                int size = manifest.files().get(i).size();
+                data[i] = new byte[size];
+                remaining += size;
+            }
+        }
+
+        boolean append(int fileIndex, byte[] chunk) {
+            if (chunk == null || fileIndex < 0 || fileIndex >= data.length || filled[fileIndex] + chunk.length > data[fileIndex].length) {
+                return false;
+            }
+            System.arraycopy(chunk, 0, data[fileIndex], filled[fileIndex], chunk.length);
+            filled[fileIndex] += chunk.length;
+            remaining -= chunk.length;
+            return true;
+        }
+
+        boolean isComplete() {
+            return remaining == 0;
+        }
+    }
+}
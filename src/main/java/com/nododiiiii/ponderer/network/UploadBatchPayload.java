@@ -0,0 +1,294 @@
+package com.nododiiiii.ponderer.network;
+
+import com.mojang.logging.LogUtils;
+import com.nododiiiii.ponderer.Ponderer;
+import com.nododiiiii.ponderer.ponder.SceneStore;
+import com.nododiiiii.ponderer.ponder.ServerHashCache;
+import com.nododiiiii.ponderer.ponder.SyncMeta;
+import com.nododiiiii.ponderer.ponder.UploadPermissions;
+import io.netty.handler.codec.DecoderException;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.neoforged.neoforge.network.PacketDistributor;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Client -> Server: push many scenes at once. Structure bytes are deduplicated by content
+ * ({@code structures} point into {@code blobs}), all conflict checks run before anything is
+ * written, and the accepted scenes are written as one batch. Answered by a single
+ * {@link UploadBatchResponsePayload}.
+ *
+ * A large push is {@link #split split} into several batches so no packet grows past {@link #MAX_BATCH_BYTES};
+ * each batch is checked and written on its own.
+ *
+ * Scene JSON and blobs travel as {@link SyncCompression} blocks and are only inflated by the handler,
+ * after the permission check.
+ */
+public record UploadBatchPayload(String mode, List<EncodedScene> scenes,
+                                 List<byte[]> blobs, List<StructureRef> structures) implements CustomPacketPayload {
+    public static final Type<UploadBatchPayload> TYPE =
+        new Type<>(ResourceLocation.fromNamespaceAndPath(Ponderer.MODID, "upload_batch"));
+    public static final StreamCodec<RegistryFriendlyByteBuf, UploadBatchPayload> CODEC =
+        StreamCodec.of(UploadBatchPayload::encode, UploadBatchPayload::decode);
+    /**
+     * Uncompressed scene JSON and structure bytes per batch. A scene bigger than this on its own still
+     * goes out alone, exactly as large as a single-scene push of it.
+     */
+    private static final int MAX_BATCH_BYTES = 512 * 1024;
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    /**
+     * @param structureIds structures this scene needs; only those of accepted scenes are written
+     */
+    public record SceneEntry(String sceneId, String json, String lastSyncHash, List<String> structureIds) {
+    }
+
+    /** A {@link SceneEntry} as carried by the payload, with {@code json} as a {@link SyncCompression} block. */
+    public record EncodedScene(String sceneId, byte[] json, String lastSyncHash, List<String> structureIds) {
+    }
+
+    public record StructureRef(String id, int blob) {
+    }
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+
+    /**
+     * Build a batch, storing each distinct structure content once and compressing everything for the wire.
+     */
+    public static UploadBatchPayload of(String mode, List<SceneEntry> scenes,
+                                        List<UploadScenePayload.StructureEntry> structures) {
+        List<EncodedScene> encoded = new ArrayList<>(scenes.size());
+        for (SceneEntry scene : scenes) {
+            encoded.add(new EncodedScene(scene.sceneId(),
+                SyncCompression.encode(scene.json().getBytes(StandardCharsets.UTF_8), true),
+                scene.lastSyncHash(), scene.structureIds()));
+        }
+        List<byte[]> blobs = new ArrayList<>();
+        List<StructureRef> refs = new ArrayList<>();
+        Map<String, Integer> blobByHash = new HashMap<>();
+        for (UploadScenePayload.StructureEntry entry : structures) {
+            int blob = blobByHash.computeIfAbsent(SyncMeta.sha256(entry.bytes()), k -> {
+                blobs.add(SyncCompression.encode(entry.bytes(), false));
+                return blobs.size() - 1;
+            });
+            refs.add(new StructureRef(entry.id(), blob));
+        }
+        return new UploadBatchPayload(mode, encoded, blobs, refs);
+    }
+
+    /**
+     * Pack scenes into as few batches as fit {@link #MAX_BATCH_BYTES}, in order. Each batch carries only
+     * the structures its own scenes need, so a structure shared across batches is sent with each of them.
+     */
+    public static List<UploadBatchPayload> split(String mode, List<SceneEntry> scenes,
+                                                 List<UploadScenePayload.StructureEntry> structures) {
+        Map<String, UploadScenePayload.StructureEntry> byId = new HashMap<>();
+        for (UploadScenePayload.StructureEntry entry : structures) {
+            byId.putIfAbsent(entry.id(), entry);
+        }
+
+        List<UploadBatchPayload> batches = new ArrayList<>();
+        List<SceneEntry> batch = new ArrayList<>();
+        Map<String, UploadScenePayload.StructureEntry> batchStructures = new LinkedHashMap<>();
+        long size = 0;
+        for (SceneEntry scene : scenes) {
+            long cost = cost(scene, byId, batchStructures);
+            if (!batch.isEmpty() && size + cost > MAX_BATCH_BYTES) {
+                batches.add(of(mode, batch, new ArrayList<>(batchStructures.values())));
+                batch = new ArrayList<>();
+                batchStructures.clear();
+                size = 0;
+                cost = cost(scene, byId, batchStructures);
+            }
+            batch.add(scene);
+            for (String id : scene.structureIds()) {
+                UploadScenePayload.StructureEntry entry = byId.get(id);
+                if (entry != null) {
+                    batchStructures.putIfAbsent(id, entry);
+                }
+            }
+            size += cost;
+        }
+        if (!batch.isEmpty()) {
+            batches.add(of(mode, batch, new ArrayList<>(batchStructures.values())));
+        }
+        return batches;
+    }
+
+    /** Bytes {@code scene} adds to a batch that already carries {@code present}. */
+    private static long cost(SceneEntry scene, Map<String, UploadScenePayload.StructureEntry> byId,
+                             Map<String, UploadScenePayload.StructureEntry> present) {
+        long cost = scene.json().getBytes(StandardCharsets.UTF_8).length;
+        for (String id : scene.structureIds()) {
+            UploadScenePayload.StructureEntry entry = byId.get(id);
+            if (entry != null && !present.containsKey(id)) {
+                cost += entry.bytes().length;
+            }
+        }
+        return cost;
+    }
+
+    private static void encode(RegistryFriendlyByteBuf buf, UploadBatchPayload payload) {
+        buf.writeUtf(payload.mode() == null ? "check" : payload.mode());
+        buf.writeVarInt(payload.scenes().size());
+        for (EncodedScene scene : payload.scenes()) {
+            buf.writeUtf(scene.sceneId());
+            buf.writeByteArray(scene.json());
+            buf.writeUtf(scene.lastSyncHash() == null ? "" : scene.lastSyncHash());
+            buf.writeVarInt(scene.structureIds().size());
+            for (String id : scene.structureIds()) {
+                buf.writeUtf(id);
+            }
+        }
+        buf.writeVarInt(payload.blobs().size());
+        for (byte[] blob : payload.blobs()) {
+            buf.writeByteArray(blob);
+        }
+        buf.writeVarInt(payload.structures().size());
+        for (StructureRef ref : payload.structures()) {
+            buf.writeUtf(ref.id());
+            buf.writeVarInt(ref.blob());
+        }
+    }
+
+    private static UploadBatchPayload decode(RegistryFriendlyByteBuf buf) {
+        String mode = buf.readUtf();
+        int sceneCount = buf.readVarInt();
+        List<EncodedScene> scenes = new ArrayList<>(Math.min(sceneCount, 1024));
+        for (int i = 0; i < sceneCount; i++) {
+            String sceneId = buf.readUtf();
+            byte[] json = buf.readByteArray();
+            String lastSyncHash = buf.readUtf();
+            int idCount = buf.readVarInt();
+            List<String> structureIds = new ArrayList<>(Math.min(idCount, 64));
+            for (int j = 0; j < idCount; j++) {
+                structureIds.add(buf.readUtf());
+            }
+            scenes.add(new EncodedScene(sceneId, json, lastSyncHash, structureIds));
+        }
+        int blobCount = buf.readVarInt();
+        List<byte[]> blobs = new ArrayList<>(Math.min(blobCount, 1024));
+        for (int i = 0; i < blobCount; i++) {
+            blobs.add(buf.readByteArray());
+        }
+        int refCount = buf.readVarInt();
+        List<StructureRef> refs = new ArrayList<>(Math.min(refCount, 1024));
+        for (int i = 0; i < refCount; i++) {
+            refs.add(new StructureRef(buf.readUtf(), buf.readVarInt()));
+        }
+        return new UploadBatchPayload(mode, scenes, blobs, refs);
+    }
+
+    public static void handle(UploadBatchPayload payload, @Nullable ServerPlayer player) {
+        if (player == null) {
+            return;
+        }
+        if (!UploadPermissions.canUpload(player)) {
+            player.sendSystemMessage(Component.translatable("ponderer.cmd.push.no_permission"));
+            return;
+        }
+
+        MinecraftServer server = player.server;
+        boolean accepted = ServerIoExecutor.submit(player, () -> store(server, payload), statuses -> {
+            int uploaded = 0;
+            int conflicts = 0;
+            for (String status : statuses.values()) {
+                if (status.startsWith("ok:")) {
+                    uploaded++;
+                } else if ("conflict".equals(status)) {
+                    conflicts++;
+                }
+            }
+            player.sendSystemMessage(Component.translatable("ponderer.cmd.push.batch_result",
+                uploaded, conflicts, statuses.size() - uploaded - conflicts));
+            PacketDistributor.sendToPlayer(player, new UploadBatchResponsePayload(statuses));
+        });
+        if (!accepted) {
+            player.sendSystemMessage(Component.translatable("ponderer.cmd.server_busy"));
+        }
+    }
+
+    /**
+     * Conflict-check every scene, then write the accepted ones and their structures as one batch.
+     * Runs on the {@link ServerIoExecutor}.
+     *
+     * @return scene id -> {@link UploadResponsePayload} status
+     */
+    private static Map<String, String> store(MinecraftServer server, UploadBatchPayload payload) {
+        SyncCompression.Budget budget = new SyncCompression.Budget(SyncTransfer.MAX_TOTAL_SIZE);
+        List<SceneEntry> scenes = new ArrayList<>(payload.scenes().size());
+        List<byte[]> blobs = new ArrayList<>(payload.blobs().size());
+        try {
+            for (EncodedScene scene : payload.scenes()) {
+                scenes.add(new SceneEntry(scene.sceneId(), new String(budget.decode(scene.json()), StandardCharsets.UTF_8),
+                    scene.lastSyncHash(), scene.structureIds()));
+            }
+            for (byte[] blob : payload.blobs()) {
+                blobs.add(budget.decode(blob));
+            }
+        } catch (DecoderException e) {
+            LOGGER.warn("Rejected batch upload of {} scene(s): {}", payload.scenes().size(), e.getMessage());
+            Map<String, String> statuses = new LinkedHashMap<>();
+            for (EncodedScene scene : payload.scenes()) {
+                statuses.put(scene.sceneId(), "error");
+            }
+            return statuses;
+        }
+        synchronized (ServerIoExecutor.STORE_LOCK) {
+            return storeLocked(server, payload.mode(), scenes, blobs, payload.structures());
+        }
+    }
+
+    private static Map<String, String> storeLocked(MinecraftServer server, String mode, List<SceneEntry> scenes,
+                                                   List<byte[]> blobs, List<StructureRef> structures) {
+        boolean force = "force".equals(mode);
+        Map<String, String> statuses = new LinkedHashMap<>();
+        Map<String, String> sceneWrites = new LinkedHashMap<>();
+        Set<String> neededStructures = new HashSet<>();
+
+        for (SceneEntry scene : scenes) {
+            if (!force) {
+                String lastSyncHash = scene.lastSyncHash() == null ? "" : scene.lastSyncHash();
+                String serverHash = UploadScenePayload.computeServerSceneHash(server, scene.sceneId());
+                if (!serverHash.isEmpty() && !lastSyncHash.isEmpty() && !serverHash.equals(lastSyncHash)) {
+                    statuses.put(scene.sceneId(), "conflict");
+                    continue;
+                }
+            }
+            sceneWrites.put(scene.sceneId(), scene.json());
+            neededStructures.addAll(scene.structureIds());
+        }
+
+        Map<String, byte[]> structureWrites = new LinkedHashMap<>();
+        for (StructureRef ref : structures) {
+            if (neededStructures.contains(ref.id()) && ref.blob() >= 0 && ref.blob() < blobs.size()) {
+                structureWrites.put(ref.id(), blobs.get(ref.blob()));
+            }
+        }
+
+        boolean ok = sceneWrites.isEmpty() || SceneStore.saveBatchToServer(server, sceneWrites, structureWrites);
+        for (String sceneId : sceneWrites.keySet()) {
+            statuses.put(sceneId, ok ? "ok:" + UploadScenePayload.computeServerSceneHash(server, sceneId) : "error");
+        }
+        ServerHashCache.flush();
+        return statuses;
+    }
+}
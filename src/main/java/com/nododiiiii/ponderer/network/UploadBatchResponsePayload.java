@@ -0,0 +1,47 @@
+package com.nododiiiii.ponderer.network;
+
+import com.nododiiiii.ponderer.Ponderer;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Server -> Client response to an {@link UploadBatchPayload}: one status per scene,
+ * in the same format as {@link UploadResponsePayload}.
+ */
+public record UploadBatchResponsePayload(Map<String, String> statuses) implements CustomPacketPayload {
+    public static final Type<UploadBatchResponsePayload> TYPE =
+        new Type<>(ResourceLocation.fromNamespaceAndPath(Ponderer.MODID, "upload_batch_response"));
+    public static final StreamCodec<RegistryFriendlyByteBuf, UploadBatchResponsePayload> CODEC =
+        StreamCodec.of(UploadBatchResponsePayload::encode, UploadBatchResponsePayload::decode);
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+
+    private static void encode(RegistryFriendlyByteBuf buf, UploadBatchResponsePayload payload) {
+        buf.writeVarInt(payload.statuses().size());
+        for (var e : payload.statuses().entrySet()) {
+            buf.writeUtf(e.getKey());
+            buf.writeUtf(e.getValue());
+        }
+    }
+
+    private static UploadBatchResponsePayload decode(RegistryFriendlyByteBuf buf) {
+        int size = buf.readVarInt();
+        Map<String, String> statuses = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            statuses.put(buf.readUtf(), buf.readUtf());
+        }
+        return new UploadBatchResponsePayload(statuses);
+    }
+
+    public static void handle(UploadBatchResponsePayload payload) {
+        UploadResponsePayload.handleStatuses(payload.statuses());
+    }
+}
@@ -37,27 +37,37 @@ public record UploadResponsePayload(String sceneId, String status) implements Cu
     }
 
     public static void handle(UploadResponsePayload payload) {
-        if (payload.status() != null && payload.status().startsWith("ok:")) {
-            // Update SyncMeta with the new hash so next push/pull knows the sync point
-            String newHash = payload.status().substring(3);
-            String metaKey = "scripts/" + payload.sceneId();
+        handleStatuses(java.util.Map.of(payload.sceneId(), payload.status()));
+    }
+
+    /**
+     * Apply upload results for one or more scenes, recording new sync points with a single SyncMeta flush.
+     */
+    static void handleStatuses(java.util.Map<String, String> statuses) {
+        for (var e : statuses.entrySet()) {
+            String sceneId = e.getKey();
+            String status = e.getValue();
+            if (status != null && status.startsWith("ok:")) {
+                // Update SyncMeta with the new hash so next push/pull knows the sync point
+                String newHash = status.substring(3);
+                String metaKey = "scripts/" + sceneId;
 
-            // Also record the local file hash as the sync point
-            java.nio.file.Path localFile = resolveLocalScenePath(payload.sceneId());
-            if (localFile != null && java.nio.file.Files.exists(localFile)) {
-                try {
-                    byte[] bytes = java.nio.file.Files.readAllBytes(localFile);
-                    SyncMeta.recordHash(metaKey, bytes);
-                } catch (Exception ignored) {
-                    // fallback: use the server hash directly
-                    java.util.Map<String, String> meta = SyncMeta.load();
-                    meta.put(metaKey, newHash);
-                    SyncMeta.save(meta);
+                // Also record the local file hash as the sync point
+                java.nio.file.Path localFile = resolveLocalScenePath(sceneId);
+                if (localFile != null && java.nio.file.Files.exists(localFile)) {
+                    try {
+                        SyncMeta.put(metaKey, SyncMeta.sha256(localFile));
+                        SyncMeta.saveBase(metaKey, localFile);
+                    } catch (Exception ignored) {
+                        // fallback: use the server hash directly
+                        SyncMeta.put(metaKey, newHash);
+                    }
                 }
+            } else if ("conflict".equals(status)) {
+                notifyClient(net.minecraft.network.chat.Component.translatable("ponderer.cmd.push.conflict", sceneId));
             }
-        } else if ("conflict".equals(payload.status())) {
-            notifyClient(net.minecraft.network.chat.Component.translatable("ponderer.cmd.push.conflict", payload.sceneId()));
         }
+        SyncMeta.flush();
     }
 
     private static java.nio.file.Path resolveLocalScenePath(String sceneId) {
@@ -3,7 +3,9 @@ package com.nododiiiii.ponderer.network;
 import com.mojang.logging.LogUtils;
 import com.nododiiiii.ponderer.Ponderer;
 import com.nododiiiii.ponderer.ponder.SceneStore;
+import com.nododiiiii.ponderer.ponder.ServerHashCache;
 import com.nododiiiii.ponderer.ponder.UploadPermissions;
+import io.netty.handler.codec.DecoderException;
 import net.minecraft.network.RegistryFriendlyByteBuf;
 import net.minecraft.network.codec.StreamCodec;
 import net.minecraft.network.chat.Component;
@@ -13,10 +15,16 @@ import net.minecraft.server.level.ServerPlayer;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
-public record UploadScenePayload(String sceneId, String json,
+/**
+ * Client -> Server: push one scene with its structures. The scene JSON and structure bytes travel as
+ * {@link SyncCompression} blocks and are only inflated by the handler, after the permission check;
+ * build payloads with {@link #of}.
+ */
+public record UploadScenePayload(String sceneId, byte[] json,
                                  List<StructureEntry> structures,
                                  String mode, String lastSyncHash) implements CustomPacketPayload {
     public static final Type<UploadScenePayload> TYPE =
@@ -26,9 +34,23 @@ public record UploadScenePayload(String sceneId, String json,
 
     private static final Logger LOGGER = LogUtils.getLogger();
 
+    /** A structure file; inside a payload {@code bytes} is a {@link SyncCompression} block. */
     public record StructureEntry(String id, byte[] bytes) {
     }
 
+    /**
+     * Build a payload from the scene JSON and raw structure bytes, compressing them for the wire.
+     */
+    public static UploadScenePayload of(String sceneId, String json, List<StructureEntry> structures,
+                                        String mode, String lastSyncHash) {
+        List<StructureEntry> blocks = new ArrayList<>(structures.size());
+        for (StructureEntry entry : structures) {
+            blocks.add(new StructureEntry(entry.id(), SyncCompression.encode(entry.bytes(), false)));
+        }
+        return new UploadScenePayload(sceneId, SyncCompression.encode(json.getBytes(StandardCharsets.UTF_8), true),
+            blocks, mode, lastSyncHash);
+    }
+
     @Override
     public Type<? extends CustomPacketPayload> type() {
         return TYPE;
@@ -36,7 +58,7 @@ public record UploadScenePayload(String sceneId, String json,
 
     private static void encode(RegistryFriendlyByteBuf buf, UploadScenePayload payload) {
         buf.writeUtf(payload.sceneId());
-        buf.writeUtf(payload.json());
+        buf.writeByteArray(payload.json());
         buf.writeVarInt(payload.structures().size());
         for (StructureEntry entry : payload.structures()) {
             buf.writeUtf(entry.id());
@@ -48,9 +70,9 @@ public record UploadScenePayload(String sceneId, String json,
 
     private static UploadScenePayload decode(RegistryFriendlyByteBuf buf) {
         String sceneId = buf.readUtf();
-        String json = buf.readUtf();
+        byte[] json = buf.readByteArray();
         int size = buf.readVarInt();
-        List<StructureEntry> structures = new ArrayList<>(size);
+        List<StructureEntry> structures = new ArrayList<>(Math.min(size, 64));
         for (int i = 0; i < size; i++) {
             structures.add(new StructureEntry(buf.readUtf(), buf.readByteArray()));
         }
@@ -68,46 +90,83 @@ public record UploadScenePayload(String sceneId, String json,
             return;
         }
 
+        net.minecraft.server.MinecraftServer server = player.server;
+        boolean accepted = ServerIoExecutor.submit(player, () -> store(server, payload), status -> {
+            if ("conflict".equals(status)) {
+                // Server file was modified since last sync - conflict
+                player.sendSystemMessage(Component.translatable("ponderer.cmd.push.server_conflict", payload.sceneId()));
+            } else if (status.startsWith("ok:")) {
+                player.sendSystemMessage(Component.translatable("ponderer.cmd.push.upload_ok", payload.sceneId()));
+            } else {
+                player.sendSystemMessage(Component.translatable("ponderer.cmd.push.upload_failed", payload.sceneId()));
+            }
+            net.neoforged.neoforge.network.PacketDistributor.sendToPlayer(player,
+                new UploadResponsePayload(payload.sceneId(), status));
+        });
+        if (!accepted) {
+            player.sendSystemMessage(Component.translatable("ponderer.cmd.server_busy"));
+            net.neoforged.neoforge.network.PacketDistributor.sendToPlayer(player,
+                new UploadResponsePayload(payload.sceneId(), "error"));
+        }
+    }
+
+    /**
+     * Conflict check and disk writes for one upload. Runs on the {@link ServerIoExecutor}.
+     *
+     * @return the {@link UploadResponsePayload} status to report
+     */
+    private static String store(net.minecraft.server.MinecraftServer server, UploadScenePayload payload) {
+        SyncCompression.Budget budget = new SyncCompression.Budget(SyncTransfer.MAX_TOTAL_SIZE);
+        String json;
+        List<StructureEntry> structures = new ArrayList<>(payload.structures().size());
+        try {
+            json = new String(budget.decode(payload.json()), StandardCharsets.UTF_8);
+            for (StructureEntry entry : payload.structures()) {
+                structures.add(new StructureEntry(entry.id(), budget.decode(entry.bytes())));
+            }
+        } catch (DecoderException e) {
+            LOGGER.warn("Rejected upload of {}: {}", payload.sceneId(), e.getMessage());
+            return "error";
+        }
+        synchronized (ServerIoExecutor.STORE_LOCK) {
+            return storeLocked(server, payload, json, structures);
+        }
+    }
+
+    private static String storeLocked(net.minecraft.server.MinecraftServer server, UploadScenePayload payload,
+                                      String json, List<StructureEntry> structures) {
         String pushMode = payload.mode() == null ? "check" : payload.mode();
 
         // Conflict detection for non-force push
         if (!"force".equals(pushMode)) {
             String lastSyncHash = payload.lastSyncHash() == null ? "" : payload.lastSyncHash();
-            String serverHash = computeServerSceneHash(player.server, payload.sceneId());
+            String serverHash = computeServerSceneHash(server, payload.sceneId());
 
             if (!serverHash.isEmpty() && !lastSyncHash.isEmpty() && !serverHash.equals(lastSyncHash)) {
-                // Server file was modified since last sync - conflict
-                player.sendSystemMessage(Component.translatable("ponderer.cmd.push.server_conflict", payload.sceneId()));
-                net.neoforged.neoforge.network.PacketDistributor.sendToPlayer(player,
-                    new UploadResponsePayload(payload.sceneId(), "conflict"));
-                return;
+                return "conflict";
             }
         }
 
-        boolean ok = SceneStore.saveToServer(player.server, payload.sceneId(), payload.json());
-        if (ok && payload.structures() != null) {
-            for (StructureEntry entry : payload.structures()) {
+        boolean ok = SceneStore.saveToServer(server, payload.sceneId(), json);
+        if (ok) {
+            for (StructureEntry entry : structures) {
                 if (entry == null || entry.id() == null || entry.id().isBlank() || entry.bytes() == null) {
                     continue;
                 }
-                ok = SceneStore.saveStructureToServer(player.server, entry.id(), entry.bytes()) && ok;
+                ok = SceneStore.saveStructureToServer(server, entry.id(), entry.bytes()) && ok;
             }
         }
-
-        if (ok) {
-            player.sendSystemMessage(Component.translatable("ponderer.cmd.push.upload_ok", payload.sceneId()));
-            // Compute new server hash after write and send it back to client for SyncMeta update
-            String newHash = computeServerSceneHash(player.server, payload.sceneId());
-            net.neoforged.neoforge.network.PacketDistributor.sendToPlayer(player,
-                new UploadResponsePayload(payload.sceneId(), "ok:" + newHash));
-        } else {
-            player.sendSystemMessage(Component.translatable("ponderer.cmd.push.upload_failed", payload.sceneId()));
-            net.neoforged.neoforge.network.PacketDistributor.sendToPlayer(player,
-                new UploadResponsePayload(payload.sceneId(), "error"));
+        if (!ok) {
+            return "error";
         }
+
+        // Compute new server hash after write and send it back to client for SyncMeta update
+        String newHash = computeServerSceneHash(server, payload.sceneId());
+        ServerHashCache.flush();
+        return "ok:" + newHash;
     }
 
-    private static String computeServerSceneHash(net.minecraft.server.MinecraftServer server, String sceneId) {
+    static String computeServerSceneHash(net.minecraft.server.MinecraftServer server, String sceneId) {
         ResourceLocation loc = ResourceLocation.tryParse(sceneId);
         if (loc == null) return "";
         java.nio.file.Path sceneDir = SceneStore.getServerSceneDir(server);
@@ -115,10 +174,6 @@ public record UploadScenePayload(String sceneId, String json,
             ? sceneDir.resolve(loc.getPath() + ".json")
             : sceneDir.resolve(loc.getNamespace()).resolve(loc.getPath() + ".json");
         if (!java.nio.file.Files.exists(path)) return "";
-        try {
-            return com.nododiiiii.ponderer.ponder.SyncMeta.sha256(java.nio.file.Files.readAllBytes(path));
-        } catch (Exception e) {
-            return "";
-        }
+        return ServerHashCache.hash(server, path);
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.nododiiiii.ponderer.ponder;
 
+import javax.annotation.Nullable;
 import java.util.List;
 import java.util.Map;
 
@@ -41,8 +42,9 @@ public class DslScene {
         public String key;
         public List<Double> point;
         public String entity;
-        public List<Double> pos;
-        public List<Double> motion;
+        /** x, y, z; see {@link #pos()}. Vectors are kept as primitive arrays rather than boxed lists. */
+        private double[] pos;
+        private double[] motion;
         public List<Double> lookAt;
         public Float yaw;
         public Float pitch;
@@ -59,8 +61,8 @@ public class DslScene {
         public String color;
         public String block;
         public Map<String, String> blockProperties;
-        public List<Integer> blockPos;
-        public List<Integer> blockPos2;
+        private int[] blockPos;
+        private int[] blockPos2;
         public List<Double> offset;
         public Float rotX;
         public Float rotY;
@@ -74,8 +76,75 @@ public class DslScene {
         public Boolean whileSneaking;
         public Boolean whileCTRL;
 
+        /** Cached {@link StepType} for {@link #type}; re-resolved whenever type is reassigned. */
+        private transient StepType resolvedType;
+        private transient String resolvedFrom;
+
+        public StepType stepType() {
+            String current = type;
+            if (resolvedType == null || current != resolvedFrom) {
+                resolvedType = StepType.byId(current);
+                resolvedFrom = current;
+            }
+            return resolvedType;
+        }
+
         public int durationOrDefault(int fallback) {
             return duration == null ? fallback : Math.max(duration, 0);
         }
+
+        /** Entity or particle position, or null if unset. The returned array is the step's own. */
+        @Nullable
+        public double[] pos() {
+            return pos;
+        }
+
+        public void setPos(@Nullable double[] pos) {
+            this.pos = pos;
+        }
+
+        public void setPos(double x, double y, double z) {
+            this.pos = new double[] {x, y, z};
+        }
+
+        @Nullable
+        public double[] motion() {
+            return motion;
+        }
+
+        public void setMotion(@Nullable double[] motion) {
+            this.motion = motion;
+        }
+
+        public void setMotion(double x, double y, double z) {
+            this.motion = new double[] {x, y, z};
+        }
+
+        @Nullable
+        public int[] blockPos() {
+            return blockPos;
+        }
+
+        public void setBlockPos(@Nullable int[] blockPos) {
+            this.blockPos = blockPos;
+        }
+
+        public void setBlockPos(int x, int y, int z) {
+            this.blockPos = new int[] {x, y, z};
+        }
+
+        /** Far corner of a region starting at {@link #blockPos()}, or null for a single block. */
+        @Nullable
+        public int[] blockPos2() {
+            return blockPos2;
+        }
+
+        public void setBlockPos2(@Nullable int[] blockPos2) {
+            this.blockPos2 = blockPos2;
+        }
+
+        public void setBlockPos2(int x, int y, int z) {
+            this.blockPos2 = new int[] {x, y, z};
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,460 @@
+package com.nododiiiii.ponderer.ponder;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hand-written streaming (de)serializer for {@link DslScene}, {@link DslScene.SceneSegment} and
+ * {@link DslScene.DslStep}, replacing Gson's reflective binding for the scene schema.
+ *
+ * Reading accepts exactly what the reflective adapter did: unknown fields are skipped, absent fields
+ * keep their defaults, explicit nulls stay null, and the usual Gson coercions apply (numbers given as
+ * strings, booleans given as strings). Writing emits fields in declaration order and omits nulls,
+ * so files written before and after this codec are byte-identical.
+ *
+ * The step vectors pos, motion, blockPos and blockPos2 are read straight into the primitive arrays
+ * {@link DslScene.DslStep} keeps them in, without boxing each coordinate; a null coordinate reads as 0.
+ * Every DslStep field needs an entry in {@link StepAdapter}; DslSceneCodecTest checks that none is missing.
+ *
+ * Known step type ids are replaced by the {@link StepType#id()} constant, so the thousands of steps in
+ * a large scene set share one string per type and {@link DslScene.DslStep#stepType()} is resolved up front.
+ */
+public final class DslSceneCodec implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> typeToken) {
+        Class<? super T> raw = typeToken.getRawType();
+        if (raw != DslScene.class && raw != DslScene.SceneSegment.class && raw != DslScene.DslStep.class) {
+            return null;
+        }
+        TypeAdapter<LocalizedText> text = gson.getAdapter(LocalizedText.class);
+        StepAdapter steps = new StepAdapter(text);
+        if (raw == DslScene.DslStep.class) {
+            return (TypeAdapter<T>) steps.nullSafe();
+        }
+        SegmentAdapter segments = new SegmentAdapter(text, steps);
+        if (raw == DslScene.SceneSegment.class) {
+            return (TypeAdapter<T>) segments.nullSafe();
+        }
+        return (TypeAdapter<T>) new SceneAdapter(text, steps, segments).nullSafe();
+    }
+
+    private static final class SceneAdapter extends TypeAdapter<DslScene> {
+        private final TypeAdapter<LocalizedText> text;
+        private final StepAdapter steps;
+        private final SegmentAdapter segments;
+
+        SceneAdapter(TypeAdapter<LocalizedText> text, StepAdapter steps, SegmentAdapter segments) {
+            this.text = text;
+            this.steps = steps;
+            this.segments = segments;
+        }
+
+        @Override
+        public void write(JsonWriter out, DslScene scene) throws IOException {
+            out.beginObject();
+            writeString(out, "id", scene.id);
+            writeStrings(out, "items", scene.items);
+            writeText(out, text, "title", scene.title);
+            writeString(out, "structure", scene.structure);
+            writeStrings(out, "structures", scene.structures);
+            writeStrings(out, "tags", scene.tags);
+            writeList(out, "steps", scene.steps, steps);
+            writeList(out, "scenes", scene.scenes, segments);
+            writeString(out, "nbtFilter", scene.nbtFilter);
+            out.endObject();
+        }
+
+        @Override
+        public DslScene read(JsonReader in) throws IOException {
+            DslScene scene = new DslScene();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id" -> scene.id = readString(in);
+                    case "items" -> scene.items = readStrings(in);
+                    case "title" -> scene.title = text.read(in);
+                    case "structure" -> scene.structure = readString(in);
+                    case "structures" -> scene.structures = readStrings(in);
+                    case "tags" -> scene.tags = readStrings(in);
+                    case "steps" -> scene.steps = readList(in, steps);
+                    case "scenes" -> scene.scenes = readList(in, segments);
+                    case "nbtFilter" -> scene.nbtFilter = readString(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return scene;
+        }
+    }
+
+    private static final class SegmentAdapter extends TypeAdapter<DslScene.SceneSegment> {
+        private final TypeAdapter<LocalizedText> text;
+        private final StepAdapter steps;
+
+        SegmentAdapter(TypeAdapter<LocalizedText> text, StepAdapter steps) {
+            this.text = text;
+            this.steps = steps;
+        }
+
+        @Override
+        public void write(JsonWriter out, DslScene.SceneSegment segment) throws IOException {
+            out.beginObject();
+            writeString(out, "id", segment.id);
+            writeText(out, text, "title", segment.title);
+            writeList(out, "steps", segment.steps, steps);
+            out.endObject();
+        }
+
+        @Override
+        public DslScene.SceneSegment read(JsonReader in) throws IOException {
+            DslScene.SceneSegment segment = new DslScene.SceneSegment();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id" -> segment.id = readString(in);
+                    case "title" -> segment.title = text.read(in);
+                    case "steps" -> segment.steps = readList(in, steps);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return segment;
+        }
+    }
+
+    private static final class StepAdapter extends TypeAdapter<DslScene.DslStep> {
+        private final TypeAdapter<LocalizedText> text;
+
+        StepAdapter(TypeAdapter<LocalizedText> text) {
+            this.text = text;
+        }
+
+        @Override
+        public void write(JsonWriter out, DslScene.DslStep step) throws IOException {
+            out.beginObject();
+            writeString(out, "type", step.type);
+            writeString(out, "structure", step.structure);
+            writeNumber(out, "duration", step.duration);
+            writeNumber(out, "height", step.height);
+            writeText(out, text, "text", step.text);
+            writeString(out, "key", step.key);
+            writeNumbers(out, "point", step.point);
+            writeString(out, "entity", step.entity);
+            writeDoubles(out, "pos", step.pos());
+            writeDoubles(out, "motion", step.motion());
+            writeNumbers(out, "lookAt", step.lookAt);
+            writeNumber(out, "yaw", step.yaw);
+            writeNumber(out, "pitch", step.pitch);
+            writeNumber(out, "degrees", step.degrees);
+            writeNumber(out, "count", step.count);
+            writeNumbers(out, "bounds", step.bounds);
+            writeString(out, "direction", step.direction);
+            writeString(out, "linkId", step.linkId);
+            writeString(out, "action", step.action);
+            writeString(out, "item", step.item);
+            writeString(out, "sound", step.sound);
+            writeNumber(out, "soundVolume", step.soundVolume);
+            writeString(out, "source", step.source);
+            writeString(out, "color", step.color);
+            writeString(out, "block", step.block);
+            writeStringMap(out, "blockProperties", step.blockProperties);
+            writeInts(out, "blockPos", step.blockPos());
+            writeInts(out, "blockPos2", step.blockPos2());
+            writeNumbers(out, "offset", step.offset);
+            writeNumber(out, "rotX", step.rotX);
+            writeNumber(out, "rotY", step.rotY);
+            writeNumber(out, "rotZ", step.rotZ);
+            writeString(out, "nbt", step.nbt);
+            writeBoolean(out, "reDrawBlocks", step.reDrawBlocks);
+            writeBoolean(out, "destroyParticles", step.destroyParticles);
+            writeBoolean(out, "spawnParticles", step.spawnParticles);
+            writeBoolean(out, "placeNearTarget", step.placeNearTarget);
+            writeBoolean(out, "attachKeyFrame", step.attachKeyFrame);
+            writeBoolean(out, "whileSneaking", step.whileSneaking);
+            writeBoolean(out, "whileCTRL", step.whileCTRL);
+            out.endObject();
+        }
+
+        @Override
+        public DslScene.DslStep read(JsonReader in) throws IOException {
+            DslScene.DslStep step = new DslScene.DslStep();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "type" -> step.type = readString(in);
+                    case "structure" -> step.structure = readString(in);
+                    case "duration" -> step.duration = readInt(in);
+                    case "height" -> step.height = readInt(in);
+                    case "text" -> step.text = text.read(in);
+                    case "key" -> step.key = readString(in);
+                    case "point" -> step.point = readDoubles(in);
+                    case "entity" -> step.entity = readString(in);
+                    case "pos" -> step.setPos(readDoubleArray(in));
+                    case "motion" -> step.setMotion(readDoubleArray(in));
+                    case "lookAt" -> step.lookAt = readDoubles(in);
+                    case "yaw" -> step.yaw = readFloat(in);
+                    case "pitch" -> step.pitch = readFloat(in);
+                    case "degrees" -> step.degrees = readFloat(in);
+                    case "count" -> step.count = readInt(in);
+                    case "bounds" -> step.bounds = readInts(in);
+                    case "direction" -> step.direction = readString(in);
+                    case "linkId" -> step.linkId = readString(in);
+                    case "action" -> step.action = readString(in);
+                    case "item" -> step.item = readString(in);
+                    case "sound" -> step.sound = readString(in);
+                    case "soundVolume" -> step.soundVolume = readFloat(in);
+                    case "source" -> step.source = readString(in);
+                    case "color" -> step.color = readString(in);
+                    case "block" -> step.block = readString(in);
+                    case "blockProperties" -> step.blockProperties = readStringMap(in);
+                    case "blockPos" -> step.setBlockPos(readIntArray(in));
+                    case "blockPos2" -> step.setBlockPos2(readIntArray(in));
+                    case "offset" -> step.offset = readDoubles(in);
+                    case "rotX" -> step.rotX = readFloat(in);
+                    case "rotY" -> step.rotY = readFloat(in);
+                    case "rotZ" -> step.rotZ = readFloat(in);
+                    case "nbt" -> step.nbt = readString(in);
+                    case "reDrawBlocks" -> step.reDrawBlocks = readBoolean(in);
+                    case "destroyParticles" -> step.destroyParticles = readBoolean(in);
+                    case "spawnParticles" -> step.spawnParticles = readBoolean(in);
+                    case "placeNearTarget" -> step.placeNearTarget = readBoolean(in);
+                    case "attachKeyFrame" -> step.attachKeyFrame = readBoolean(in);
+                    case "whileSneaking" -> step.whileSneaking = readBoolean(in);
+                    case "whileCTRL" -> step.whileCTRL = readBoolean(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            StepType type = StepType.byId(step.type);
+            if (type != StepType.UNKNOWN && type.id().equals(step.type)) {
+                step.type = type.id();
+            }
+            step.stepType();
+            return step;
+        }
+    }
+
+    // ---- Reading ----
+
+    private static boolean skipNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return true;
+        }
+        return false;
+    }
+
+    private static String readString(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (token == JsonToken.BOOLEAN) {
+            return Boolean.toString(in.nextBoolean());
+        }
+        return in.nextString();
+    }
+
+    private static Integer readInt(JsonReader in) throws IOException {
+        return skipNull(in) ? null : in.nextInt();
+    }
+
+    private static Float readFloat(JsonReader in) throws IOException {
+        return skipNull(in) ? null : (float) in.nextDouble();
+    }
+
+    private static Boolean readBoolean(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (token == JsonToken.STRING) {
+            return Boolean.parseBoolean(in.nextString());
+        }
+        return in.nextBoolean();
+    }
+
+    private static List<String> readStrings(JsonReader in) throws IOException {
+        if (skipNull(in)) return null;
+        List<String> list = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            list.add(readString(in));
+        }
+        in.endArray();
+        return list;
+    }
+
+    private static List<Double> readDoubles(JsonReader in) throws IOException {
+        if (skipNull(in)) return null;
+        List<Double> list = new ArrayList<>(3);
+        in.beginArray();
+        while (in.hasNext()) {
+            list.add(skipNull(in) ? null : in.nextDouble());
+        }
+        in.endArray();
+        return list;
+    }
+
+    private static List<Integer> readInts(JsonReader in) throws IOException {
+        if (skipNull(in)) return null;
+        List<Integer> list = new ArrayList<>(3);
+        in.beginArray();
+        while (in.hasNext()) {
+            list.add(readInt(in));
+        }
+        in.endArray();
+        return list;
+    }
+
+    private static double[] readDoubleArray(JsonReader in) throws IOException {
+        if (skipNull(in)) return null;
+        double[] values = new double[3];
+        int size = 0;
+        in.beginArray();
+        while (in.hasNext()) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = skipNull(in) ? 0 : in.nextDouble();
+        }
+        in.endArray();
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    private static int[] readIntArray(JsonReader in) throws IOException {
+        if (skipNull(in)) return null;
+        int[] values = new int[3];
+        int size = 0;
+        in.beginArray();
+        while (in.hasNext()) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = skipNull(in) ? 0 : in.nextInt();
+        }
+        in.endArray();
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    private static Map<String, String> readStringMap(JsonReader in) throws IOException {
+        if (skipNull(in)) return null;
+        Map<String, String> map = new LinkedHashMap<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            map.put(in.nextName(), readString(in));
+        }
+        in.endObject();
+        return map;
+    }
+
+    private static <E> List<E> readList(JsonReader in, TypeAdapter<E> adapter) throws IOException {
+        if (skipNull(in)) return null;
+        List<E> list = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            list.add(skipNull(in) ? null : adapter.read(in));
+        }
+        in.endArray();
+        return list;
+    }
+
+    // ---- Writing (null fields are omitted, as with Gson's default serializeNulls=false) ----
+
+    private static void writeString(JsonWriter out, String name, String value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value);
+        }
+    }
+
+    private static void writeNumber(JsonWriter out, String name, Number value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value);
+        }
+    }
+
+    private static void writeBoolean(JsonWriter out, String name, Boolean value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value);
+        }
+    }
+
+    private static void writeText(JsonWriter out, TypeAdapter<LocalizedText> adapter, String name,
+                                  LocalizedText value) throws IOException {
+        if (value != null) {
+            out.name(name);
+            adapter.write(out, value);
+        }
+    }
+
+    private static void writeStrings(JsonWriter out, String name, List<String> values) throws IOException {
+        if (values == null) return;
+        out.name(name).beginArray();
+        for (String value : values) {
+            out.value(value);
+        }
+        out.endArray();
+    }
+
+    private static void writeNumbers(JsonWriter out, String name, List<? extends Number> values) throws IOException {
+        if (values == null) return;
+        out.name(name).beginArray();
+        for (Number value : values) {
+            out.value(value);
+        }
+        out.endArray();
+    }
+
+    private static void writeDoubles(JsonWriter out, String name, double[] values) throws IOException {
+        if (values == null) return;
+        out.name(name).beginArray();
+        for (double value : values) {
+            out.value(value);
+        }
+        out.endArray();
+    }
+
+    private static void writeInts(JsonWriter out, String name, int[] values) throws IOException {
+        if (values == null) return;
+        out.name(name).beginArray();
+        for (int value : values) {
+            out.value(value);
+        }
+        out.endArray();
+    }
+
+    private static void writeStringMap(JsonWriter out, String name, Map<String, String> values) throws IOException {
+        if (values == null) return;
+        out.name(name).beginObject();
+        for (Map.Entry<String, String> e : values.entrySet()) {
+            out.name(e.getKey()).value(e.getValue());
+        }
+        out.endObject();
+    }
+
+    private static <E> void writeList(JsonWriter out, String name, List<E> values, TypeAdapter<E> adapter)
+        throws IOException {
+        if (values == null) return;
+        out.name(name).beginArray();
+        for (E value : values) {
+            if (value == null) {
+                out.nullValue();
+            } else {
+                adapter.write(out, value);
+            }
+        }
+        out.endArray();
+    }
+}
@@ -1,6 +1,7 @@
 package com.nododiiiii.ponderer.ponder;
 
 import com.mojang.logging.LogUtils;
+import com.nododiiiii.ponderer.Config;
 import com.nododiiiii.ponderer.blueprint.BlueprintFeature;
 import com.nododiiiii.ponderer.registry.ModItems;
 import net.createmod.catnip.math.Pointing;
@@ -15,7 +16,6 @@ import net.createmod.ponder.api.registration.SharedTextRegistrationHelper;
 import net.createmod.ponder.api.scene.Selection;
 import net.createmod.ponder.api.scene.PonderStoryBoard;
 import net.createmod.ponder.api.scene.SceneBuilder;
-import net.createmod.ponder.api.scene.SceneBuildingUtil;
 import net.minecraft.core.Direction;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.TagParser;
@@ -41,19 +41,50 @@ import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.phys.Vec3;
 import org.slf4j.Logger;
 
+import javax.annotation.Nullable;
+
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
 public class DynamicPonderPlugin implements PonderPlugin {
     private static final Logger LOGGER = LogUtils.getLogger();
+    /** Compiled segments kept in lazy mode; older ones are recompiled if reopened. */
+    private static final int COMPILED_CACHE_SIZE = 64;
+
+    /** Lazy mode only: segment -> compiled program, least recently opened evicted first. */
+    private final Map<DslScene.SceneSegment, List<CompiledStep>> compiledCache =
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<DslScene.SceneSegment, List<CompiledStep>> eldest) {
+                return size() > COMPILED_CACHE_SIZE;
+            }
+        };
 
     private static class StepContext {
         final Map<String, ElementLink<WorldSectionElement>> sectionLinks = new HashMap<>();
     }
 
+    /**
+     * One pre-resolved step of a scene segment, replayed each time the scene is opened.
+     */
+    @FunctionalInterface
+    private interface CompiledStep {
+        void apply(SceneBuilder scene, StepContext context);
+    }
+
+    /**
+     * Block range of a step; the Selection itself needs the scene's building util, so it is made on replay.
+     */
+    private record Region(BlockPos from, BlockPos to) {
+        Selection select(SceneBuilder scene) {
+            return scene.getScene().getSceneBuildingUtil().select().fromTo(from, to);
+        }
+    }
+
     @Override
     public String getModId() {
         return "ponderer";
@@ -62,9 +93,16 @@ public class DynamicPonderPlugin implements PonderPlugin {
     @Override
     public void registerScenes(PonderSceneRegistrationHelper<ResourceLocation> helper) {
         NbtSceneFilter.clear();
+        StructureTemplateCache.clear();
+        StructurePrefetcher.clear();
+        synchronized (compiledCache) {
+            compiledCache.clear();
+        }
+        boolean lazy = Config.LAZY_SCENE_COMPILE.get();
         for (DslScene scene : SceneRuntime.getScenes()) {
-            registerScene(helper, scene);
+            registerScene(helper, scene, lazy);
         }
+        NbtSceneFilter.publish();
         registerBlueprintGuideScene(helper);
     }
 
@@ -150,7 +188,7 @@ public class DynamicPonderPlugin implements PonderPlugin {
                     if (step == null || step.type == null) {
                         continue;
                     }
-                    if (!"shared_text".equalsIgnoreCase(step.type)) {
+                    if (step.stepType() != StepType.SHARED_TEXT) {
                         continue;
                     }
                     if (step.key == null || step.key.isBlank() || step.text == null || step.text.resolve().isBlank()) {
@@ -162,7 +200,7 @@ public class DynamicPonderPlugin implements PonderPlugin {
         }
     }
 
-    private void registerScene(PonderSceneRegistrationHelper<ResourceLocation> helper, DslScene scene) {
+    private void registerScene(PonderSceneRegistrationHelper<ResourceLocation> helper, DslScene scene, boolean lazy) {
         if (scene.items == null || scene.items.isEmpty()) {
             LOGGER.warn("Scene {} has no items; skipping", scene.id);
             return;
@@ -187,6 +225,13 @@ public class DynamicPonderPlugin implements PonderPlugin {
 
         List<DslScene.SceneSegment> sceneList = normalizeScenes(scene);
         List<ResourceLocation> schematics = resolveSceneSchematics(scene, sceneList);
+        // Parsed once per scene; every segment shares the same filter
+        CompoundTag nbtFilter = scene.nbtFilter != null && !scene.nbtFilter.isBlank()
+            ? NbtSceneFilter.parseNbt(scene.nbtFilter)
+            : null;
+        ResourceLocation baseId = ResourceLocation.tryParse(scene.id);
+        String basePath = baseId == null ? "scene" : baseId.getPath();
+
         var multi = helper.forComponents(components);
         for (int i = 0; i < sceneList.size(); i++) {
             DslScene.SceneSegment sc = sceneList.get(i);
@@ -194,21 +239,19 @@ public class DynamicPonderPlugin implements PonderPlugin {
                 continue;
             }
             ResourceLocation schematic = schematics.get(i);
-            multi.addStoryBoard(schematic, createStoryBoard(scene, sc, i, sceneList.size()), tags);
+            multi.addStoryBoard(schematic, createStoryBoard(scene, sc, i, sceneList.size(), lazy), tags);
+            for (ResourceLocation comp : components) {
+                StructurePrefetcher.register(comp, schematic);
+            }
 
             // Register scene in NbtSceneFilter
-            ResourceLocation baseId = ResourceLocation.tryParse(scene.id);
-            String basePath = baseId == null ? "scene" : baseId.getPath();
             String scenePath = sceneList.size() > 1 ? basePath + "_" + sceneSuffix(sc, i) : basePath;
             String fullSceneId = getModId() + ":" + scenePath;
             for (ResourceLocation comp : components) {
                 NbtSceneFilter.registerScene(comp, fullSceneId);
             }
-            if (scene.nbtFilter != null && !scene.nbtFilter.isBlank()) {
-                CompoundTag nbt = NbtSceneFilter.parseNbt(scene.nbtFilter);
-                if (nbt != null) {
-                    NbtSceneFilter.registerFilter(fullSceneId, nbt);
-                }
+            if (nbtFilter != null) {
+                NbtSceneFilter.registerFilter(fullSceneId, nbtFilter);
             }
         }
     }
@@ -263,7 +306,7 @@ public class DynamicPonderPlugin implements PonderPlugin {
             if (step == null || step.type == null) {
                 continue;
             }
-            if (!"show_structure".equalsIgnoreCase(step.type)) {
+            if (step.stepType() != StepType.SHOW_STRUCTURE) {
                 continue;
             }
             if (step.structure != null && !step.structure.isBlank()) {
@@ -329,154 +372,223 @@ public class DynamicPonderPlugin implements PonderPlugin {
         return result.toArray(ResourceLocation[]::new);
     }
 
-    private PonderStoryBoard createStoryBoard(DslScene scene, DslScene.SceneSegment sc, int index, int total) {
-        return (builder, util) -> {
-            ResourceLocation baseId = ResourceLocation.tryParse(scene.id);
-            String basePath = baseId == null ? "scene" : baseId.getPath();
-            String scenePath = total > 1 ? basePath + "_" + sceneSuffix(sc, index) : basePath;
+    private PonderStoryBoard createStoryBoard(DslScene scene, DslScene.SceneSegment sc, int index, int total,
+                                              boolean lazy) {
+        ResourceLocation baseId = ResourceLocation.tryParse(scene.id);
+        String basePath = baseId == null ? "scene" : baseId.getPath();
+        String scenePath = total > 1 ? basePath + "_" + sceneSuffix(sc, index) : basePath;
+        LocalizedText segmentTitle = sc.title;
+        LocalizedText sceneTitle = scene.title;
 
-            String title = sc.title != null ? sc.title.resolve() : null;
+        // Compiled once per registration (PonderIndex.reload() re-registers and so recompiles),
+        // or in lazy mode on first open, kept in compiledCache
+        List<CompiledStep> eager = lazy ? null : compileSegment(scene, sc);
+
+        return (builder, util) -> {
+            String title = segmentTitle != null ? segmentTitle.resolve() : null;
             if (title == null || title.isBlank()) {
-                String sceneTitle = scene.title != null ? scene.title.resolve() : null;
-                if (sceneTitle == null || sceneTitle.isBlank()) {
+                String resolvedSceneTitle = sceneTitle != null ? sceneTitle.resolve() : null;
+                if (resolvedSceneTitle == null || resolvedSceneTitle.isBlank()) {
                     title = scenePath;
                 } else {
-                    title = total > 1 ? sceneTitle + " #" + (index + 1) : sceneTitle;
+                    title = total > 1 ? resolvedSceneTitle + " #" + (index + 1) : resolvedSceneTitle;
                 }
             }
             builder.title(scenePath, title);
 
-            if (sc.steps == null) {
+            List<CompiledStep> program = lazy ? compiledProgram(scene, sc) : eager;
+            if (program == null) {
                 return;
             }
 
-            if (!hasShowStructure(sc)) {
-                applyShowStructure(builder, new DslScene.DslStep());
-            }
-
             StepContext context = new StepContext();
+            for (CompiledStep step : program) {
+                step.apply(builder, context);
+            }
+        };
+    }
 
-            for (DslScene.DslStep step : sc.steps) {
-                if (step == null || step.type == null) {
-                    continue;
-                }
-                if ("next_scene".equalsIgnoreCase(step.type)) {
-                    continue;
+    private List<CompiledStep> compiledProgram(DslScene scene, DslScene.SceneSegment sc) {
+        synchronized (compiledCache) {
+            List<CompiledStep> program = compiledCache.get(sc);
+            if (program == null) {
+                program = compileSegment(scene, sc);
+                if (program != null) {
+                    compiledCache.put(sc, program);
                 }
-                applyStep(builder, util, scene, step, context);
+            }
+            return program;
+        }
+    }
+
+    /**
+     * Validate a segment and resolve everything its steps refer to (registry entries, block states,
+     * SNBT, directions, palettes), so replaying it when a scene is opened does no parsing.
+     * Invalid steps are reported here, once, and dropped.
+     *
+     * @return the instructions to replay, or null if the segment has no step list
+     */
+    private List<CompiledStep> compileSegment(DslScene scene, DslScene.SceneSegment sc) {
+        if (sc.steps == null) {
+            return null;
+        }
+
+        List<CompiledStep> program = new ArrayList<>();
+        if (!hasShowStructure(sc)) {
+            program.add(compileShowStructure(new DslScene.DslStep()));
+        }
+        for (DslScene.DslStep step : sc.steps) {
+            if (step == null || step.type == null) {
+                continue;
+            }
+            if (step.stepType() == StepType.NEXT_SCENE) {
+                continue;
+            }
+            CompiledStep compiled = compileStep(scene, step);
+            if (Boolean.TRUE.equals(step.attachKeyFrame)) {
+                CompiledStep body = compiled;
+                compiled = body == null
+                    ? (builder, context) -> builder.addKeyframe()
+                    : (builder, context) -> {
+                        builder.addKeyframe();
+                        body.apply(builder, context);
+                    };
+            }
+            if (compiled != null) {
+                program.add(compiled);
+            }
+        }
+        return List.copyOf(program);
+    }
+
+    @Nullable
+    private CompiledStep compileStep(DslScene dsl, DslScene.DslStep step) {
+        return switch (step.stepType()) {
+            case SHOW_STRUCTURE -> compileShowStructure(step);
+            case IDLE -> {
+                int duration = step.durationOrDefault(20);
+                yield (scene, context) -> scene.idle(duration);
+            }
+            case TEXT -> compileText(step);
+            case SHARED_TEXT -> compileSharedText(step);
+            case CREATE_ENTITY -> compileCreateEntity(step);
+            case CREATE_ITEM_ENTITY -> compileCreateItemEntity(step);
+            case ROTATE_CAMERA_Y -> compileRotateCameraY(step);
+            case SHOW_CONTROLS -> compileShowControls(step);
+            case ENCAPSULATE_BOUNDS -> compileEncapsulateBounds(step);
+            case PLAY_SOUND -> compilePlaySound(step);
+            case SET_BLOCK -> compileSetBlock(step);
+            case DESTROY_BLOCK -> compileDestroyBlock(step);
+            case REPLACE_BLOCKS -> compileReplaceBlocks(step);
+            case HIDE_SECTION -> compileHideSection(step);
+            case SHOW_SECTION_AND_MERGE -> compileShowSectionAndMerge(step);
+            case ROTATE_SECTION -> compileRotateSection(step);
+            case MOVE_SECTION -> compileMoveSection(step);
+            case TOGGLE_REDSTONE_POWER -> compileToggleRedstonePower(step);
+            case MODIFY_BLOCK_ENTITY_NBT -> compileModifyBlockEntityNbt(step);
+            case INDICATE_REDSTONE -> compileIndicateRedstone(step);
+            case INDICATE_SUCCESS -> compileIndicateSuccess(step);
+            case NEXT_SCENE -> null;
+            case UNKNOWN -> {
+                LOGGER.warn("Unknown step type '{}' in scene {}", step.type, dsl.id);
+                yield null;
             }
         };
     }
 
-    private void applyStep(SceneBuilder scene, SceneBuildingUtil util, DslScene dsl, DslScene.DslStep step, StepContext context) {
-        if (Boolean.TRUE.equals(step.attachKeyFrame)) {
-            scene.addKeyframe();
-        }
-        switch (step.type.toLowerCase(Locale.ROOT)) {
-            case "show_structure" -> applyShowStructure(scene, step);
-            case "idle" -> scene.idle(step.durationOrDefault(20));
-            case "text" -> applyText(scene, step);
-            case "shared_text" -> applySharedText(scene, step);
-            case "create_entity" -> applyCreateEntity(scene, step);
-            case "create_item_entity" -> applyCreateItemEntity(scene, step);
-            case "rotate_camera_y" -> applyRotateCameraY(scene, step);
-            case "show_controls" -> applyShowControls(scene, step);
-            case "encapsulate_bounds" -> applyEncapsulateBounds(scene, step);
-            case "play_sound" -> applyPlaySound(scene, step);
-            case "set_block" -> applySetBlock(scene, step);
-            case "destroy_block" -> applyDestroyBlock(scene, step);
-            case "replace_blocks" -> applyReplaceBlocks(scene, step);
-            case "hide_section" -> applyHideSection(scene, step);
-            case "show_section_and_merge" -> applyShowSectionAndMerge(scene, step, context);
-            case "rotate_section" -> applyRotateSection(scene, step, context);
-            case "move_section" -> applyMoveSection(scene, step, context);
-            case "toggle_redstone_power" -> applyToggleRedstonePower(scene, step);
-            case "modify_block_entity_nbt" -> applyModifyBlockEntityNbt(scene, step);
-            case "indicate_redstone" -> applyIndicateRedstone(scene, step);
-            case "indicate_success" -> applyIndicateSuccess(scene, step);
-            case "next_scene" -> {
-            }
-            default -> LOGGER.warn("Unknown step type '{}' in scene {}", step.type, dsl.id);
-        }
-    }
-
-    private void applyText(SceneBuilder scene, DslScene.DslStep step) {
-        String text = step.text == null ? "" : step.text.resolve();
+    private CompiledStep compileText(DslScene.DslStep step) {
+        LocalizedText text = step.text;
         Vec3 point = toPoint(step.point);
         int duration = step.durationOrDefault(60);
-
-        TextElementBuilder builder = scene.overlay()
-            .showText(duration)
-            .text(text)
-            .pointAt(point);
-
         PonderPalette palette = parsePalette(step.color);
-        if (palette != null) {
-            builder.colored(palette);
-        }
+        boolean placeNearTarget = Boolean.TRUE.equals(step.placeNearTarget);
 
-        if (Boolean.TRUE.equals(step.placeNearTarget)) {
-            builder.placeNearTarget();
-        }
+        return (scene, context) -> {
+            // Resolved on replay so a language change applies without a reload
+            TextElementBuilder builder = scene.overlay()
+                .showText(duration)
+                .text(text == null ? "" : text.resolve())
+                .pointAt(point);
+
+            if (palette != null) {
+                builder.colored(palette);
+            }
+            if (placeNearTarget) {
+                builder.placeNearTarget();
+            }
+        };
     }
 
-    private void applySharedText(SceneBuilder scene, DslScene.DslStep step) {
+    private CompiledStep compileSharedText(DslScene.DslStep step) {
         String key = step.key;
         if (key == null || key.isBlank()) {
             LOGGER.warn("shared_text missing key");
-            return;
+            return null;
         }
-        ResourceLocation loc = key.contains(":")
-            ? ResourceLocation.tryParse(key)
-            : ResourceLocation.fromNamespaceAndPath(scene.getScene().getNamespace(), key);
-        if (loc == null) {
-            LOGGER.warn("shared_text invalid key: {}", key);
-            return;
+        // Keys without a namespace belong to the scene's namespace, only known on replay
+        ResourceLocation fixed = null;
+        if (key.contains(":")) {
+            fixed = ResourceLocation.tryParse(key);
+            if (fixed == null) {
+                LOGGER.warn("shared_text invalid key: {}", key);
+                return null;
+            }
         }
 
+        ResourceLocation resolvedKey = fixed;
         Vec3 point = toPoint(step.point);
         int duration = step.durationOrDefault(60);
-        TextElementBuilder builder = scene.overlay().showText(duration).sharedText(loc).pointAt(point);
-
         PonderPalette palette = parsePalette(step.color);
-        if (palette != null) {
-            builder.colored(palette);
-        }
-        if (Boolean.TRUE.equals(step.placeNearTarget)) {
-            builder.placeNearTarget();
-        }
+        boolean placeNearTarget = Boolean.TRUE.equals(step.placeNearTarget);
+
+        return (scene, context) -> {
+            ResourceLocation loc = resolvedKey != null
+                ? resolvedKey
+                : ResourceLocation.fromNamespaceAndPath(scene.getScene().getNamespace(), key);
+            TextElementBuilder builder = scene.overlay().showText(duration).sharedText(loc).pointAt(point);
+
+            if (palette != null) {
+                builder.colored(palette);
+            }
+            if (placeNearTarget) {
+                builder.placeNearTarget();
+            }
+        };
     }
 
-    private void applyCreateEntity(SceneBuilder scene, DslScene.DslStep step) {
+    private CompiledStep compileCreateEntity(DslScene.DslStep step) {
         ResourceLocation entityId = step.entity == null ? null : ResourceLocation.tryParse(step.entity);
         if (entityId == null) {
             LOGGER.warn("create_entity missing/invalid entity id");
-            return;
+            return null;
+        }
+        EntityType<?> type = BuiltInRegistries.ENTITY_TYPE.getOptional(entityId).orElse(null);
+        if (type == null) {
+            LOGGER.warn("Unknown entity type: {}", entityId);
+            return null;
         }
 
-        Vec3 pos = toPoint(step.pos != null ? step.pos : step.point);
-        scene.world().createEntity((Level level) -> {
-            EntityType<?> type = BuiltInRegistries.ENTITY_TYPE.getOptional(entityId).orElse(null);
-            if (type == null) {
-                LOGGER.warn("Unknown entity type: {}", entityId);
-                return null;
-            }
+        Vec3 pos = step.pos() != null ? toPoint(step.pos()) : toPoint(step.point);
+        Vec3 lookAt = step.lookAt != null && step.lookAt.size() >= 3
+            ? new Vec3(step.lookAt.get(0), step.lookAt.get(1), step.lookAt.get(2))
+            : pos.add(0, 0, -1);
+        Float yaw = step.yaw;
+        Float pitch = step.pitch;
+
+        return (scene, context) -> scene.world().createEntity((Level level) -> {
             Entity entity = type.create(level);
             if (entity != null) {
                 entity.setPosRaw(pos.x, pos.y, pos.z);
                 entity.setOldPosAndRot();
-                Vec3 lookAt = step.lookAt != null && step.lookAt.size() >= 3
-                    ? new Vec3(step.lookAt.get(0), step.lookAt.get(1), step.lookAt.get(2))
-                    : pos.add(0, 0, -1);
                 entity.lookAt(net.minecraft.commands.arguments.EntityAnchorArgument.Anchor.FEET, lookAt);
 
-                if (step.yaw != null) {
-                    entity.setYRot(step.yaw);
-                    entity.setYHeadRot(step.yaw);
-                    entity.setYBodyRot(step.yaw);
+                if (yaw != null) {
+                    entity.setYRot(yaw);
+                    entity.setYHeadRot(yaw);
+                    entity.setYBodyRot(yaw);
                 }
-                if (step.pitch != null) {
-                    entity.setXRot(step.pitch);
+                if (pitch != null) {
+                    entity.setXRot(pitch);
                 }
 
                 // Always disable AI and gravity for ponder entities
@@ -491,101 +603,107 @@ public class DynamicPonderPlugin implements PonderPlugin {
         });
     }
 
-    private void applyCreateItemEntity(SceneBuilder scene, DslScene.DslStep step) {
+    private CompiledStep compileCreateItemEntity(DslScene.DslStep step) {
         if (step.item == null || step.item.isBlank()) {
             LOGGER.warn("create_item_entity missing item id");
-            return;
+            return null;
         }
 
         ResourceLocation itemId = ResourceLocation.tryParse(step.item);
         Item item = itemId == null ? null : BuiltInRegistries.ITEM.getOptional(itemId).orElse(null);
         if (item == null) {
             LOGGER.warn("create_item_entity unknown item: {}", step.item);
-            return;
+            return null;
         }
 
-        Vec3 pos = toPoint(step.pos != null ? step.pos : step.point);
-        Vec3 motion = toPoint(step.motion);
+        Vec3 pos = step.pos() != null ? toPoint(step.pos()) : toPoint(step.point);
+        Vec3 motion = toPoint(step.motion());
         int count = step.count == null ? 1 : Math.max(1, step.count);
 
-        scene.world().createItemEntity(pos, motion, new ItemStack(item, count));
+        return (scene, context) -> scene.world().createItemEntity(pos, motion, new ItemStack(item, count));
     }
 
-    private void applyRotateCameraY(SceneBuilder scene, DslScene.DslStep step) {
+    private CompiledStep compileRotateCameraY(DslScene.DslStep step) {
         float degrees = step.degrees == null ? 90f : step.degrees;
-        scene.rotateCameraY(degrees);
+        return (scene, context) -> scene.rotateCameraY(degrees);
     }
 
-    private void applyShowControls(SceneBuilder scene, DslScene.DslStep step) {
+    private CompiledStep compileShowControls(DslScene.DslStep step) {
         Vec3 point = toPoint(step.point);
         Pointing pointing = parsePointing(step.direction);
         int duration = step.durationOrDefault(60);
+        String action = step.action == null ? "" : step.action.toLowerCase(Locale.ROOT);
 
-        InputElementBuilder builder = scene.overlay().showControls(point, pointing, duration);
-
-        switch (step.action == null ? "" : step.action.toLowerCase(Locale.ROOT)) {
-            case "left" -> builder.leftClick();
-            case "right" -> builder.rightClick();
-            case "scroll" -> builder.scroll();
-            default -> {
-            }
-        }
-
+        Item item = null;
         if (step.item != null && !step.item.isBlank()) {
             ResourceLocation itemId = ResourceLocation.tryParse(step.item);
-            Item item = itemId == null ? null : BuiltInRegistries.ITEM.getOptional(itemId).orElse(null);
-            if (item != null) {
-                builder.withItem(new ItemStack(item));
-            }
+            item = itemId == null ? null : BuiltInRegistries.ITEM.getOptional(itemId).orElse(null);
         }
+        Item heldItem = item;
+        boolean whileSneaking = Boolean.TRUE.equals(step.whileSneaking);
+        boolean whileCTRL = Boolean.TRUE.equals(step.whileCTRL);
 
-        if (Boolean.TRUE.equals(step.whileSneaking)) {
-            builder.whileSneaking();
-        }
-        if (Boolean.TRUE.equals(step.whileCTRL)) {
-            builder.whileCTRL();
-        }
+        return (scene, context) -> {
+            InputElementBuilder builder = scene.overlay().showControls(point, pointing, duration);
+
+            switch (action) {
+                case "left" -> builder.leftClick();
+                case "right" -> builder.rightClick();
+                case "scroll" -> builder.scroll();
+                default -> {
+                }
+            }
+
+            if (heldItem != null) {
+                builder.withItem(new ItemStack(heldItem));
+            }
+            if (whileSneaking) {
+                builder.whileSneaking();
+            }
+            if (whileCTRL) {
+                builder.whileCTRL();
+            }
+        };
     }
 
-    private void applyShowStructure(SceneBuilder scene, DslScene.DslStep step) {
-        if (step.height != null && step.height >= 0) {
-            var selection = scene.getScene().getSceneBuildingUtil().select().layersFrom(step.height);
-            scene.world().showSection(selection, Direction.UP);
-        } else {
-            var selection = scene.getScene().getSceneBuildingUtil().select().everywhere();
+    private CompiledStep compileShowStructure(DslScene.DslStep step) {
+        Integer height = step.height != null && step.height >= 0 ? step.height : null;
+        return (scene, context) -> {
+            var select = scene.getScene().getSceneBuildingUtil().select();
+            var selection = height != null ? select.layersFrom(height) : select.everywhere();
             scene.world().showSection(selection, Direction.UP);
-        }
+        };
     }
 
-    private void applyEncapsulateBounds(SceneBuilder scene, DslScene.DslStep step) {
+    private CompiledStep compileEncapsulateBounds(DslScene.DslStep step) {
         if (step.bounds == null || step.bounds.size() < 3) {
             LOGGER.warn("encapsulate_bounds missing bounds");
-            return;
+            return null;
         }
         BlockPos size = new BlockPos(step.bounds.get(0), step.bounds.get(1), step.bounds.get(2));
-        scene.addInstruction(ps -> ps.getWorld().getBounds().encapsulate(size));
+        return (scene, context) -> scene.addInstruction(ps -> ps.getWorld().getBounds().encapsulate(size));
     }
 
-    private void applyPlaySound(SceneBuilder scene, DslScene.DslStep step) {
+    private CompiledStep compilePlaySound(DslScene.DslStep step) {
         if (step.sound == null || step.sound.isBlank()) {
             LOGGER.warn("play_sound missing sound id");
-            return;
+            return null;
         }
         ResourceLocation id = ResourceLocation.tryParse(step.sound);
         if (id == null) {
             LOGGER.warn("play_sound invalid sound id: {}", step.sound);
-            return;
+            return null;
         }
         SoundEvent sound = BuiltInRegistries.SOUND_EVENT.getOptional(id).orElse(null);
         if (sound == null) {
             LOGGER.warn("play_sound unknown sound: {}", id);
-            return;
+            return null;
         }
         float volume = step.soundVolume == null ? 1.0f : step.soundVolume;
         float pitch = step.pitch == null ? 1.0f : step.pitch;
         SoundSource source = parseSoundSource(step.source);
 
-        scene.addInstruction(ps -> {
+        return (scene, context) -> scene.addInstruction(ps -> {
             if (Minecraft.getInstance().player == null) {
                 return;
             }
@@ -595,84 +713,75 @@ public class DynamicPonderPlugin implements PonderPlugin {
         });
     }
 
-    private void applySetBlock(SceneBuilder scene, DslScene.DslStep step) {
+    private CompiledStep compileSetBlock(DslScene.DslStep step) {
         if (step.block == null || step.block.isBlank()) {
             LOGGER.warn("set_block missing block id");
-            return;
+            return null;
         }
         ResourceLocation blockId = ResourceLocation.tryParse(step.block);
         if (blockId == null) {
             LOGGER.warn("set_block invalid block id: {}", step.block);
-            return;
+            return null;
         }
         Block block = BuiltInRegistries.BLOCK.getOptional(blockId).orElse(null);
         if (block == null) {
             LOGGER.warn("set_block unknown block: {}", blockId);
-            return;
+            return null;
         }
-        BlockState state = block.defaultBlockState();
-        state = applyBlockProperties(state, step);
-        BlockPos pos;
-        if (step.blockPos != null && step.blockPos.size() >= 3) {
-            pos = new BlockPos(step.blockPos.get(0), step.blockPos.get(1), step.blockPos.get(2));
-        } else {
+        BlockState state = applyBlockProperties(block.defaultBlockState(), step);
+        if (step.blockPos() == null || step.blockPos().length < 3) {
             LOGGER.warn("set_block missing blockPos");
-            return;
+            return null;
         }
+        BlockPos pos = toBlockPos(step.blockPos());
         boolean particles = !Boolean.FALSE.equals(step.spawnParticles);
-        if (step.blockPos2 != null && step.blockPos2.size() >= 3) {
-            BlockPos pos2 = new BlockPos(step.blockPos2.get(0), step.blockPos2.get(1), step.blockPos2.get(2));
-            var selection = scene.getScene().getSceneBuildingUtil().select().fromTo(pos, pos2);
-            scene.world().setBlocks(selection, state, particles);
-            return;
-        }
-        scene.world().setBlock(pos, state, particles);
+        if (step.blockPos2() != null && step.blockPos2().length >= 3) {
+            BlockPos pos2 = toBlockPos(step.blockPos2());
+            return (scene, context) -> {
+                var selection = scene.getScene().getSceneBuildingUtil().select().fromTo(pos, pos2);
+                scene.world().setBlocks(selection, state, particles);
+            };
+        }
+        return (scene, context) -> scene.world().setBlock(pos, state, particles);
     }
 
-    private void applyDestroyBlock(SceneBuilder scene, DslScene.DslStep step) {
-        if (step.blockPos == null || step.blockPos.size() < 3) {
+    private CompiledStep compileDestroyBlock(DslScene.DslStep step) {
+        if (step.blockPos() == null || step.blockPos().length < 3) {
             LOGGER.warn("destroy_block missing blockPos");
-            return;
+            return null;
         }
-        BlockPos pos = new BlockPos(step.blockPos.get(0), step.blockPos.get(1), step.blockPos.get(2));
+        BlockPos pos = toBlockPos(step.blockPos());
         boolean particles = !Boolean.FALSE.equals(step.destroyParticles);
         if (particles) {
-            scene.world().destroyBlock(pos);
-            return;
+            return (scene, context) -> scene.world().destroyBlock(pos);
         }
-        scene.world().setBlock(pos, net.minecraft.world.level.block.Blocks.AIR.defaultBlockState(), false);
+        return (scene, context) -> scene.world().setBlock(pos, Blocks.AIR.defaultBlockState(), false);
     }
 
-    private void applyReplaceBlocks(SceneBuilder scene, DslScene.DslStep step) {
+    private CompiledStep compileReplaceBlocks(DslScene.DslStep step) {
         if (step.block == null || step.block.isBlank()) {
             LOGGER.warn("replace_blocks missing block id");
-            return;
+            return null;
         }
-        if (step.blockPos == null || step.blockPos.size() < 3) {
+        if (step.blockPos() == null || step.blockPos().length < 3) {
             LOGGER.warn("replace_blocks missing blockPos");
-            return;
+            return null;
         }
         ResourceLocation blockId = ResourceLocation.tryParse(step.block);
         if (blockId == null) {
             LOGGER.warn("replace_blocks invalid block id: {}", step.block);
-            return;
+            return null;
         }
         Block block = BuiltInRegistries.BLOCK.getOptional(blockId).orElse(null);
         if (block == null) {
             LOGGER.warn("replace_blocks unknown block: {}", blockId);
-            return;
+            return null;
         }
 
-        BlockPos pos1 = new BlockPos(step.blockPos.get(0), step.blockPos.get(1), step.blockPos.get(2));
-        BlockPos pos2 = pos1;
-        if (step.blockPos2 != null && step.blockPos2.size() >= 3) {
-            pos2 = new BlockPos(step.blockPos2.get(0), step.blockPos2.get(1), step.blockPos2.get(2));
-        }
+        Region region = regionFromStep(step, "replace_blocks");
         boolean particles = !Boolean.FALSE.equals(step.spawnParticles);
-        var selection = scene.getScene().getSceneBuildingUtil().select().fromTo(pos1, pos2);
-        BlockState state = block.defaultBlockState();
-        state = applyBlockProperties(state, step);
-        scene.world().replaceBlocks(selection, state, particles);
+        BlockState state = applyBlockProperties(block.defaultBlockState(), step);
+        return (scene, context) -> scene.world().replaceBlocks(region.select(scene), state, particles);
     }
 
     private BlockState applyBlockProperties(BlockState state, DslScene.DslStep step) {
@@ -696,113 +805,123 @@ public class DynamicPonderPlugin implements PonderPlugin {
                 .orElse(state);
     }
 
-    private void applyHideSection(SceneBuilder scene, DslScene.DslStep step) {
-        Selection selection = selectionFromStep(scene, step, "hide_section");
-        if (selection == null) {
-            return;
+    private CompiledStep compileHideSection(DslScene.DslStep step) {
+        Region region = regionFromStep(step, "hide_section");
+        if (region == null) {
+            return null;
         }
-        scene.world().hideSection(selection, parseDirection(step.direction));
+        Direction direction = parseDirection(step.direction);
+        return (scene, context) -> scene.world().hideSection(region.select(scene), direction);
     }
 
-    private void applyShowSectionAndMerge(SceneBuilder scene, DslScene.DslStep step, StepContext context) {
-        Selection selection = selectionFromStep(scene, step, "show_section_and_merge");
-        if (selection == null) {
-            return;
+    private CompiledStep compileShowSectionAndMerge(DslScene.DslStep step) {
+        Region region = regionFromStep(step, "show_section_and_merge");
+        if (region == null) {
+            return null;
         }
         String linkId = step.linkId == null || step.linkId.isBlank() ? "default" : step.linkId;
         Direction direction = parseDirection(step.direction);
-        ElementLink<WorldSectionElement> existing = context.sectionLinks.get(linkId);
-        if (existing == null) {
-            ElementLink<WorldSectionElement> created = scene.world().showIndependentSection(selection, direction);
-            context.sectionLinks.put(linkId, created);
-            return;
-        }
-        scene.world().showSectionAndMerge(selection, direction, existing);
+        return (scene, context) -> {
+            Selection selection = region.select(scene);
+            ElementLink<WorldSectionElement> existing = context.sectionLinks.get(linkId);
+            if (existing == null) {
+                ElementLink<WorldSectionElement> created = scene.world().showIndependentSection(selection, direction);
+                context.sectionLinks.put(linkId, created);
+                return;
+            }
+            scene.world().showSectionAndMerge(selection, direction, existing);
+        };
     }
 
-    private void applyRotateSection(SceneBuilder scene, DslScene.DslStep step, StepContext context) {
+    private CompiledStep compileRotateSection(DslScene.DslStep step) {
         String linkId = step.linkId == null || step.linkId.isBlank() ? "default" : step.linkId;
-        ElementLink<WorldSectionElement> link = context.sectionLinks.get(linkId);
-        if (link == null) {
-            LOGGER.warn("rotate_section missing linkId: {}", linkId);
-            return;
-        }
         double x = step.rotX == null ? 0.0 : step.rotX;
         double y = step.rotY == null ? (step.degrees == null ? 0.0 : step.degrees) : step.rotY;
         double z = step.rotZ == null ? 0.0 : step.rotZ;
         int duration = step.durationOrDefault(20);
-        scene.world().rotateSection(link, x, y, z, duration);
+        return (scene, context) -> {
+            // Links only exist once earlier steps have run, so this check stays on replay
+            ElementLink<WorldSectionElement> link = context.sectionLinks.get(linkId);
+            if (link == null) {
+                LOGGER.warn("rotate_section missing linkId: {}", linkId);
+                return;
+            }
+            scene.world().rotateSection(link, x, y, z, duration);
+        };
     }
 
-    private void applyMoveSection(SceneBuilder scene, DslScene.DslStep step, StepContext context) {
+    private CompiledStep compileMoveSection(DslScene.DslStep step) {
         String linkId = step.linkId == null || step.linkId.isBlank() ? "default" : step.linkId;
-        ElementLink<WorldSectionElement> link = context.sectionLinks.get(linkId);
-        if (link == null) {
-            LOGGER.warn("move_section missing linkId: {}", linkId);
-            return;
-        }
         Vec3 offset = toPoint(step.offset);
         int duration = step.durationOrDefault(20);
-        scene.world().moveSection(link, offset, duration);
+        return (scene, context) -> {
+            ElementLink<WorldSectionElement> link = context.sectionLinks.get(linkId);
+            if (link == null) {
+                LOGGER.warn("move_section missing linkId: {}", linkId);
+                return;
+            }
+            scene.world().moveSection(link, offset, duration);
+        };
     }
 
-    private void applyToggleRedstonePower(SceneBuilder scene, DslScene.DslStep step) {
-        Selection selection = selectionFromStep(scene, step, "toggle_redstone_power");
-        if (selection == null) {
-            return;
+    private CompiledStep compileToggleRedstonePower(DslScene.DslStep step) {
+        Region region = regionFromStep(step, "toggle_redstone_power");
+        if (region == null) {
+            return null;
         }
-        scene.world().toggleRedstonePower(selection);
+        return (scene, context) -> scene.world().toggleRedstonePower(region.select(scene));
     }
 
-    private void applyModifyBlockEntityNbt(SceneBuilder scene, DslScene.DslStep step) {
-        Selection selection = selectionFromStep(scene, step, "modify_block_entity_nbt");
-        if (selection == null) {
-            return;
+    private CompiledStep compileModifyBlockEntityNbt(DslScene.DslStep step) {
+        Region region = regionFromStep(step, "modify_block_entity_nbt");
+        if (region == null) {
+            return null;
         }
         if (step.nbt == null || step.nbt.isBlank()) {
             LOGGER.warn("modify_block_entity_nbt missing nbt");
-            return;
+            return null;
         }
         CompoundTag patch;
         try {
             patch = TagParser.parseTag(step.nbt);
         } catch (Exception e) {
             LOGGER.warn("modify_block_entity_nbt invalid nbt: {}", step.nbt);
-            return;
+            return null;
         }
         boolean redraw = Boolean.TRUE.equals(step.reDrawBlocks);
-        scene.world().modifyBlockEntityNBT(selection, BlockEntity.class, nbt -> nbt.merge(patch.copy()), redraw);
+        return (scene, context) -> scene.world().modifyBlockEntityNBT(region.select(scene), BlockEntity.class,
+            nbt -> nbt.merge(patch.copy()), redraw);
     }
 
-    private void applyIndicateRedstone(SceneBuilder scene, DslScene.DslStep step) {
-        if (step.blockPos == null || step.blockPos.size() < 3) {
+    private CompiledStep compileIndicateRedstone(DslScene.DslStep step) {
+        if (step.blockPos() == null || step.blockPos().length < 3) {
             LOGGER.warn("indicate_redstone missing blockPos");
-            return;
+            return null;
         }
-        BlockPos pos = new BlockPos(step.blockPos.get(0), step.blockPos.get(1), step.blockPos.get(2));
-        scene.effects().indicateRedstone(pos);
+        BlockPos pos = toBlockPos(step.blockPos());
+        return (scene, context) -> scene.effects().indicateRedstone(pos);
     }
 
-    private void applyIndicateSuccess(SceneBuilder scene, DslScene.DslStep step) {
-        if (step.blockPos == null || step.blockPos.size() < 3) {
+    private CompiledStep compileIndicateSuccess(DslScene.DslStep step) {
+        if (step.blockPos() == null || step.blockPos().length < 3) {
             LOGGER.warn("indicate_success missing blockPos");
-            return;
+            return null;
         }
-        BlockPos pos = new BlockPos(step.blockPos.get(0), step.blockPos.get(1), step.blockPos.get(2));
-        scene.effects().indicateSuccess(pos);
+        BlockPos pos = toBlockPos(step.blockPos());
+        return (scene, context) -> scene.effects().indicateSuccess(pos);
     }
 
-    private Selection selectionFromStep(SceneBuilder scene, DslScene.DslStep step, String stepName) {
-        if (step.blockPos == null || step.blockPos.size() < 3) {
+    private Region regionFromStep(DslScene.DslStep step, String stepName) {
+        if (step.blockPos() == null || step.blockPos().length < 3) {
             LOGGER.warn("{} missing blockPos", stepName);
             return null;
         }
-        BlockPos pos1 = new BlockPos(step.blockPos.get(0), step.blockPos.get(1), step.blockPos.get(2));
+        BlockPos pos1 = toBlockPos(step.blockPos());
         BlockPos pos2 = pos1;
-        if (step.blockPos2 != null && step.blockPos2.size() >= 3) {
-            pos2 = new BlockPos(step.blockPos2.get(0), step.blockPos2.get(1), step.blockPos2.get(2));
+        if (step.blockPos2() != null && step.blockPos2().length >= 3) {
+            pos2 = toBlockPos(step.blockPos2());
         }
-        return scene.getScene().getSceneBuildingUtil().select().fromTo(pos1, pos2);
+        return new Region(pos1, pos2);
     }
 
     private Direction parseDirection(String raw) {
@@ -826,6 +945,18 @@ public class DynamicPonderPlugin implements PonderPlugin {
         return new Vec3(point.get(0), point.get(1), point.get(2));
     }
 
+    private Vec3 toPoint(double[] point) {
+        if (point == null || point.length < 3) {
+            return new Vec3(2.5, 1.5, 2.5);
+        }
+        return new Vec3(point[0], point[1], point[2]);
+    }
+
+    /** Callers check that {@code pos} has at least three elements. */
+    private static BlockPos toBlockPos(int[] pos) {
+        return new BlockPos(pos[0], pos[1], pos[2]);
+    }
+
     private Pointing parsePointing(String raw) {
         if (raw == null || raw.isBlank()) {
             return Pointing.DOWN;
@@ -867,7 +998,7 @@ public class DynamicPonderPlugin implements PonderPlugin {
 
         if (scene.steps != null) {
             for (DslScene.DslStep step : scene.steps) {
-                if (step != null && step.type != null && "next_scene".equalsIgnoreCase(step.type)) {
+                if (step != null && step.type != null && step.stepType() == StepType.NEXT_SCENE) {
                     if (!current.steps.isEmpty()) {
                         sceneList.add(current);
                     }
@@ -906,7 +1037,7 @@ public class DynamicPonderPlugin implements PonderPlugin {
             if (step == null || step.type == null) {
                 continue;
             }
-            if ("show_structure".equalsIgnoreCase(step.type)) {
+            if (step.stepType() == StepType.SHOW_STRUCTURE) {
                 return true;
             }
         }
@@ -0,0 +1,211 @@
+package com.nododiiiii.ponderer.ponder;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.Tag;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Discrimination tree over the NBT filters of one item, for items with many scenes that differ
+ * only by filter (e.g. one per CustomModelData value).
+ *
+ * Each filter is flattened into leaf constraints (path -> value). Every node tests one path of the
+ * saved stack tag: filters constraining that path continue in the child for their value, the others in
+ * {@code rest}. Matching follows the stack's value plus {@code rest}, so the work depends on the tree
+ * depth rather than the number of filters. Semantics are the same as NbtSceneFilter's subset check:
+ * nested compounds recurse, everything else must be equal.
+ */
+final class NbtFilterTree {
+    private static final NbtFilterTree EMPTY = new NbtFilterTree(null);
+
+    @Nullable
+    private final Node root;
+
+    private NbtFilterTree(@Nullable Node root) {
+        this.root = root;
+    }
+
+    static NbtFilterTree build(CompoundTag[] filters) {
+        if (filters.length == 0) return EMPTY;
+        List<Pending> pending = new ArrayList<>(filters.length);
+        for (CompoundTag filter : filters) {
+            List<Constraint> constraints = new ArrayList<>();
+            flatten(filter, new String[0], constraints);
+            pending.add(new Pending(filter, constraints));
+        }
+        return new NbtFilterTree(buildNode(pending));
+    }
+
+    /**
+     * The filters matched by {@code stackTag}, as an identity set of the registered filter tags.
+     */
+    Set<CompoundTag> matches(CompoundTag stackTag) {
+        if (root == null) return Set.of();
+        Set<CompoundTag> out = Collections.newSetFromMap(new IdentityHashMap<>());
+        collect(root, stackTag, out, false);
+        return out;
+    }
+
+    boolean anyMatch(CompoundTag stackTag) {
+        return root != null && collect(root, stackTag, null, true);
+    }
+
+    /**
+     * @param out receives matched filters; unused (may be null) when {@code firstOnly}
+     * @return true if stopping early after the first match was requested and a match was found
+     */
+    private static boolean collect(Node node, CompoundTag stackTag, @Nullable Set<CompoundTag> out, boolean firstOnly) {
+        while (node != null) {
+            if (node.accepted.length > 0) {
+                if (firstOnly) return true;
+                Collections.addAll(out, node.accepted);
+            }
+            if (node.path == null) return false;
+
+            Tag value = lookup(stackTag, node.path);
+            if (value != null) {
+                Node child = node.byValue.get(value);
+                if (child != null && collect(child, stackTag, out, firstOnly) && firstOnly) return true;
+                if (node.anyCompound != null && value instanceof CompoundTag
+                    && collect(node.anyCompound, stackTag, out, firstOnly) && firstOnly) return true;
+            }
+            node = node.rest;
+        }
+        return false;
+    }
+
+    @Nullable
+    private static Tag lookup(CompoundTag tag, String[] path) {
+        Tag current = tag;
+        for (String key : path) {
+            if (!(current instanceof CompoundTag compound)) return null;
+            current = compound.get(key);
+            if (current == null) return null;
+        }
+        return current;
+    }
+
+    private static void flatten(CompoundTag tag, String[] prefix, List<Constraint> out) {
+        for (String key : tag.getAllKeys()) {
+            Tag value = tag.get(key);
+            String[] path = Arrays.copyOf(prefix, prefix.length + 1);
+            path[prefix.length] = key;
+            if (value instanceof CompoundTag compound) {
+                if (compound.isEmpty()) {
+                    // {} only requires a compound to be there
+                    out.add(new Constraint(new PathKey(path), null));
+                } else {
+                    flatten(compound, path, out);
+                }
+            } else {
+                out.add(new Constraint(new PathKey(path), value));
+            }
+        }
+    }
+
+    private static Node buildNode(List<Pending> pending) {
+        Node node = new Node();
+        List<CompoundTag> accepted = new ArrayList<>();
+        List<Pending> open = new ArrayList<>();
+        for (Pending p : pending) {
+            if (p.constraints.isEmpty()) {
+                accepted.add(p.filter);
+            } else {
+                open.add(p);
+            }
+        }
+        node.accepted = accepted.toArray(CompoundTag[]::new);
+        if (open.isEmpty()) return node;
+
+        // Split on the path constrained by the most remaining filters
+        Map<PathKey, Integer> counts = new HashMap<>();
+        for (Pending p : open) {
+            for (Constraint c : p.constraints) {
+                counts.merge(c.path, 1, Integer::sum);
+            }
+        }
+        PathKey best = null;
+        int bestCount = 0;
+        for (var e : counts.entrySet()) {
+            if (e.getValue() > bestCount) {
+                best = e.getKey();
+                bestCount = e.getValue();
+            }
+        }
+        node.path = best.path;
+
+        Map<Tag, List<Pending>> byValue = new HashMap<>();
+        List<Pending> anyCompound = new ArrayList<>();
+        List<Pending> rest = new ArrayList<>();
+        for (Pending p : open) {
+            Constraint hit = null;
+            for (Constraint c : p.constraints) {
+                if (c.path.equals(best)) {
+                    hit = c;
+                    break;
+                }
+            }
+            if (hit == null) {
+                rest.add(p);
+                continue;
+            }
+            List<Constraint> remaining = new ArrayList<>(p.constraints);
+            remaining.remove(hit);
+            Pending next = new Pending(p.filter, remaining);
+            if (hit.value == null) {
+                anyCompound.add(next);
+            } else {
+                byValue.computeIfAbsent(hit.value, k -> new ArrayList<>()).add(next);
+            }
+        }
+
+        node.byValue = new HashMap<>(byValue.size() * 2);
+        for (var e : byValue.entrySet()) {
+            node.byValue.put(e.getKey(), buildNode(e.getValue()));
+        }
+        node.anyCompound = anyCompound.isEmpty() ? null : buildNode(anyCompound);
+        node.rest = rest.isEmpty() ? null : buildNode(rest);
+        return node;
+    }
+
+    private static final class Node {
+        CompoundTag[] accepted;
+        /** Null for a leaf. */
+        String[] path;
+        Map<Tag, Node> byValue = Map.of();
+        /** Filters requiring only that {@link #path} is a compound. */
+        Node anyCompound;
+        /** Filters that don't constrain {@link #path}. */
+        Node rest;
+    }
+
+    /**
+     * @param value required value, or null if the path only has to hold a compound
+     */
+    private record Constraint(PathKey path, @Nullable Tag value) {
+    }
+
+    private record Pending(CompoundTag filter, List<Constraint> constraints) {
+    }
+
+    /** String[] with value equality, for counting and comparing paths. */
+    private record PathKey(String[] path) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof PathKey other && Arrays.equals(path, other.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(path);
+        }
+    }
+}
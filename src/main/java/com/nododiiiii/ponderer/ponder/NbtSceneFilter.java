@@ -4,19 +4,25 @@ import com.mojang.logging.LogUtils;
 import net.createmod.ponder.foundation.PonderScene;
 import net.minecraft.client.Minecraft;
 import net.minecraft.core.RegistryAccess;
+import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.Tag;
 import net.minecraft.nbt.TagParser;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import org.slf4j.Logger;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * Registry for NBT-based ponder scene filtering.
@@ -26,15 +32,27 @@ import java.util.concurrent.ConcurrentHashMap;
 public final class NbtSceneFilter {
     private static final Logger LOGGER = LogUtils.getLogger();
 
-    // sceneId (e.g. "ponderer:ponderer_example") -> required NBT pattern
-    private static final Map<String, CompoundTag> FILTERS = new ConcurrentHashMap<>();
+    // Registrations collected during DynamicPonderPlugin.registerScenes, published by publish()
+    private static final Map<ResourceLocation, Set<ResourceLocation>> PENDING_SCENES = new HashMap<>();
+    private static final Map<ResourceLocation, CompoundTag> PENDING_FILTERS = new HashMap<>();
 
-    // itemId -> set of scene IDs registered by our plugin (both filtered and unfiltered)
-    private static final Map<ResourceLocation, Set<String>> ALL_SCENES = new ConcurrentHashMap<>();
+    // What the tooltip and compile paths read; replaced as a whole on publish()
+    private static volatile Snapshot snapshot = Snapshot.EMPTY;
 
     // ThreadLocal to pass the hovered ItemStack from PonderUI.of() into compile()
     static final ThreadLocal<ItemStack> CURRENT_STACK = new ThreadLocal<>();
 
+    // Recently checked stacks -> filter verdicts, so hovering the same stack doesn't re-serialize it
+    private static final int MAX_CACHED_STACKS = 256;
+    private static final Map<StackKey, Verdicts> VERDICTS = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<StackKey, Verdicts> eldest) {
+            return size() > MAX_CACHED_STACKS;
+        }
+    };
+    // Serialized tags depend on the registries, so verdicts are dropped when they change
+    private static RegistryAccess verdictsRegistryAccess;
+
     private NbtSceneFilter() {}
 
     // ---- Registration ----
@@ -42,23 +60,55 @@ public final class NbtSceneFilter {
     /**
      * Register a scene for an item. Called for ALL scenes (with or without NBT filter).
      */
-    public static void registerScene(ResourceLocation itemId, String sceneId) {
-        ALL_SCENES.computeIfAbsent(itemId, k -> ConcurrentHashMap.newKeySet()).add(sceneId);
+    public static synchronized void registerScene(ResourceLocation itemId, String sceneId) {
+        ResourceLocation id = ResourceLocation.tryParse(sceneId);
+        if (id != null) {
+            PENDING_SCENES.computeIfAbsent(itemId, k -> new LinkedHashSet<>()).add(id);
+        }
     }
 
     /**
      * Register an NBT filter for a specific scene.
      */
-    public static void registerFilter(String sceneId, CompoundTag nbtFilter) {
-        FILTERS.put(sceneId, nbtFilter);
+    public static synchronized void registerFilter(String sceneId, CompoundTag nbtFilter) {
+        ResourceLocation id = ResourceLocation.tryParse(sceneId);
+        if (id != null) {
+            PENDING_FILTERS.put(id, nbtFilter);
+        }
+    }
+
+    /**
+     * Start a new round of registrations (called on reload). The previous snapshot stays
+     * in use until {@link #publish()}.
+     */
+    public static synchronized void clear() {
+        PENDING_SCENES.clear();
+        PENDING_FILTERS.clear();
+        synchronized (VERDICTS) {
+            VERDICTS.clear();
+        }
     }
 
     /**
-     * Clear all registrations (called on reload).
+     * Build the per-item index from this round's registrations and swap it in.
      */
-    public static void clear() {
-        FILTERS.clear();
-        ALL_SCENES.clear();
+    public static synchronized void publish() {
+        Map<ResourceLocation, ItemIndex> byItem = new HashMap<>();
+        for (var e : PENDING_SCENES.entrySet()) {
+            boolean hasUnfiltered = false;
+            List<CompoundTag> filters = new ArrayList<>();
+            for (ResourceLocation sceneId : e.getValue()) {
+                CompoundTag filter = PENDING_FILTERS.get(sceneId);
+                if (filter == null) {
+                    hasUnfiltered = true;
+                } else {
+                    filters.add(filter);
+                }
+            }
+            CompoundTag[] itemFilters = filters.toArray(CompoundTag[]::new);
+            byItem.put(e.getKey(), new ItemIndex(hasUnfiltered, itemFilters, NbtFilterTree.build(itemFilters)));
+        }
+        snapshot = new Snapshot(Map.copyOf(byItem), Map.copyOf(PENDING_FILTERS));
     }
 
     // ---- ThreadLocal stack for mixin ----
@@ -82,12 +132,8 @@ public final class NbtSceneFilter {
      * Check whether any registered filters exist for the given item.
      */
     public static boolean hasFilters(ResourceLocation itemId) {
-        Set<String> sceneIds = ALL_SCENES.get(itemId);
-        if (sceneIds == null || sceneIds.isEmpty()) return false;
-        for (String sid : sceneIds) {
-            if (FILTERS.containsKey(sid)) return true;
-        }
-        return false;
+        ItemIndex index = snapshot.byItem.get(itemId);
+        return index != null && index.filters.length > 0;
     }
 
     /**
@@ -96,20 +142,11 @@ public final class NbtSceneFilter {
      * If filters exist, returns true if at least one scene has no filter OR matches.
      */
     public static boolean hasVisibleScenes(ItemStack stack, ResourceLocation itemId) {
-        Set<String> sceneIds = ALL_SCENES.get(itemId);
-        if (sceneIds == null || sceneIds.isEmpty()) return true;
+        ItemIndex index = snapshot.byItem.get(itemId);
+        if (index == null || index.hasUnfiltered) return true;
 
-        for (String sid : sceneIds) {
-            CompoundTag filter = FILTERS.get(sid);
-            if (filter == null) {
-                // Unfiltered scene -> always visible
-                return true;
-            }
-            if (matchesNbt(stack, filter)) {
-                return true;
-            }
-        }
-        return false;
+        Boolean visible = verdict(stack, index, saved -> index.tree.anyMatch(saved));
+        return visible != null && visible;
     }
 
     /**
@@ -119,19 +156,25 @@ public final class NbtSceneFilter {
      * If ALL scenes would be filtered out, returns the original list as fallback.
      */
     public static List<PonderScene> filter(ItemStack stack, List<PonderScene> scenes) {
-        if (FILTERS.isEmpty()) return scenes;
+        Snapshot current = snapshot;
+        Map<ResourceLocation, CompoundTag> filters = current.filtersById;
+        if (filters.isEmpty()) return scenes;
+
+        // One walk of the item's filter tree instead of one subset check per scene
+        ItemIndex index = current.byItem.get(BuiltInRegistries.ITEM.getKey(stack.getItem()));
+        Set<CompoundTag> matched = index == null ? null : verdict(stack, index.tree, index.tree::matches);
 
         List<PonderScene> filtered = new ArrayList<>();
         boolean anyFiltered = false;
 
         for (PonderScene scene : scenes) {
-            String sceneId = scene.getId().toString();
-            CompoundTag filter = FILTERS.get(sceneId);
+            CompoundTag filter = filters.get(scene.getId());
             if (filter == null) {
                 filtered.add(scene);
             } else {
                 anyFiltered = true;
-                if (matchesNbt(stack, filter)) {
+                boolean matches = matched != null ? matched.contains(filter) : matchesNbt(stack, filter);
+                if (matches) {
                     filtered.add(scene);
                 }
             }
@@ -144,29 +187,66 @@ public final class NbtSceneFilter {
     /**
      * Check if the ItemStack's serialized NBT contains all tags in the filter.
      * Uses subset matching: every key/value in filter must exist in the stack's tag.
+     *
+     * Verdicts are cached per (item, count, components), and the stack is serialized at most
+     * once per cache entry no matter how many filters it is checked against.
      */
     public static boolean matchesNbt(ItemStack stack, CompoundTag filter) {
         if (filter == null || filter.isEmpty()) return true;
 
-        try {
-            RegistryAccess registryAccess = getRegistryAccess();
-            if (registryAccess == null) return false;
+        Boolean matches = verdict(stack, filter, saved -> isSubset(filter, saved));
+        return matches != null && matches;
+    }
+
+    /**
+     * Cached result of {@code check} against the stack's saved tag, keyed by the identity of {@code key}
+     * (a registered filter, an item's filter tree, ...).
+     *
+     * @return null if the stack cannot be serialized right now
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private static <T> T verdict(ItemStack stack, Object key, Function<CompoundTag, T> check) {
+        RegistryAccess registryAccess = getRegistryAccess();
+        if (registryAccess == null) return null;
+
+        synchronized (VERDICTS) {
+            if (registryAccess != verdictsRegistryAccess) {
+                VERDICTS.clear();
+                verdictsRegistryAccess = registryAccess;
+            }
+            StackKey stackKey = new StackKey(stack.getItem(), stack.getCount(), ItemStack.hashItemAndComponents(stack));
+            Verdicts verdicts = VERDICTS.get(stackKey);
+            if (verdicts == null || !ItemStack.isSameItemSameComponents(verdicts.stack, stack)) {
+                verdicts = new Verdicts(stack.copy());
+                VERDICTS.put(stackKey, verdicts);
+            }
 
-            Tag saved = stack.save(registryAccess);
-            if (!(saved instanceof CompoundTag stackTag)) return false;
+            Object cached = verdicts.results.get(key);
+            if (cached != null) return (T) cached;
 
-            return isSubset(filter, stackTag);
-        } catch (Exception e) {
-            LOGGER.debug("NBT match check failed", e);
-            return false;
+            T result;
+            try {
+                if (verdicts.saved == null) {
+                    Tag saved = stack.save(registryAccess);
+                    verdicts.saved = saved instanceof CompoundTag stackTag ? stackTag : new CompoundTag();
+                }
+                result = check.apply(verdicts.saved);
+            } catch (Exception e) {
+                LOGGER.debug("NBT match check failed", e);
+                return null;
+            }
+            verdicts.results.put(key, result);
+            return result;
         }
     }
 
     /**
      * Recursive subset check: every key in subset must exist in superset with the same value.
      * For nested CompoundTags, recurse. For other tag types, use equals().
+     * Package-private as the reference NbtFilterTree is tested against.
      */
-    private static boolean isSubset(CompoundTag subset, CompoundTag superset) {
+    static boolean isSubset(CompoundTag subset, CompoundTag superset) {
         for (String key : subset.getAllKeys()) {
             Tag subVal = subset.get(key);
             Tag superVal = superset.get(key);
@@ -195,6 +275,38 @@ public final class NbtSceneFilter {
         }
     }
 
+    /**
+     * Filtering data for one item: whether any of its scenes is unfiltered, and the filters of the rest
+     * (also as a discrimination tree).
+     */
+    private record ItemIndex(boolean hasUnfiltered, CompoundTag[] filters, NbtFilterTree tree) {
+    }
+
+    /**
+     * Immutable registry state: per-item index, and scene id -> filter for {@link #filter}.
+     */
+    private record Snapshot(Map<ResourceLocation, ItemIndex> byItem,
+                            Map<ResourceLocation, CompoundTag> filtersById) {
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of());
+    }
+
+    /**
+     * Cache key for a stack; hash collisions are resolved by comparing against {@link Verdicts#stack}.
+     */
+    private record StackKey(Item item, int count, int componentsHash) {
+    }
+
+    private static final class Verdicts {
+        final ItemStack stack;
+        /** Keys are registered filter tags or filter trees, fixed until reload, so identity is enough. */
+        final Map<Object, Object> results = new IdentityHashMap<>();
+        CompoundTag saved;
+
+        Verdicts(ItemStack stack) {
+            this.stack = stack;
+        }
+    }
+
     @Nullable
     private static RegistryAccess getRegistryAccess() {
         var mc = Minecraft.getInstance();
@@ -26,6 +26,7 @@ public final class PonderJsConversionService {
     private static final Gson GSON = new GsonBuilder()
         .setPrettyPrinting()
         .registerTypeAdapter(LocalizedText.class, new LocalizedText.GsonAdapter())
+        .registerTypeAdapterFactory(new DslSceneCodec())
         .create();
 
     private PonderJsConversionService() {
@@ -232,7 +233,7 @@ public final class PonderJsConversionService {
                     DslScene.SceneSegment seg = segments.get(i);
                     if (seg.steps != null) {
                         for (DslScene.DslStep step : seg.steps) {
-                            if ("show_structure".equalsIgnoreCase(step.type)) {
+                            if (step.stepType() == StepType.SHOW_STRUCTURE) {
                                 step.structure = segSchematic;
                                 break;
                             }
@@ -339,14 +340,14 @@ public final class PonderJsConversionService {
         boolean hasSteps = steps != null && !steps.isEmpty();
 
         // Step types where attachKeyFrame is emitted as a chained call inside the emitter
-        java.util.Set<String> keyFrameChainedTypes = java.util.Set.of("text", "shared_text");
+        java.util.Set<StepType> keyFrameChainedTypes = java.util.EnumSet.of(StepType.TEXT, StepType.SHARED_TEXT);
 
         if (hasSteps) {
             for (DslScene.DslStep step : steps) {
                 if (step == null || step.type == null) continue;
                 // Emit standalone addKeyframe() for non-text steps with attachKeyFrame
                 if (Boolean.TRUE.equals(step.attachKeyFrame)
-                        && !keyFrameChainedTypes.contains(step.type.toLowerCase(java.util.Locale.ROOT))) {
+                        && !keyFrameChainedTypes.contains(step.stepType())) {
                     sb.append("      scene.addKeyframe();\n");
                 }
                 String emitted = PonderJsEmitters.emit(step, ctx);
@@ -405,7 +406,7 @@ public final class PonderJsConversionService {
         if (seg == null || seg.steps == null) return null;
         for (DslScene.DslStep step : seg.steps) {
             if (step == null || step.type == null) continue;
-            if (!"show_structure".equalsIgnoreCase(step.type)) continue;
+            if (step.stepType() != StepType.SHOW_STRUCTURE) continue;
             if (step.structure != null && !step.structure.isBlank()) return step.structure.trim();
             return null;
         }
@@ -23,36 +23,36 @@ public final class PonderJsEmitters {
         }
     }
 
-    private static final Map<String, StepEmitter> EMITTERS = new LinkedHashMap<>();
+    private static final Map<StepType, StepEmitter> EMITTERS = new EnumMap<>(StepType.class);
 
     static {
-        EMITTERS.put("show_structure", PonderJsEmitters::emitShowStructure);
-        EMITTERS.put("idle", PonderJsEmitters::emitIdle);
-        EMITTERS.put("text", PonderJsEmitters::emitText);
-        EMITTERS.put("shared_text", PonderJsEmitters::emitSharedText);
-        EMITTERS.put("create_entity", PonderJsEmitters::emitCreateEntity);
-        EMITTERS.put("create_item_entity", PonderJsEmitters::emitCreateItemEntity);
-        EMITTERS.put("rotate_camera_y", PonderJsEmitters::emitRotateCameraY);
-        EMITTERS.put("show_controls", PonderJsEmitters::emitShowControls);
-        EMITTERS.put("encapsulate_bounds", PonderJsEmitters::emitEncapsulateBounds);
-        EMITTERS.put("play_sound", PonderJsEmitters::emitPlaySound);
-        EMITTERS.put("set_block", PonderJsEmitters::emitSetBlock);
-        EMITTERS.put("destroy_block", PonderJsEmitters::emitDestroyBlock);
-        EMITTERS.put("replace_blocks", PonderJsEmitters::emitReplaceBlocks);
-        EMITTERS.put("hide_section", PonderJsEmitters::emitHideSection);
-        EMITTERS.put("show_section_and_merge", PonderJsEmitters::emitShowSectionAndMerge);
-        EMITTERS.put("rotate_section", PonderJsEmitters::emitRotateSection);
-        EMITTERS.put("move_section", PonderJsEmitters::emitMoveSection);
-        EMITTERS.put("toggle_redstone_power", PonderJsEmitters::emitToggleRedstonePower);
-        EMITTERS.put("modify_block_entity_nbt", PonderJsEmitters::emitModifyBlockEntityNbt);
-        EMITTERS.put("indicate_redstone", PonderJsEmitters::emitIndicateRedstone);
-        EMITTERS.put("indicate_success", PonderJsEmitters::emitIndicateSuccess);
-        EMITTERS.put("next_scene", PonderJsEmitters::emitNextScene);
+        EMITTERS.put(StepType.SHOW_STRUCTURE, PonderJsEmitters::emitShowStructure);
+        EMITTERS.put(StepType.IDLE, PonderJsEmitters::emitIdle);
+        EMITTERS.put(StepType.TEXT, PonderJsEmitters::emitText);
+        EMITTERS.put(StepType.SHARED_TEXT, PonderJsEmitters::emitSharedText);
+        EMITTERS.put(StepType.CREATE_ENTITY, PonderJsEmitters::emitCreateEntity);
+        EMITTERS.put(StepType.CREATE_ITEM_ENTITY, PonderJsEmitters::emitCreateItemEntity);
+        EMITTERS.put(StepType.ROTATE_CAMERA_Y, PonderJsEmitters::emitRotateCameraY);
+        EMITTERS.put(StepType.SHOW_CONTROLS, PonderJsEmitters::emitShowControls);
+        EMITTERS.put(StepType.ENCAPSULATE_BOUNDS, PonderJsEmitters::emitEncapsulateBounds);
+        EMITTERS.put(StepType.PLAY_SOUND, PonderJsEmitters::emitPlaySound);
+        EMITTERS.put(StepType.SET_BLOCK, PonderJsEmitters::emitSetBlock);
+        EMITTERS.put(StepType.DESTROY_BLOCK, PonderJsEmitters::emitDestroyBlock);
+        EMITTERS.put(StepType.REPLACE_BLOCKS, PonderJsEmitters::emitReplaceBlocks);
+        EMITTERS.put(StepType.HIDE_SECTION, PonderJsEmitters::emitHideSection);
+        EMITTERS.put(StepType.SHOW_SECTION_AND_MERGE, PonderJsEmitters::emitShowSectionAndMerge);
+        EMITTERS.put(StepType.ROTATE_SECTION, PonderJsEmitters::emitRotateSection);
+        EMITTERS.put(StepType.MOVE_SECTION, PonderJsEmitters::emitMoveSection);
+        EMITTERS.put(StepType.TOGGLE_REDSTONE_POWER, PonderJsEmitters::emitToggleRedstonePower);
+        EMITTERS.put(StepType.MODIFY_BLOCK_ENTITY_NBT, PonderJsEmitters::emitModifyBlockEntityNbt);
+        EMITTERS.put(StepType.INDICATE_REDSTONE, PonderJsEmitters::emitIndicateRedstone);
+        EMITTERS.put(StepType.INDICATE_SUCCESS, PonderJsEmitters::emitIndicateSuccess);
+        EMITTERS.put(StepType.NEXT_SCENE, PonderJsEmitters::emitNextScene);
     }
 
     public static String emit(DslScene.DslStep step, EmitContext ctx) {
         if (step == null || step.type == null) return null;
-        StepEmitter emitter = EMITTERS.get(step.type.toLowerCase(Locale.ROOT));
+        StepEmitter emitter = EMITTERS.get(step.stepType());
         if (emitter == null) return null;
         return emitter.emit(step, ctx);
     }
@@ -120,14 +120,14 @@ public final class PonderJsEmitters {
 
     private static String emitCreateEntity(DslScene.DslStep step, EmitContext ctx) {
         String entity = step.entity == null ? "minecraft:pig" : escapeJs(step.entity);
-        String pos = step.pos != null && step.pos.size() >= 3 ? fmtDoubles(step.pos) : "0, 1, 0";
+        String pos = step.pos() != null && step.pos().length >= 3 ? fmtDoubles(step.pos()) : "0, 1, 0";
         return "const entityLink = scene.world.createEntity(\"" + entity + "\", [" + pos + "]);";
     }
 
     private static String emitCreateItemEntity(DslScene.DslStep step, EmitContext ctx) {
         String item = step.item == null ? "minecraft:stone" : escapeJs(step.item);
-        String pos = step.pos != null && step.pos.size() >= 3 ? fmtDoubles(step.pos) : "0, 1, 0";
-        String motion = step.motion != null && step.motion.size() >= 3 ? fmtDoubles(step.motion) : "0, 0.1, 0";
+        String pos = step.pos() != null && step.pos().length >= 3 ? fmtDoubles(step.pos()) : "0, 1, 0";
+        String motion = step.motion() != null && step.motion().length >= 3 ? fmtDoubles(step.motion()) : "0, 0.1, 0";
         return "scene.world.createItemEntity([" + pos + "], [" + motion + "], \"" + item + "\");";
     }
 
@@ -181,53 +181,53 @@ public final class PonderJsEmitters {
     private static String emitSetBlock(DslScene.DslStep step, EmitContext ctx) {
         String block = step.block == null ? "minecraft:stone" : escapeJs(step.block);
         boolean particles = Boolean.TRUE.equals(step.spawnParticles);
-        if (step.blockPos2 != null && step.blockPos2.size() >= 3 && step.blockPos != null && step.blockPos.size() >= 3) {
+        if (step.blockPos2() != null && step.blockPos2().length >= 3 && step.blockPos() != null && step.blockPos().length >= 3) {
             // If both positions are identical, use single-block setBlock
-            if (step.blockPos.equals(step.blockPos2)) {
-                return "scene.world.setBlock([" + fmtInts(step.blockPos) + "], \"" + block + "\", " + particles + ");";
+            if (Arrays.equals(step.blockPos(), step.blockPos2())) {
+                return "scene.world.setBlock([" + fmtInts(step.blockPos()) + "], \"" + block + "\", " + particles + ");";
             }
-            String coords = fmtInts(step.blockPos) + ", " + fmtInts(step.blockPos2);
+            String coords = fmtInts(step.blockPos()) + ", " + fmtInts(step.blockPos2());
             return "scene.world.setBlocks(util.select.fromTo(" + coords + "), \"" + block + "\", " + particles + ");";
         }
-        if (step.blockPos == null || step.blockPos.size() < 3) return "// set_block: missing blockPos";
-        return "scene.world.setBlock([" + fmtInts(step.blockPos) + "], \"" + block + "\", " + particles + ");";
+        if (step.blockPos() == null || step.blockPos().length < 3) return "// set_block: missing blockPos";
+        return "scene.world.setBlock([" + fmtInts(step.blockPos()) + "], \"" + block + "\", " + particles + ");";
     }
 
     private static String emitDestroyBlock(DslScene.DslStep step, EmitContext ctx) {
-        if (step.blockPos == null || step.blockPos.size() < 3) return "// destroy_block: missing blockPos";
-        return "scene.world.destroyBlock([" + fmtInts(step.blockPos) + "]);";
+        if (step.blockPos() == null || step.blockPos().length < 3) return "// destroy_block: missing blockPos";
+        return "scene.world.destroyBlock([" + fmtInts(step.blockPos()) + "]);";
     }
 
     private static String emitReplaceBlocks(DslScene.DslStep step, EmitContext ctx) {
         String block = step.block == null ? "minecraft:stone" : escapeJs(step.block);
         boolean particles = Boolean.TRUE.equals(step.spawnParticles);
-        if (step.blockPos2 != null && step.blockPos2.size() >= 3 && step.blockPos != null && step.blockPos.size() >= 3) {
-            String coords = fmtInts(step.blockPos) + ", " + fmtInts(step.blockPos2);
+        if (step.blockPos2() != null && step.blockPos2().length >= 3 && step.blockPos() != null && step.blockPos().length >= 3) {
+            String coords = fmtInts(step.blockPos()) + ", " + fmtInts(step.blockPos2());
             return "scene.world.replaceBlocks(util.select.fromTo(" + coords + "), \"" + block + "\", " + particles + ");";
         }
-        if (step.blockPos == null || step.blockPos.size() < 3) return "// replace_blocks: missing blockPos";
-        return "scene.world.replaceBlocks(util.select.position(" + fmtInts(step.blockPos) + "), \"" + block + "\", " + particles + ");";
+        if (step.blockPos() == null || step.blockPos().length < 3) return "// replace_blocks: missing blockPos";
+        return "scene.world.replaceBlocks(util.select.position(" + fmtInts(step.blockPos()) + "), \"" + block + "\", " + particles + ");";
     }
 
     private static String emitHideSection(DslScene.DslStep step, EmitContext ctx) {
         String dir = step.direction == null ? "up" : escapeJs(step.direction);
-        if (step.blockPos2 != null && step.blockPos2.size() >= 3 && step.blockPos != null && step.blockPos.size() >= 3) {
-            String coords = fmtInts(step.blockPos) + ", " + fmtInts(step.blockPos2);
+        if (step.blockPos2() != null && step.blockPos2().length >= 3 && step.blockPos() != null && step.blockPos().length >= 3) {
+            String coords = fmtInts(step.blockPos()) + ", " + fmtInts(step.blockPos2());
             return "scene.world.hideSection(util.select.fromTo(" + coords + "), \"" + dir + "\");";
         }
-        if (step.blockPos == null || step.blockPos.size() < 3) return "// hide_section: missing blockPos";
-        return "scene.world.hideSection([" + fmtInts(step.blockPos) + "], \"" + dir + "\");";
+        if (step.blockPos() == null || step.blockPos().length < 3) return "// hide_section: missing blockPos";
+        return "scene.world.hideSection([" + fmtInts(step.blockPos()) + "], \"" + dir + "\");";
     }
 
     private static String emitShowSectionAndMerge(DslScene.DslStep step, EmitContext ctx) {
         String dir = step.direction == null ? "up" : escapeJs(step.direction);
         String linkId = step.linkId == null ? ctx.nextLinkVar() : step.linkId;
-        if (step.blockPos2 != null && step.blockPos2.size() >= 3 && step.blockPos != null && step.blockPos.size() >= 3) {
-            String coords = fmtInts(step.blockPos) + ", " + fmtInts(step.blockPos2);
+        if (step.blockPos2() != null && step.blockPos2().length >= 3 && step.blockPos() != null && step.blockPos().length >= 3) {
+            String coords = fmtInts(step.blockPos()) + ", " + fmtInts(step.blockPos2());
             return "const " + linkId + " = scene.world.showIndependentSection(util.select.fromTo(" + coords + "), \"" + dir + "\");";
         }
-        if (step.blockPos == null || step.blockPos.size() < 3) return "// show_section_and_merge: missing blockPos";
-        return "scene.world.showSectionAndMerge([" + fmtInts(step.blockPos) + "], \"" + dir + "\", " + linkId + ");";
+        if (step.blockPos() == null || step.blockPos().length < 3) return "// show_section_and_merge: missing blockPos";
+        return "scene.world.showSectionAndMerge([" + fmtInts(step.blockPos()) + "], \"" + dir + "\", " + linkId + ");";
     }
 
     private static String emitRotateSection(DslScene.DslStep step, EmitContext ctx) {
@@ -248,21 +248,21 @@ public final class PonderJsEmitters {
 
     private static String emitToggleRedstonePower(DslScene.DslStep step, EmitContext ctx) {
         // PonderJS does not expose toggleRedstonePower - emit as comment
-        if (step.blockPos2 != null && step.blockPos2.size() >= 3 && step.blockPos != null && step.blockPos.size() >= 3) {
-            String coords = fmtInts(step.blockPos) + ", " + fmtInts(step.blockPos2);
+        if (step.blockPos2() != null && step.blockPos2().length >= 3 && step.blockPos() != null && step.blockPos().length >= 3) {
+            String coords = fmtInts(step.blockPos()) + ", " + fmtInts(step.blockPos2());
             return "// UNSUPPORTED_IN_PONDERJS: scene.world.toggleRedstonePower(util.select.fromTo(" + coords + "));";
         }
-        if (step.blockPos == null || step.blockPos.size() < 3) return "// toggle_redstone_power: missing blockPos";
-        return "// UNSUPPORTED_IN_PONDERJS: scene.world.toggleRedstonePower([" + fmtInts(step.blockPos) + "]);";
+        if (step.blockPos() == null || step.blockPos().length < 3) return "// toggle_redstone_power: missing blockPos";
+        return "// UNSUPPORTED_IN_PONDERJS: scene.world.toggleRedstonePower([" + fmtInts(step.blockPos()) + "]);";
     }
 
     private static String emitModifyBlockEntityNbt(DslScene.DslStep step, EmitContext ctx) {
         StringBuilder sb = new StringBuilder();
         sb.append("scene.world.modifyBlockEntityNBT(");
-        if (step.blockPos2 != null && step.blockPos2.size() >= 3 && step.blockPos != null && step.blockPos.size() >= 3) {
-            sb.append("util.select.fromTo(").append(fmtInts(step.blockPos)).append(", ").append(fmtInts(step.blockPos2)).append(")");
-        } else if (step.blockPos != null && step.blockPos.size() >= 3) {
-            sb.append("util.select.position(").append(fmtInts(step.blockPos)).append(")");
+        if (step.blockPos2() != null && step.blockPos2().length >= 3 && step.blockPos() != null && step.blockPos().length >= 3) {
+            sb.append("util.select.fromTo(").append(fmtInts(step.blockPos())).append(", ").append(fmtInts(step.blockPos2())).append(")");
+        } else if (step.blockPos() != null && step.blockPos().length >= 3) {
+            sb.append("util.select.position(").append(fmtInts(step.blockPos())).append(")");
         } else {
             return "// modify_block_entity_nbt: missing blockPos";
         }
@@ -277,13 +277,13 @@ public final class PonderJsEmitters {
     }
 
     private static String emitIndicateRedstone(DslScene.DslStep step, EmitContext ctx) {
-        if (step.blockPos == null || step.blockPos.size() < 3) return "// indicate_redstone: missing blockPos";
-        return "// UNSUPPORTED_IN_PONDERJS: scene.effects.indicateRedstone([" + fmtInts(step.blockPos) + "]);";
+        if (step.blockPos() == null || step.blockPos().length < 3) return "// indicate_redstone: missing blockPos";
+        return "// UNSUPPORTED_IN_PONDERJS: scene.effects.indicateRedstone([" + fmtInts(step.blockPos()) + "]);";
     }
 
     private static String emitIndicateSuccess(DslScene.DslStep step, EmitContext ctx) {
-        if (step.blockPos == null || step.blockPos.size() < 3) return "// indicate_success: missing blockPos";
-        return "// UNSUPPORTED_IN_PONDERJS: scene.effects.indicateSuccess([" + fmtInts(step.blockPos) + "]);";
+        if (step.blockPos() == null || step.blockPos().length < 3) return "// indicate_success: missing blockPos";
+        return "// UNSUPPORTED_IN_PONDERJS: scene.effects.indicateSuccess([" + fmtInts(step.blockPos()) + "]);";
     }
 
     private static String emitNextScene(DslScene.DslStep step, EmitContext ctx) {
@@ -311,6 +311,20 @@ public final class PonderJsEmitters {
         return sb.toString();
     }
 
+    private static String fmtDoubles(double[] values) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) sb.append(", ");
+            double v = values[i];
+            if (v == (int) v) {
+                sb.append((int) v);
+            } else {
+                sb.append(v);
+            }
+        }
+        return sb.toString();
+    }
+
     private static String fmtInts(List<Integer> list) {
         StringBuilder sb = new StringBuilder();
         for (int i = 0; i < list.size(); i++) {
@@ -320,6 +334,15 @@ public final class PonderJsEmitters {
         return sb.toString();
     }
 
+    private static String fmtInts(int[] values) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(values[i]);
+        }
+        return sb.toString();
+    }
+
     private static String fmtFloat(float v) {
         if (v == (int) v) return String.valueOf((int) v);
         return String.valueOf(v);
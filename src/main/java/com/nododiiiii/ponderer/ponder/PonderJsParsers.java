@@ -285,7 +285,7 @@ public final class PonderJsParsers {
     private static DslScene.DslStep parseShowStructure(String js) {
         Matcher m = SHOW_STRUCTURE.matcher(js);
         if (!m.find()) return null;
-        DslScene.DslStep s = step("show_structure");
+        DslScene.DslStep s = step(StepType.SHOW_STRUCTURE);
         if (m.group(1) != null) s.height = Integer.parseInt(m.group(1));
         return s;
     }
@@ -296,7 +296,7 @@ public final class PonderJsParsers {
     private static DslScene.DslStep parseIdle(String js) {
         Matcher m = IDLE.matcher(js);
         if (!m.find()) return null;
-        DslScene.DslStep s = step("idle");
+        DslScene.DslStep s = step(StepType.IDLE);
         s.duration = Integer.parseInt(m.group(1));
         return s;
     }
@@ -307,7 +307,7 @@ public final class PonderJsParsers {
     private static DslScene.DslStep parseIdleSeconds(String js) {
         Matcher m = IDLE_SECONDS.matcher(js);
         if (!m.find()) return null;
-        DslScene.DslStep s = step("idle");
+        DslScene.DslStep s = step(StepType.IDLE);
         s.duration = Integer.parseInt(m.group(1)) * 20;
         return s;
     }
@@ -318,7 +318,7 @@ public final class PonderJsParsers {
     private static DslScene.DslStep parseText(String js) {
         Matcher m = TEXT.matcher(js);
         if (!m.find()) return null;
-        DslScene.DslStep s = step("text");
+        DslScene.DslStep s = step(StepType.TEXT);
         s.duration = Integer.parseInt(m.group(1));
         s.text = LocalizedText.of(m.group(2));
         if (m.group(3) != null) s.point = parseDoubleList(m.group(3));
@@ -332,7 +332,7 @@ public final class PonderJsParsers {
     private static DslScene.DslStep parseSharedText(String js) {
         Matcher m = SHARED_TEXT.matcher(js);
         if (!m.find()) return null;
-        DslScene.DslStep s = step("shared_text");
+        DslScene.DslStep s = step(StepType.SHARED_TEXT);
         s.duration = Integer.parseInt(m.group(1));
         s.key = m.group(2);
         if (m.group(3) != null) s.point = parseDoubleList(m.group(3));
@@ -346,7 +346,7 @@ public final class PonderJsParsers {
     private static DslScene.DslStep parseShowControls(String js) {
         Matcher m = SHOW_CONTROLS.matcher(js);
         if (!m.find()) return null;
-        DslScene.DslStep s = step("show_controls");
+        DslScene.DslStep s = step(StepType.SHOW_CONTROLS);
         s.duration = Integer.parseInt(m.group(1));
         s.point = parseDoubleList(m.group(2));
         s.direction = m.group(3);
@@ -366,9 +366,9 @@ public final class PonderJsParsers {
     private static DslScene.DslStep parseCreateEntity(String js) {
         Matcher m = CREATE_ENTITY.matcher(js);
         if (!m.find()) return null;
-        DslScene.DslStep s = step("create_entity");
+        DslScene.DslStep s = step(StepType.CREATE_ENTITY);
         s.entity = m.group(1);
-        s.pos = parseDoubleList(m.group(2));
+        s.setPos(parseDoubles(m.group(2)));
         return s;
     }
 
@@ -378,9 +378,9 @@ public final class PonderJsParsers {
     private static DslScene.DslStep parseCreateItemEntity(String js) {
         Matcher m = CREATE_ITEM_ENTITY.matcher(js);
         if (!m.find()) return null;
-        DslScene.DslStep s = step("create_item_entity");
-        s.pos = parseDoubleList(m.group(1));
-        s.motion = parseDoubleList(m.group(2));
+        DslScene.DslStep s = step(StepType.CREATE_ITEM_ENTITY);
+        s.setPos(parseDoubles(m.group(1)));
+        s.setMotion(parseDoubles(m.group(2)));
         s.item = m.group(3);
         return s;
     }
@@ -391,7 +391,7 @@ public final class PonderJsParsers {
     private static DslScene.DslStep parseRotateCameraY(String js) {
         Matcher m = ROTATE_CAMERA_Y.matcher(js);
         if (!m.find()) return null;
-        DslScene.DslStep s = step("rotate_camera_y");
+        DslScene.DslStep s = step(StepType.ROTATE_CAMERA_Y);
         s.degrees = Float.parseFloat(m.group(1));
         return s;
     }
@@ -402,7 +402,7 @@ public final class PonderJsParsers {
     private static DslScene.DslStep parseEncapsulateBounds(String js) {
         Matcher m = ENCAPSULATE.matcher(js);
         if (!m.find()) return null;
-        DslScene.DslStep s = step("encapsulate_bounds");
+        DslScene.DslStep s = step(StepType.ENCAPSULATE_BOUNDS);
         s.bounds = parseIntList(m.group(1));
         return s;
     }
@@ -413,7 +413,7 @@ public final class PonderJsParsers {
     private static DslScene.DslStep parsePlaySound(String js) {
         Matcher m = PLAY_SOUND.matcher(js);
         if (!m.find()) return null;
-        DslScene.DslStep s = step("play_sound");
+        DslScene.DslStep s = step(StepType.PLAY_SOUND);
         s.sound = m.group(1);
         if (m.group(2) != null) s.source = m.group(2);
         if (m.group(3) != null) s.soundVolume = Float.parseFloat(m.group(3));
@@ -427,8 +427,8 @@ public final class PonderJsParsers {
     private static DslScene.DslStep parseSetBlock(String js) {
         Matcher m = SET_BLOCK.matcher(js);
         if (!m.find()) return null;
-        DslScene.DslStep s = step("set_block");
-        s.blockPos = parseIntList(m.group(1));
+        DslScene.DslStep s = step(StepType.SET_BLOCK);
+        s.setBlockPos(parseInts(m.group(1)));
         s.block = m.group(2);
         if (m.group(3) != null) s.spawnParticles = Boolean.parseBoolean(m.group(3));
         return s;
@@ -440,11 +440,11 @@ public final class PonderJsParsers {
     private static DslScene.DslStep parseSetBlocks(String js) {
         Matcher m = SET_BLOCKS.matcher(js);
         if (!m.find()) return null;
-        DslScene.DslStep s = step("set_block");
-        List<Integer> coords = parseIntList(m.group(1));
-        if (coords.size() >= 6) {
-            s.blockPos = coords.subList(0, 3);
-            s.blockPos2 = coords.subList(3, 6);
+        DslScene.DslStep s = step(StepType.SET_BLOCK);
+        int[] coords = parseInts(m.group(1));
+        if (coords.length >= 6) {
+            s.setBlockPos(coords[0], coords[1], coords[2]);
+            s.setBlockPos2(coords[3], coords[4], coords[5]);
         }
         s.block = m.group(2);
         if (m.group(3) != null) s.spawnParticles = Boolean.parseBoolean(m.group(3));
@@ -457,8 +457,8 @@ public final class PonderJsParsers {
     private static DslScene.DslStep parseDestroyBlock(String js) {
         Matcher m = DESTROY_BLOCK.matcher(js);
         if (!m.find()) return null;
-        DslScene.DslStep s = step("destroy_block");
-        s.blockPos = parseIntList(m.group(1));
+        DslScene.DslStep s = step(StepType.DESTROY_BLOCK);
+        s.setBlockPos(parseInts(m.group(1)));
         return s;
     }
 
@@ -468,15 +468,15 @@ public final class PonderJsParsers {
     private static DslScene.DslStep parseReplaceBlocks(String js) {
         Matcher m = REPLACE_BLOCKS.matcher(js);
         if (!m.find()) return null;
-        DslScene.DslStep s = step("replace_blocks");
+        DslScene.DslStep s = step(StepType.REPLACE_BLOCKS);
         s.block = m.group(3);
         String coordStr = m.group(1) != null ? m.group(1) : m.group(2);
-        List<Integer> coords = parseIntList(coordStr);
-        if (coords.size() >= 6) {
-            s.blockPos = coords.subList(0, 3);
-            s.blockPos2 = coords.subList(3, 6);
-        } else if (coords.size() >= 3) {
-            s.blockPos = coords.subList(0, 3);
+        int[] coords = parseInts(coordStr);
+        if (coords.length >= 6) {
+            s.setBlockPos(coords[0], coords[1], coords[2]);
+            s.setBlockPos2(coords[3], coords[4], coords[5]);
+        } else if (coords.length >= 3) {
+            s.setBlockPos(coords[0], coords[1], coords[2]);
         }
         if (m.group(4) != null) s.spawnParticles = Boolean.parseBoolean(m.group(4));
         return s;
@@ -488,14 +488,14 @@ public final class PonderJsParsers {
     private static DslScene.DslStep parseHideSection(String js) {
         Matcher m = HIDE_SECTION.matcher(js);
         if (!m.find()) return null;
-        DslScene.DslStep s = step("hide_section");
+        DslScene.DslStep s = step(StepType.HIDE_SECTION);
         String coordStr = m.group(1) != null ? m.group(1) : m.group(2);
-        List<Integer> coords = parseIntList(coordStr);
-        if (coords.size() >= 6) {
-            s.blockPos = coords.subList(0, 3);
-            s.blockPos2 = coords.subList(3, 6);
-        } else if (coords.size() >= 3) {
-            s.blockPos = coords.subList(0, 3);
+        int[] coords = parseInts(coordStr);
+        if (coords.length >= 6) {
+            s.setBlockPos(coords[0], coords[1], coords[2]);
+            s.setBlockPos2(coords[3], coords[4], coords[5]);
+        } else if (coords.length >= 3) {
+            s.setBlockPos(coords[0], coords[1], coords[2]);
         }
         s.direction = m.group(3);
         return s;
@@ -507,14 +507,14 @@ public final class PonderJsParsers {
     private static DslScene.DslStep parseShowSectionAndMerge(String js) {
         Matcher m = SHOW_SECTION_AND_MERGE.matcher(js);
         if (!m.find()) return null;
-        DslScene.DslStep s = step("show_section_and_merge");
+        DslScene.DslStep s = step(StepType.SHOW_SECTION_AND_MERGE);
         String coordStr = m.group(1) != null ? m.group(1) : m.group(2);
-        List<Integer> coords = parseIntList(coordStr);
-        if (coords.size() >= 6) {
-            s.blockPos = coords.subList(0, 3);
-            s.blockPos2 = coords.subList(3, 6);
-        } else if (coords.size() >= 3) {
-            s.blockPos = coords.subList(0, 3);
+        int[] coords = parseInts(coordStr);
+        if (coords.length >= 6) {
+            s.setBlockPos(coords[0], coords[1], coords[2]);
+            s.setBlockPos2(coords[3], coords[4], coords[5]);
+        } else if (coords.length >= 3) {
+            s.setBlockPos(coords[0], coords[1], coords[2]);
         }
         s.direction = m.group(3);
         s.linkId = m.group(4);
@@ -527,15 +527,15 @@ public final class PonderJsParsers {
     private static DslScene.DslStep parseShowIndependentSection(String js) {
         Matcher m = SHOW_INDEPENDENT_SECTION.matcher(js);
         if (!m.find()) return null;
-        DslScene.DslStep s = step("show_section_and_merge");
+        DslScene.DslStep s = step(StepType.SHOW_SECTION_AND_MERGE);
         s.linkId = m.group(1);
         String coordStr = m.group(2) != null ? m.group(2) : m.group(3);
-        List<Integer> coords = parseIntList(coordStr);
-        if (coords.size() >= 6) {
-            s.blockPos = coords.subList(0, 3);
-            s.blockPos2 = coords.subList(3, 6);
-        } else if (coords.size() >= 3) {
-            s.blockPos = coords.subList(0, 3);
+        int[] coords = parseInts(coordStr);
+        if (coords.length >= 6) {
+            s.setBlockPos(coords[0], coords[1], coords[2]);
+            s.setBlockPos2(coords[3], coords[4], coords[5]);
+        } else if (coords.length >= 3) {
+            s.setBlockPos(coords[0], coords[1], coords[2]);
         }
         s.direction = m.group(4);
         return s;
@@ -547,7 +547,7 @@ public final class PonderJsParsers {
     private static DslScene.DslStep parseRotateSection(String js) {
         Matcher m = ROTATE_SECTION.matcher(js);
         if (!m.find()) return null;
-        DslScene.DslStep s = step("rotate_section");
+        DslScene.DslStep s = step(StepType.ROTATE_SECTION);
         s.linkId = m.group(1);
         s.rotX = Float.parseFloat(m.group(2));
         s.rotY = Float.parseFloat(m.group(3));
@@ -562,7 +562,7 @@ public final class PonderJsParsers {
     private static DslScene.DslStep parseMoveSection(String js) {
         Matcher m = MOVE_SECTION.matcher(js);
         if (!m.find()) return null;
-        DslScene.DslStep s = step("move_section");
+        DslScene.DslStep s = step(StepType.MOVE_SECTION);
         s.linkId = m.group(1);
         s.offset = parseDoubleList(m.group(2));
         s.duration = Integer.parseInt(m.group(3));
@@ -575,14 +575,14 @@ public final class PonderJsParsers {
     private static DslScene.DslStep parseToggleRedstonePower(String js) {
         Matcher m = TOGGLE_REDSTONE.matcher(js);
         if (!m.find()) return null;
-        DslScene.DslStep s = step("toggle_redstone_power");
+        DslScene.DslStep s = step(StepType.TOGGLE_REDSTONE_POWER);
         String coordStr = m.group(1) != null ? m.group(1) : m.group(2);
-        List<Integer> coords = parseIntList(coordStr);
-        if (coords.size() >= 6) {
-            s.blockPos = coords.subList(0, 3);
-            s.blockPos2 = coords.subList(3, 6);
-        } else if (coords.size() >= 3) {
-            s.blockPos = coords.subList(0, 3);
+        int[] coords = parseInts(coordStr);
+        if (coords.length >= 6) {
+            s.setBlockPos(coords[0], coords[1], coords[2]);
+            s.setBlockPos2(coords[3], coords[4], coords[5]);
+        } else if (coords.length >= 3) {
+            s.setBlockPos(coords[0], coords[1], coords[2]);
         }
         return s;
     }
@@ -593,14 +593,14 @@ public final class PonderJsParsers {
     private static DslScene.DslStep parseModifyBlockEntityNbt(String js) {
         Matcher m = MODIFY_BE_NBT.matcher(js);
         if (!m.find()) return null;
-        DslScene.DslStep s = step("modify_block_entity_nbt");
+        DslScene.DslStep s = step(StepType.MODIFY_BLOCK_ENTITY_NBT);
         String coordStr = m.group(1) != null ? m.group(1) : m.group(2);
-        List<Integer> coords = parseIntList(coordStr);
-        if (coords.size() >= 6) {
-            s.blockPos = coords.subList(0, 3);
-            s.blockPos2 = coords.subList(3, 6);
-        } else if (coords.size() >= 3) {
-            s.blockPos = coords.subList(0, 3);
+        int[] coords = parseInts(coordStr);
+        if (coords.length >= 6) {
+            s.setBlockPos(coords[0], coords[1], coords[2]);
+            s.setBlockPos2(coords[3], coords[4], coords[5]);
+        } else if (coords.length >= 3) {
+            s.setBlockPos(coords[0], coords[1], coords[2]);
         }
         // Try to extract nbt from NBT.parseTag("...")
         Matcher nbtM = Pattern.compile("NBT\\.parseTag\\s*\\(\\s*\"([^\"]+)\"\\s*\\)").matcher(js);
@@ -619,8 +619,8 @@ public final class PonderJsParsers {
     private static DslScene.DslStep parseIndicateRedstone(String js) {
         Matcher m = INDICATE_REDSTONE.matcher(js);
         if (!m.find()) return null;
-        DslScene.DslStep s = step("indicate_redstone");
-        s.blockPos = parseIntList(m.group(1));
+        DslScene.DslStep s = step(StepType.INDICATE_REDSTONE);
+        s.setBlockPos(parseInts(m.group(1)));
         return s;
     }
 
@@ -630,8 +630,8 @@ public final class PonderJsParsers {
     private static DslScene.DslStep parseIndicateSuccess(String js) {
         Matcher m = INDICATE_SUCCESS.matcher(js);
         if (!m.find()) return null;
-        DslScene.DslStep s = step("indicate_success");
-        s.blockPos = parseIntList(m.group(1));
+        DslScene.DslStep s = step(StepType.INDICATE_SUCCESS);
+        s.setBlockPos(parseInts(m.group(1)));
         return s;
     }
 
@@ -646,9 +646,9 @@ public final class PonderJsParsers {
 
     // -- utility -----------------------------------------------------------------
 
-    private static DslScene.DslStep step(String type) {
+    private static DslScene.DslStep step(StepType type) {
         DslScene.DslStep s = new DslScene.DslStep();
-        s.type = type;
+        s.type = type.id();
         return s;
     }
 
@@ -681,4 +681,12 @@ public final class PonderJsParsers {
         }
         return result;
     }
+
+    static int[] parseInts(String csv) {
+        return parseIntList(csv).stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    static double[] parseDoubles(String csv) {
+        return parseDoubleList(csv).stream().mapToDouble(Double::doubleValue).toArray();
+    }
 }
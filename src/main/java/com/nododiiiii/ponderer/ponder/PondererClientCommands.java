@@ -4,6 +4,7 @@ import com.mojang.brigadier.arguments.StringArgumentType;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.nododiiiii.ponderer.network.DownloadStructurePayload;
+import com.nododiiiii.ponderer.network.UploadBatchPayload;
 import com.nododiiiii.ponderer.network.UploadScenePayload;
 import com.nododiiiii.ponderer.network.SyncRequestPayload;
 import net.createmod.ponder.foundation.PonderIndex;
@@ -28,9 +29,11 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -41,6 +44,7 @@ public final class PondererClientCommands {
     private static final Gson GSON = new GsonBuilder()
         .setPrettyPrinting()
         .registerTypeAdapter(LocalizedText.class, new LocalizedText.GsonAdapter())
+        .registerTypeAdapterFactory(new DslSceneCodec())
         .create();
 
     private PondererClientCommands() {
@@ -112,6 +116,8 @@ public final class PondererClientCommands {
                 .then(Commands.literal("import")
                     .then(Commands.argument("filename", StringArgumentType.word())
                         .executes(ctx -> importPack(StringArgumentType.getString(ctx, "filename")))))
+                .then(Commands.literal("pack_structures")
+                    .executes(ctx -> packStructures()))
         );
     }
 
@@ -135,7 +141,8 @@ public final class PondererClientCommands {
 
     private static int pull(String mode) {
         pendingPullMode = mode;
-        PacketDistributor.sendToServer(new SyncRequestPayload());
+        // force re-downloads everything; other modes let the server skip files unchanged since last sync
+        SyncRequestPayload.send("force".equals(mode) ? Map.of() : SyncMeta.knownHashes());
         notifyClient(Component.translatable("ponderer.cmd.pull.requesting", mode));
         return 1;
     }
@@ -183,15 +190,19 @@ public final class PondererClientCommands {
 
         // Compute lastSyncHash for conflict detection
         String metaKey = "scripts/" + id;
-        Map<String, String> meta = SyncMeta.load();
-        String lastSyncHash = meta.getOrDefault(metaKey, "");
+        String lastSyncHash = SyncMeta.get(metaKey);
 
-        PacketDistributor.sendToServer(new UploadScenePayload(id.toString(), json, structures, mode, lastSyncHash));
+        PacketDistributor.sendToServer(UploadScenePayload.of(id.toString(), json, structures, mode, lastSyncHash));
         notifyClient(Component.translatable("ponderer.cmd.push.uploading", id.toString(), mode));
         return 1;
     }
 
-    private static void remapStructuresForUpload(DslScene scene, List<UploadScenePayload.StructureEntry> uploadEntries) {
+    /**
+     * Point the scene's structure refs at ponderer: copies and queue those copies for upload.
+     *
+     * @return ids of the uploaded structures this scene references
+     */
+    private static Set<String> remapStructuresForUpload(DslScene scene, List<UploadScenePayload.StructureEntry> uploadEntries) {
         Map<String, String> remapped = new HashMap<>();
 
         if (scene.structures != null && !scene.structures.isEmpty()) {
@@ -227,6 +238,8 @@ public final class PondererClientCommands {
                 }
             }
         }
+
+        return new HashSet<>(remapped.values());
     }
 
     private static String remapStructureRef(String ref, List<UploadScenePayload.StructureEntry> uploadEntries,
@@ -254,7 +267,9 @@ public final class PondererClientCommands {
         try {
             byte[] bytes = Files.readAllBytes(sourcePath);
             Files.createDirectories(targetPath.getParent());
+            SceneFileWatcher.markOwnWrite(targetPath);
             Files.write(targetPath, bytes);
+            StructureTemplateCache.invalidate(targetPath);
 
             if (uploadEntries.stream().noneMatch(e -> e.id().equals(target.toString()))) {
                 uploadEntries.add(new UploadScenePayload.StructureEntry(target.toString(), bytes));
@@ -308,16 +323,31 @@ public final class PondererClientCommands {
             notifyClient(Component.translatable("ponderer.cmd.push.no_scenes"));
             return 0;
         }
-        int count = 0;
+
+        // Structures are read once and shared by every batch that needs them
+        List<UploadScenePayload.StructureEntry> structures = new ArrayList<>();
+        List<UploadBatchPayload.SceneEntry> entries = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
         for (DslScene scene : scenes) {
             if (scene == null || scene.id == null || scene.id.isBlank()) continue;
             ResourceLocation id = ResourceLocation.tryParse(scene.id);
-            if (id == null) continue;
-            push(id, mode);
-            count++;
+            if (id == null || !seen.add(id.toString())) continue;
+
+            DslScene uploadScene = GSON.fromJson(GSON.toJson(scene), DslScene.class);
+            Set<String> structureIds = remapStructuresForUpload(uploadScene, structures);
+            entries.add(new UploadBatchPayload.SceneEntry(id.toString(), GSON.toJson(uploadScene),
+                SyncMeta.get("scripts/" + id), List.copyOf(structureIds)));
         }
-        notifyClient(Component.translatable("ponderer.cmd.push.done", count, mode));
-        return count;
+        if (entries.isEmpty()) {
+            notifyClient(Component.translatable("ponderer.cmd.push.no_scenes"));
+            return 0;
+        }
+
+        for (UploadBatchPayload batch : UploadBatchPayload.split(mode, entries, structures)) {
+            PacketDistributor.sendToServer(batch);
+        }
+        notifyClient(Component.translatable("ponderer.cmd.push.done", entries.size(), mode));
+        return entries.size();
     }
 
     // ---- /ponderer new ----
@@ -540,6 +570,7 @@ public final class PondererClientCommands {
                         }
                     }
                 }
+                Set<String> written = new HashSet<>();
                 if (Files.exists(structuresDir)) {
                     try (Stream<Path> paths = Files.walk(structuresDir)) {
                         for (Path p : paths.filter(Files::isRegularFile).toList()) {
@@ -547,10 +578,23 @@ public final class PondererClientCommands {
                             zos.putNextEntry(new ZipEntry(entryName));
                             Files.copy(p, zos);
                             zos.closeEntry();
+                            written.add(entryName);
                             count++;
                         }
                     }
                 }
+                // Packed structures are exported as loose files unless a loose copy already shadows them
+                StructureLibrary library = StructureLibrary.forDir(structuresDir);
+                if (library != null) {
+                    for (String key : library.keys()) {
+                        String entryName = "structures/" + key + ".nbt";
+                        if (!written.add(entryName)) continue;
+                        zos.putNextEntry(new ZipEntry(entryName));
+                        zos.write(library.read(key));
+                        zos.closeEntry();
+                        count++;
+                    }
+                }
             }
             notifyClient(Component.translatable("ponderer.cmd.export.done", count, outputFile.getFileName().toString()));
             return 1;
@@ -584,6 +628,8 @@ public final class PondererClientCommands {
                     Path target;
                     if (name.startsWith("scripts/")) {
                         target = scriptsDir.resolve(name.substring("scripts/".length()));
+                    } else if (name.equals(StructureLibrary.FILE_NAME)) {
+                        target = structuresDir.resolveSibling(StructureLibrary.FILE_NAME);
                     } else if (name.startsWith("structures/")) {
                         target = structuresDir.resolve(name.substring("structures/".length()));
                     } else {
@@ -592,6 +638,7 @@ public final class PondererClientCommands {
                     // Security: prevent path traversal
                     if (!target.normalize().startsWith(baseDir.normalize())) continue;
                     Files.createDirectories(target.getParent());
+                    SceneFileWatcher.markOwnWrite(target);
                     Files.copy(zis, target, StandardCopyOption.REPLACE_EXISTING);
                     count++;
                 }
@@ -606,6 +653,20 @@ public final class PondererClientCommands {
         }
     }
 
+    // ---- /ponderer pack_structures ----
+
+    private static int packStructures() {
+        try {
+            int count = StructureLibrary.pack(SceneStore.getStructureDir());
+            StructureTemplateCache.clear();
+            notifyClient(Component.translatable("ponderer.cmd.pack.done", count, StructureLibrary.FILE_NAME));
+            return 1;
+        } catch (IOException e) {
+            notifyClient(Component.translatable("ponderer.cmd.pack.failed", e.getMessage()));
+            return 0;
+        }
+    }
+
     private static void notifyClient(Component message) {
         if (Minecraft.getInstance().player != null) {
             Minecraft.getInstance().player.displayClientMessage(message, false);
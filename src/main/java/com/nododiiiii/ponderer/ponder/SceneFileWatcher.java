@@ -0,0 +1,161 @@
+package com.nododiiiii.ponderer.ponder;
+
+import com.mojang.logging.LogUtils;
+import net.createmod.ponder.foundation.PonderIndex;
+import net.minecraft.client.Minecraft;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Optional hot reload for config/ponderer/scripts and config/ponderer/structures.
+ *
+ * Events are debounced: a burst of writes (editor save, git checkout, unzip) is collected
+ * until the directories have been quiet for {@link #DEBOUNCE_MS}, then only the touched
+ * script files are re-read and a single PonderIndex.reload() is scheduled on the client thread.
+ *
+ * Files the mod writes itself (editor save, pull, push remap, import) are reported through
+ * {@link #markOwnWrite} and their events are ignored, since those callers already reload explicitly.
+ */
+public final class SceneFileWatcher {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final long DEBOUNCE_MS = 300;
+    /** How long after {@link #markOwnWrite} events for that path are ignored. */
+    private static final long OWN_WRITE_MS = 2000;
+    private static final Map<Path, Long> OWN_WRITES = new ConcurrentHashMap<>();
+
+    private static WatchService watchService;
+    private static volatile Thread thread;
+
+    private SceneFileWatcher() {
+    }
+
+    public static synchronized void start() {
+        if (thread != null) return;
+
+        Path scriptsDir = SceneStore.getSceneDir();
+        Path structuresDir = SceneStore.getStructureDir();
+        WatchService ws;
+        try {
+            Files.createDirectories(scriptsDir);
+            Files.createDirectories(structuresDir);
+            ws = FileSystems.getDefault().newWatchService();
+            register(ws, scriptsDir);
+            registerTree(ws, structuresDir);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to start ponderer file watcher", e);
+            return;
+        }
+
+        watchService = ws;
+        thread = new Thread(() -> run(ws, scriptsDir, structuresDir), "Ponderer-FileWatcher");
+        thread.setDaemon(true);
+        thread.start();
+        LOGGER.info("Watching {} and {} for changes", scriptsDir, structuresDir);
+    }
+
+    public static synchronized void stop() {
+        if (thread == null) return;
+        try {
+            watchService.close();
+        } catch (IOException ignored) {
+        }
+        thread.interrupt();
+        thread = null;
+        watchService = null;
+        OWN_WRITES.clear();
+    }
+
+    /**
+     * Note that the mod is about to write or delete {@code path} and will reload on its own,
+     * so the watcher doesn't queue a second reload for it.
+     */
+    public static void markOwnWrite(Path path) {
+        if (thread == null) return;
+        OWN_WRITES.put(path.toAbsolutePath().normalize(), System.currentTimeMillis());
+    }
+
+    private static boolean isOwnWrite(Path path) {
+        Long marked = OWN_WRITES.get(path.toAbsolutePath().normalize());
+        return marked != null && System.currentTimeMillis() - marked < OWN_WRITE_MS;
+    }
+
+    private static void run(WatchService ws, Path scriptsDir, Path structuresDir) {
+        while (!Thread.currentThread().isInterrupted()) {
+            Set<Path> touchedScripts = new HashSet<>();
+            boolean structuresChanged = false;
+            boolean overflow = false;
+            try {
+                WatchKey key = ws.take();
+                // Keep draining until the burst has been quiet for DEBOUNCE_MS
+                while (key != null) {
+                    Path dir = (Path) key.watchable();
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            overflow = true;
+                            continue;
+                        }
+                        Path child = dir.resolve((Path) event.context());
+                        if (isOwnWrite(child)) {
+                            continue;
+                        }
+                        if (dir.startsWith(structuresDir)) {
+                            structuresChanged = true;
+                            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(child)) {
+                                registerTree(ws, child);
+                            }
+                        } else if (dir.equals(scriptsDir)) {
+                            touchedScripts.add(child);
+                        }
+                    }
+                    key.reset();
+                    key = ws.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            } catch (IOException e) {
+                LOGGER.warn("Failed to watch new structure directory", e);
+            }
+            long now = System.currentTimeMillis();
+            OWN_WRITES.values().removeIf(marked -> now - marked >= OWN_WRITE_MS);
+
+            if (overflow) {
+                SceneStore.reloadFromDisk();
+            } else if (!touchedScripts.isEmpty()) {
+                SceneStore.reloadFiles(touchedScripts);
+            } else if (!structuresChanged) {
+                continue;
+            }
+            Minecraft.getInstance().execute(PonderIndex::reload);
+        }
+    }
+
+    private static void register(WatchService ws, Path dir) throws IOException {
+        dir.register(ws,
+            StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_DELETE,
+            StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    private static void registerTree(WatchService ws, Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path dir : paths.filter(Files::isDirectory).toList()) {
+                register(ws, dir);
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.nododiiiii.ponderer.ponder;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.mojang.logging.LogUtils;
+import net.minecraft.resources.ResourceLocation;
+import org.slf4j.Logger;
+
+import javax.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Append-only journal of scene editor operations, so a step edit costs one appended line instead of
+ * rewriting the whole scene file, and undo history survives closing the editor or a crash.
+ *
+ * Storage: config/ponderer/journal/<namespace>/<path>.jsonl, one entry per line:
+ *   {"op":"saved","hash":"..."}           the scene file was written; SHA-256 of the bytes written
+ *   {"op":"segment","index":1}            editing switched to segment 1; history before it no longer applies
+ *   {"op":"insert","index":3,"step":{..}} and likewise replace (with "before"), remove, move (with "to"), undo, redo
+ *
+ * Entries up to the last "saved" are already in the scene file and only rebuild history; entries after it
+ * were not yet written and are re-applied on load. If the scene file no longer hashes to the last "saved"
+ * (edited by hand, pulled from a server, saved by another tool), the journal is stale; the editor decides
+ * whether to discard it or, if it still holds unsaved edits, {@link #keepAside keep it aside}.
+ * A torn last line from a crash mid-append is ignored.
+ */
+public final class SceneJournal {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final Gson GSON = new GsonBuilder()
+        .registerTypeAdapter(LocalizedText.class, new LocalizedText.GsonAdapter())
+        .registerTypeAdapterFactory(new DslSceneCodec())
+        .create();
+    private static final String JOURNAL_DIR = "journal";
+
+    private SceneJournal() {
+    }
+
+    public enum Op {
+        SAVED, SEGMENT, INSERT, REPLACE, REMOVE, MOVE, UNDO, REDO;
+
+        private final String id = name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * One journal line. Unused components are -1 / null; see the class comment for which op uses what.
+     */
+    public record Entry(Op op, int index, int to, @Nullable DslScene.DslStep before,
+                        @Nullable DslScene.DslStep step, @Nullable String hash) {
+        public static Entry saved(String hash) { return new Entry(Op.SAVED, -1, -1, null, null, hash); }
+        public static Entry segment(int index) { return new Entry(Op.SEGMENT, index, -1, null, null, null); }
+        public static Entry insert(int index, DslScene.DslStep step) { return new Entry(Op.INSERT, index, -1, null, step, null); }
+        public static Entry replace(int index, DslScene.DslStep before, DslScene.DslStep after) {
+            return new Entry(Op.REPLACE, index, -1, before, after, null);
+        }
+        public static Entry remove(int index, DslScene.DslStep step) { return new Entry(Op.REMOVE, index, -1, null, step, null); }
+        public static Entry move(int from, int to) { return new Entry(Op.MOVE, from, to, null, null, null); }
+        public static Entry undo() { return new Entry(Op.UNDO, -1, -1, null, null, null); }
+        public static Entry redo() { return new Entry(Op.REDO, -1, -1, null, null, null); }
+    }
+
+    /**
+     * A journal as read from disk. {@code history} is already reflected in the file hashing to {@code savedHash};
+     * {@code pending} must be applied to that content to recover edits that were never written.
+     * {@code savedHash} is null if the journal has no "saved" entry, in which case everything is pending.
+     */
+    public record Recovered(List<Entry> history, List<Entry> pending, int lines, @Nullable String savedHash) {}
+
+    public static Path getJournalPath(String sceneId) {
+        ResourceLocation loc = ResourceLocation.tryParse(sceneId);
+        String namespace = loc != null ? loc.getNamespace() : "unknown";
+        String path = loc != null ? loc.getPath() : sceneId.replaceAll("[^a-z0-9_.-]", "_");
+        return SceneStore.getSceneDir().getParent().resolve(JOURNAL_DIR).resolve(namespace).resolve(path + ".jsonl");
+    }
+
+    /** The hash a "saved" entry would record if {@code scene} were written now. */
+    public static String hash(DslScene scene) {
+        return SyncMeta.sha256(SceneStore.toLocalJson(scene));
+    }
+
+    /**
+     * Read the journal for {@code sceneId}, or null if there is none or it can't be read.
+     * Whether it still applies is up to the caller; compare {@link Recovered#savedHash()}.
+     */
+    @Nullable
+    public static Recovered load(String sceneId) {
+        Path path = getJournalPath(sceneId);
+        if (!Files.exists(path)) return null;
+
+        List<Entry> entries = new ArrayList<>();
+        int lastSaved = -1;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                Entry entry;
+                try {
+                    entry = decode(JsonParser.parseString(line).getAsJsonObject());
+                } catch (Exception e) {
+                    // Torn write from a crash; nothing after it can be trusted
+                    LOGGER.warn("Ignoring unreadable tail of scene journal {}", path);
+                    break;
+                }
+                if (entry.op() == Op.SAVED) {
+                    lastSaved = entries.size();
+                }
+                entries.add(entry);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to read scene journal {}", path, e);
+            return null;
+        }
+
+        return new Recovered(new ArrayList<>(entries.subList(0, lastSaved + 1)),
+            new ArrayList<>(entries.subList(lastSaved + 1, entries.size())), entries.size(),
+            lastSaved < 0 ? null : entries.get(lastSaved).hash());
+    }
+
+    /** Append one entry. Only this line is written, regardless of how large the scene is. */
+    public static void append(String sceneId, Entry entry) {
+        Path path = getJournalPath(sceneId);
+        try {
+            Files.createDirectories(path.getParent());
+            try (Writer w = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE)) {
+                w.write(GSON.toJson(encode(entry)));
+                w.write('\n');
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to append to scene journal {}", path, e);
+        }
+    }
+
+    /** Replace the journal with {@code entries}, e.g. to start fresh or drop history that has aged out. */
+    public static void rewrite(String sceneId, List<Entry> entries) {
+        Path path = getJournalPath(sceneId);
+        try {
+            Files.createDirectories(path.getParent());
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (Entry entry : entries) {
+                    w.write(GSON.toJson(encode(entry)));
+                    w.write('\n');
+                }
+            }
+            try {
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to rewrite scene journal {}", path, e);
+        }
+    }
+
+    /**
+     * Move a stale journal that still holds unsaved edits to {@code <path>.jsonl.bak} so they aren't lost.
+     *
+     * @return the backup path, or null if nothing was moved
+     */
+    @Nullable
+    public static Path keepAside(String sceneId) {
+        Path path = getJournalPath(sceneId);
+        Path backup = path.resolveSibling(path.getFileName() + ".bak");
+        try {
+            Files.move(path, backup, StandardCopyOption.REPLACE_EXISTING);
+            return backup;
+        } catch (IOException e) {
+            LOGGER.warn("Failed to keep stale scene journal {}", path, e);
+            return null;
+        }
+    }
+
+    public static void delete(String sceneId) {
+        try {
+            Files.deleteIfExists(getJournalPath(sceneId));
+        } catch (IOException e) {
+            LOGGER.warn("Failed to delete scene journal for {}", sceneId, e);
+        }
+    }
+
+    private static JsonObject encode(Entry entry) {
+        JsonObject obj = new JsonObject();
+        obj.addProperty("op", entry.op().id);
+        if (entry.index() >= 0) obj.addProperty("index", entry.index());
+        if (entry.to() >= 0) obj.addProperty("to", entry.to());
+        if (entry.before() != null) obj.add("before", GSON.toJsonTree(entry.before(), DslScene.DslStep.class));
+        if (entry.step() != null) obj.add("step", GSON.toJsonTree(entry.step(), DslScene.DslStep.class));
+        if (entry.hash() != null) obj.addProperty("hash", entry.hash());
+        return obj;
+    }
+
+    private static Entry decode(JsonObject obj) {
+        Op op = Op.valueOf(obj.get("op").getAsString().toUpperCase(Locale.ROOT));
+        return new Entry(op,
+            obj.has("index") ? obj.get("index").getAsInt() : -1,
+            obj.has("to") ? obj.get("to").getAsInt() : -1,
+            step(obj.get("before")),
+            step(obj.get("step")),
+            obj.has("hash") ? obj.get("hash").getAsString() : null);
+    }
+
+    @Nullable
+    private static DslScene.DslStep step(@Nullable JsonElement json) {
+        return json == null || json.isJsonNull() ? null : GSON.fromJson(json, DslScene.DslStep.class);
+    }
+}
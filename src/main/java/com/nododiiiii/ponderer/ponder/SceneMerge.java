@@ -0,0 +1,209 @@
+package com.nododiiiii.ponderer.ponder;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+
+import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Three-way merge of a scene edited both locally and on the server since the last sync.
+ *
+ * Scene fields (title, items, structures, tags, nbtFilter, ...) merge as whole values: a side that left a
+ * field at its base value takes the other side's. Step lists merge step by step (diff3 over the steps'
+ * JSON), so inserting, removing or editing different steps on each side combines cleanly. Segments in
+ * scenes[] are matched by position; if the segment count changed on both sides they are one conflict.
+ *
+ * A merge with any genuine conflict produces no result, only the list of conflicting places.
+ */
+public final class SceneMerge {
+    private static final Gson GSON = new GsonBuilder().setLenient()
+        .registerTypeAdapter(LocalizedText.class, new LocalizedText.GsonAdapter())
+        .registerTypeAdapterFactory(new DslSceneCodec())
+        .create();
+    private static final Gson GSON_PRETTY = new GsonBuilder().setPrettyPrinting()
+        .registerTypeAdapter(LocalizedText.class, new LocalizedText.GsonAdapter())
+        .registerTypeAdapterFactory(new DslSceneCodec())
+        .create();
+    /** Largest base x side step count compared; beyond this a changed step list is reported as one conflict. */
+    private static final long MAX_DIFF_CELLS = 4_000_000L;
+
+    private SceneMerge() {
+    }
+
+    /**
+     * @param merged the merged scene as pretty-printed JSON, or null if there were conflicts
+     * @param conflicts human-readable places that changed differently on both sides
+     */
+    public record Result(@Nullable byte[] merged, List<String> conflicts) {
+        public boolean clean() {
+            return merged != null;
+        }
+    }
+
+    /**
+     * Merge three versions of a scene script, or return null if any of them can't be parsed.
+     */
+    @Nullable
+    public static Result merge(byte[] base, byte[] local, byte[] server) {
+        DslScene b, l, s;
+        try {
+            b = GSON.fromJson(new String(base, StandardCharsets.UTF_8), DslScene.class);
+            l = GSON.fromJson(new String(local, StandardCharsets.UTF_8), DslScene.class);
+            s = GSON.fromJson(new String(server, StandardCharsets.UTF_8), DslScene.class);
+        } catch (Exception e) {
+            return null;
+        }
+        if (b == null || l == null || s == null) return null;
+
+        List<String> conflicts = new ArrayList<>();
+        DslScene merged = merge(b, l, s, conflicts);
+        if (!conflicts.isEmpty()) {
+            return new Result(null, conflicts);
+        }
+        return new Result(GSON_PRETTY.toJson(merged).getBytes(StandardCharsets.UTF_8), conflicts);
+    }
+
+    static DslScene merge(DslScene base, DslScene local, DslScene server, List<String> conflicts) {
+        DslScene out = new DslScene();
+        out.id = pick("id", base.id, local.id, server.id, conflicts);
+        out.items = pick("items", base.items, local.items, server.items, conflicts);
+        out.title = pick("title", base.title, local.title, server.title, conflicts);
+        out.structure = pick("structure", base.structure, local.structure, server.structure, conflicts);
+        out.structures = pick("structures", base.structures, local.structures, server.structures, conflicts);
+        out.tags = pick("tags", base.tags, local.tags, server.tags, conflicts);
+        out.nbtFilter = pick("nbtFilter", base.nbtFilter, local.nbtFilter, server.nbtFilter, conflicts);
+        out.steps = mergeSteps("steps", base.steps, local.steps, server.steps, conflicts);
+        out.scenes = mergeSegments(base.scenes, local.scenes, server.scenes, conflicts);
+        return out;
+    }
+
+    private static List<DslScene.SceneSegment> mergeSegments(List<DslScene.SceneSegment> base,
+                                                             List<DslScene.SceneSegment> local,
+                                                             List<DslScene.SceneSegment> server,
+                                                             List<String> conflicts) {
+        int size = sizeOf(local);
+        if (sizeOf(base) != size || sizeOf(server) != size) {
+            // Segments added or removed: only mergeable if one side left scenes[] untouched
+            return pick("scenes", base, local, server, conflicts);
+        }
+        if (size == 0) return local;
+        List<DslScene.SceneSegment> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            DslScene.SceneSegment b = base.get(i), l = local.get(i), s = server.get(i);
+            if (b == null || l == null || s == null) {
+                out.add(pick("scenes[" + (i + 1) + "]", b, l, s, conflicts));
+                continue;
+            }
+            String where = "scenes[" + (i + 1) + "]";
+            DslScene.SceneSegment segment = new DslScene.SceneSegment();
+            segment.id = pick(where + ".id", b.id, l.id, s.id, conflicts);
+            segment.title = pick(where + ".title", b.title, l.title, s.title, conflicts);
+            segment.steps = mergeSteps(where + ".steps", b.steps, l.steps, s.steps, conflicts);
+            out.add(segment);
+        }
+        return out;
+    }
+
+    /**
+     * diff3 over step lists: regions between steps that are unchanged on both sides are taken from whichever
+     * side changed them, and are a conflict only if both sides changed them differently.
+     */
+    private static List<DslScene.DslStep> mergeSteps(String where, List<DslScene.DslStep> base,
+                                                     List<DslScene.DslStep> local, List<DslScene.DslStep> server,
+                                                     List<String> conflicts) {
+        if (base == null || local == null || server == null
+            || (long) base.size() * Math.max(local.size(), server.size()) > MAX_DIFF_CELLS) {
+            return pick(where, base, local, server, conflicts);
+        }
+        List<String> b = keys(base), l = keys(local), s = keys(server);
+        if (l.equals(b)) return server;
+        if (s.equals(b) || l.equals(s)) return local;
+
+        int[] toLocal = match(b, l);
+        int[] toServer = match(b, s);
+        List<DslScene.DslStep> out = new ArrayList<>(Math.max(local.size(), server.size()));
+        int i = 0, li = 0, si = 0;
+        while (true) {
+            // Next base step kept by both sides closes the current unstable region
+            int k = i;
+            while (k < b.size() && (toLocal[k] < 0 || toServer[k] < 0)) k++;
+            int lEnd = k < b.size() ? toLocal[k] : l.size();
+            int sEnd = k < b.size() ? toServer[k] : s.size();
+
+            List<String> bChunk = b.subList(i, k), lChunk = l.subList(li, lEnd), sChunk = s.subList(si, sEnd);
+            if (lChunk.equals(bChunk)) {
+                out.addAll(server.subList(si, sEnd));
+            } else if (sChunk.equals(bChunk) || lChunk.equals(sChunk)) {
+                out.addAll(local.subList(li, lEnd));
+            } else {
+                conflicts.add(where + " " + describe(i, k));
+            }
+
+            if (k >= b.size()) break;
+            out.add(local.get(lEnd));
+            i = k + 1;
+            li = lEnd + 1;
+            si = sEnd + 1;
+        }
+        return out;
+    }
+
+    /**
+     * Longest-common-subsequence matching: for each base index, the index of the equal element in
+     * {@code side}, or -1 if the base element was removed or changed there.
+     */
+    private static int[] match(List<String> base, List<String> side) {
+        int n = base.size(), m = side.size();
+        int[][] lcs = new int[n + 1][m + 1];
+        for (int x = n - 1; x >= 0; x--) {
+            for (int y = m - 1; y >= 0; y--) {
+                lcs[x][y] = base.get(x).equals(side.get(y))
+                    ? lcs[x + 1][y + 1] + 1
+                    : Math.max(lcs[x + 1][y], lcs[x][y + 1]);
+            }
+        }
+        int[] result = new int[n];
+        int x = 0, y = 0;
+        while (x < n) {
+            if (y < m && base.get(x).equals(side.get(y))) {
+                result[x++] = y++;
+            } else if (y < m && lcs[x][y + 1] >= lcs[x + 1][y]) {
+                y++;
+            } else {
+                result[x++] = -1;
+            }
+        }
+        return result;
+    }
+
+    private static List<String> keys(List<DslScene.DslStep> steps) {
+        List<String> keys = new ArrayList<>(steps.size());
+        for (DslScene.DslStep step : steps) {
+            keys.add(GSON.toJson(step, DslScene.DslStep.class));
+        }
+        return keys;
+    }
+
+    private static String describe(int from, int to) {
+        // 1-based, as shown in the editor
+        if (to - from <= 1) return "#" + (from + 1);
+        return "#" + (from + 1) + "-" + to;
+    }
+
+    private static <T> T pick(String field, T base, T local, T server, List<String> conflicts) {
+        JsonElement b = GSON.toJsonTree(base), l = GSON.toJsonTree(local), s = GSON.toJsonTree(server);
+        if (Objects.equals(l, b)) return server;
+        if (Objects.equals(s, b) || Objects.equals(l, s)) return local;
+        conflicts.add(field);
+        return local;
+    }
+
+    private static int sizeOf(@Nullable List<?> list) {
+        return list == null ? 0 : list.size();
+    }
+}
@@ -5,25 +5,22 @@ import net.minecraft.resources.ResourceLocation;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
 
 public final class SceneRuntime {
-    private static volatile List<DslScene> scenes = List.of();
-
-    /** Pattern to strip _partN or _N suffix from scene IDs for multi-scene matching. */
-    private static final Pattern SCENE_SUFFIX = Pattern.compile("^(.+?)(?:_part(\\d+)|_(\\d+))$");
+    private static volatile Snapshot snapshot = Snapshot.EMPTY;
 
     private SceneRuntime() {
     }
 
     public static List<DslScene> getScenes() {
-        return scenes;
+        return snapshot.scenes;
     }
 
     public static void setScenes(List<DslScene> newScenes) {
-        scenes = Collections.unmodifiableList(new ArrayList<>(newScenes));
+        snapshot = Snapshot.build(Collections.unmodifiableList(new ArrayList<>(newScenes)));
     }
 
     /**
@@ -37,6 +34,8 @@ public final class SceneRuntime {
      * For single-scene ponders: PonderScene.getId() == DslScene.id  (exact match)
      * For multi-scene ponders: PonderScene.getId() == DslScene.id + "_partN" or "_N"
      *
+     * Lookups go through an index built once per {@link #setScenes}, so no scene ids are parsed here.
+     *
      * @param ponderSceneId the ResourceLocation from PonderScene.getId()
      * @return the matching DslScene and scene index, or null if not found
      */
@@ -44,85 +43,139 @@ public final class SceneRuntime {
     public static SceneMatch findBySceneId(ResourceLocation ponderSceneId) {
         if (ponderSceneId == null) return null;
 
-        String fullId = ponderSceneId.toString();
+        Snapshot index = snapshot;
+        String namespace = ponderSceneId.getNamespace();
         String path = ponderSceneId.getPath();
+        Map<String, SceneMatch> exact = index.byId.get(namespace);
+        if (exact == null) return null;
 
         // First: try exact match
-        for (DslScene scene : scenes) {
-            if (scene.id == null) continue;
-            ResourceLocation sceneId = ResourceLocation.tryParse(scene.id);
-            if (sceneId == null) continue;
+        SceneMatch match = exact.get(path);
+        if (match != null) {
+            return match;
+        }
 
-            if (sceneId.equals(ponderSceneId)) {
-                return new SceneMatch(scene, 0);
+        // Second: try stripping scene suffix (_partN or _N)
+        int split = suffixStart(path);
+        if (split > 0) {
+            SceneMatch base = exact.get(path.substring(0, split));
+            if (base != null) {
+                int digits = path.startsWith("_part", split) ? split + 5 : split + 1;
+                int sceneIndex = 0;
+                try {
+                    sceneIndex = Integer.parseInt(path, digits, path.length(), 10) - 1; // 1-based to 0-based
+                } catch (NumberFormatException ignored) {}
+                return new SceneMatch(base.scene(), Math.max(0, sceneIndex));
             }
         }
 
-        // Second: try stripping scene suffix (_partN or _N)
-        Matcher matcher = SCENE_SUFFIX.matcher(path);
-        if (matcher.matches()) {
-            String basePath = matcher.group(1);
-            String partNum = matcher.group(2) != null ? matcher.group(2) : matcher.group(3);
-            int sceneIndex = 0;
-            try {
-                sceneIndex = Integer.parseInt(partNum) - 1; // 1-based to 0-based
-            } catch (NumberFormatException ignored) {}
-
-            ResourceLocation baseId = ResourceLocation.fromNamespaceAndPath(ponderSceneId.getNamespace(), basePath);
-            for (DslScene scene : scenes) {
+        // Third: try prefix match (DslScene.id path is a prefix of ponderSceneId path)
+        // Also check named scene IDs (e.g. scene id "example" + scene id "structure" -> "example_structure")
+        PrefixNode root = index.prefixes.get(namespace);
+        if (root == null) return null;
+        int bestOrder = Integer.MAX_VALUE;
+        int bestLength = -1;
+        PrefixNode node = root;
+        for (int i = 0; i < path.length() && node != null; i++) {
+            char c = path.charAt(i);
+            if (c == '_' && node.scene != null && node.order < bestOrder) {
+                bestOrder = node.order;
+                bestLength = i;
+            }
+            node = node.children.get(c);
+        }
+        if (bestLength < 0) return null;
+
+        DslScene scene = index.scenes.get(bestOrder);
+        String suffix = path.substring(bestLength + 1); // strip leading "_"
+
+        // Try numeric index first (e.g. "_1", "_2")
+        try {
+            int idx = Integer.parseInt(suffix) - 1;
+            return new SceneMatch(scene, Math.max(0, idx));
+        } catch (NumberFormatException ignored) {}
+
+        // Try matching against named scene IDs (e.g. "_structure", "_entity_text")
+        if (scene.scenes != null) {
+            for (int i = 0; i < scene.scenes.size(); i++) {
+                DslScene.SceneSegment sc = scene.scenes.get(i);
+                if (sc.id != null && suffix.equals(sc.id)) {
+                    return new SceneMatch(scene, i);
+                }
+            }
+            // Also try suffix matching for scene ids containing underscores
+            // e.g. path "example_entity_text" -> suffix "entity_text" matches scene id "entity_text"
+            for (int i = 0; i < scene.scenes.size(); i++) {
+                DslScene.SceneSegment sc = scene.scenes.get(i);
+                if (sc.id != null && suffix.endsWith(sc.id)) {
+                    return new SceneMatch(scene, i);
+                }
+            }
+        }
+
+        // Fallback: scene 0
+        return new SceneMatch(scene, 0);
+    }
+
+    /**
+     * Returns the index of the '_' that starts a trailing "_partN" or "_N" suffix,
+     * or -1 if the path has no such suffix (or it would leave an empty base).
+     */
+    private static int suffixStart(String path) {
+        int end = path.length();
+        int i = end;
+        while (i > 0 && path.charAt(i - 1) >= '0' && path.charAt(i - 1) <= '9') {
+            i--;
+        }
+        if (i == end) return -1;
+        if (i >= 1 && path.charAt(i - 1) == '_') {
+            return i - 1 > 0 ? i - 1 : -1;
+        }
+        if (i >= 5 && path.startsWith("_part", i - 5)) {
+            return i - 5 > 0 ? i - 5 : -1;
+        }
+        return -1;
+    }
+
+    /**
+     * Immutable lookup tables for one published scene list.
+     * byId maps namespace -> path -> exact match (first scene wins, as in list order);
+     * prefixes is a per-namespace trie of scene paths for the named/numbered suffix fallback.
+     */
+    private record Snapshot(List<DslScene> scenes,
+                            Map<String, Map<String, SceneMatch>> byId,
+                            Map<String, PrefixNode> prefixes) {
+        static final Snapshot EMPTY = new Snapshot(List.of(), Map.of(), Map.of());
+
+        static Snapshot build(List<DslScene> scenes) {
+            Map<String, Map<String, SceneMatch>> byId = new HashMap<>();
+            Map<String, PrefixNode> prefixes = new HashMap<>();
+            for (int order = 0; order < scenes.size(); order++) {
+                DslScene scene = scenes.get(order);
                 if (scene.id == null) continue;
                 ResourceLocation sceneId = ResourceLocation.tryParse(scene.id);
                 if (sceneId == null) continue;
 
-                if (sceneId.equals(baseId)) {
-                    return new SceneMatch(scene, Math.max(0, sceneIndex));
-                }
-            }
-        }
+                byId.computeIfAbsent(sceneId.getNamespace(), k -> new HashMap<>())
+                    .putIfAbsent(sceneId.getPath(), new SceneMatch(scene, 0));
 
-        // Third: try prefix match (DslScene.id path is a prefix of ponderSceneId path)
-            // Also check named scene IDs (e.g. scene id "example" + scene id "structure" -> "example_structure")
-        for (DslScene scene : scenes) {
-            if (scene.id == null) continue;
-            ResourceLocation sceneId = ResourceLocation.tryParse(scene.id);
-            if (sceneId == null) continue;
-
-            if (!ponderSceneId.getNamespace().equals(sceneId.getNamespace())) continue;
-            if (!path.startsWith(sceneId.getPath())) continue;
-
-            String remainder = path.substring(sceneId.getPath().length());
-            if (remainder.isEmpty()) continue; // exact match was already handled
-            if (!remainder.startsWith("_")) continue;
-            String suffix = remainder.substring(1); // strip leading "_"
-
-            // Try numeric index first (e.g. "_1", "_2")
-            try {
-                int idx = Integer.parseInt(suffix) - 1;
-                return new SceneMatch(scene, Math.max(0, idx));
-            } catch (NumberFormatException ignored) {}
-
-            // Try matching against named scene IDs (e.g. "_structure", "_entity_text")
-            if (scene.scenes != null) {
-                for (int i = 0; i < scene.scenes.size(); i++) {
-                    DslScene.SceneSegment sc = scene.scenes.get(i);
-                    if (sc.id != null && suffix.equals(sc.id)) {
-                        return new SceneMatch(scene, i);
-                    }
+                PrefixNode node = prefixes.computeIfAbsent(sceneId.getNamespace(), k -> new PrefixNode());
+                String path = sceneId.getPath();
+                for (int i = 0; i < path.length(); i++) {
+                    node = node.children.computeIfAbsent(path.charAt(i), k -> new PrefixNode());
                 }
-                // Also try suffix matching for scene ids containing underscores
-                // e.g. path "example_entity_text" -> suffix "entity_text" matches scene id "entity_text"
-                for (int i = 0; i < scene.scenes.size(); i++) {
-                    DslScene.SceneSegment sc = scene.scenes.get(i);
-                    if (sc.id != null && suffix.endsWith(sc.id)) {
-                        return new SceneMatch(scene, i);
-                    }
+                if (node.scene == null) {
+                    node.scene = scene;
+                    node.order = order;
                 }
             }
-
-            // Fallback: scene 0
-            return new SceneMatch(scene, 0);
+            return new Snapshot(scenes, byId, prefixes);
         }
+    }
 
-        return null;
+    private static final class PrefixNode {
+        final Map<Character, PrefixNode> children = new HashMap<>(4);
+        DslScene scene;
+        int order;
     }
-}
\ No newline at end of file
+}
@@ -10,16 +10,30 @@ import net.minecraft.server.MinecraftServer;
 import net.minecraft.world.level.storage.LevelResource;
 import org.slf4j.Logger;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -27,13 +41,25 @@ public final class SceneStore {
     private static final Logger LOGGER = LogUtils.getLogger();
     private static final Gson GSON = new GsonBuilder().setLenient()
         .registerTypeAdapter(LocalizedText.class, new LocalizedText.GsonAdapter())
+        .registerTypeAdapterFactory(new DslSceneCodec())
         .create();
     private static final Gson GSON_PRETTY = new GsonBuilder().setPrettyPrinting()
         .registerTypeAdapter(LocalizedText.class, new LocalizedText.GsonAdapter())
+        .registerTypeAdapterFactory(new DslSceneCodec())
         .create();
     private static final String BASE_DIR = "ponderer";
     private static final String SCRIPT_DIR = "scripts";
     private static final String STRUCTURE_DIR = "structures";
+    private static final int LOAD_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+    private static final ExecutorService LOAD_POOL = Executors.newFixedThreadPool(LOAD_THREADS, r -> {
+        Thread t = new Thread(r, "Ponderer-SceneLoader");
+        t.setDaemon(true);
+        return t;
+    });
+    /** Per-file state from the last reload, keyed by script path in load order. Guarded by the class lock. */
+    private static final Map<Path, ManifestEntry> MANIFEST = new TreeMap<>(Comparator.comparing(Path::toString));
+    /** Scene id -> file containing it, rebuilt on every publish and kept current by save/delete. Guarded by the class lock. */
+    private static final Map<String, IndexedFile> SCENE_FILES = new HashMap<>();
 
     private SceneStore() {
     }
@@ -76,7 +102,8 @@ public final class SceneStore {
 
         try {
             Files.createDirectories(scenePath.getParent());
-            Files.writeString(scenePath, json);
+            writeReplacing(scenePath, json.getBytes(StandardCharsets.UTF_8));
+            ServerHashCache.update(server, scenePath, json.getBytes(StandardCharsets.UTF_8));
         } catch (IOException e) {
             LOGGER.error("Failed to write scene json: {}", scenePath, e);
             return false;
@@ -102,7 +129,8 @@ public final class SceneStore {
             : structureDir.resolve(structureLoc.getNamespace()).resolve(structureLoc.getPath() + ".nbt");
         try {
             Files.createDirectories(structurePath.getParent());
-            Files.write(structurePath, structureBytes);
+            writeReplacing(structurePath, structureBytes);
+            ServerHashCache.update(server, structurePath, structureBytes);
             return true;
         } catch (IOException e) {
             LOGGER.error("Failed to write structure: {}", structurePath, e);
@@ -110,42 +138,183 @@ public final class SceneStore {
         }
     }
 
-    public static List<com.nododiiiii.ponderer.network.SyncResponsePayload.FileEntry> collectServerScripts(MinecraftServer server) {
-        Path root = getServerSceneDir(server);
-        if (!Files.exists(root)) {
-            return List.of();
+    /**
+     * Write several scenes and structures as one unit. Every file is staged next to its
+     * target first; targets are only replaced once all staging writes succeeded. Replaced files
+     * are kept as backups until every move succeeded, and restored if one fails.
+     *
+     * @param scenes     scene id -> json
+     * @param structures structure id -> .nbt bytes
+     * @return false if any id was invalid or any write failed; nothing is replaced in that case
+     */
+    public static boolean saveBatchToServer(MinecraftServer server, Map<String, String> scenes,
+                                            Map<String, byte[]> structures) {
+        Map<Path, byte[]> targets = new LinkedHashMap<>();
+        for (var e : scenes.entrySet()) {
+            ResourceLocation loc = ResourceLocation.tryParse(e.getKey());
+            if (loc == null) {
+                LOGGER.warn("Invalid scene id: {}", e.getKey());
+                return false;
+            }
+            targets.put(resolveServerPath(getServerSceneDir(server), loc, ".json"),
+                e.getValue().getBytes(StandardCharsets.UTF_8));
         }
-        List<com.nododiiiii.ponderer.network.SyncResponsePayload.FileEntry> entries = new ArrayList<>();
-        try (var paths = Files.walk(root)) {
-            for (Path path : paths.filter(p -> p.toString().toLowerCase(Locale.ROOT).endsWith(".json")).toList()) {
-                String id = toId(root, path, ".json");
-                if (id == null) continue;
-                entries.add(new com.nododiiiii.ponderer.network.SyncResponsePayload.FileEntry(id, Files.readAllBytes(path)));
+        for (var e : structures.entrySet()) {
+            ResourceLocation loc = ResourceLocation.tryParse(e.getKey());
+            if (loc == null) {
+                LOGGER.warn("Invalid structure id: {}", e.getKey());
+                return false;
             }
-        } catch (Exception e) {
-            LOGGER.warn("Failed to collect server scripts", e);
+            targets.put(resolveServerPath(getServerStructureDir(server), loc, ".nbt"), e.getValue());
         }
-        return entries;
+
+        Map<Path, Path> staged = new LinkedHashMap<>();
+        try {
+            for (var e : targets.entrySet()) {
+                Path target = e.getKey();
+                Files.createDirectories(target.getParent());
+                Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+                staged.put(temp, target);
+                Files.write(temp, e.getValue());
+            }
+        } catch (IOException e) {
+            LOGGER.error("Failed to stage batch upload, nothing was written", e);
+            deleteQuietly(staged.keySet());
+            return false;
+        }
+
+        // target -> backup of the file it replaced, or null if the target didn't exist
+        Map<Path, Path> committed = new LinkedHashMap<>();
+        try {
+            for (var e : staged.entrySet()) {
+                Path target = e.getValue();
+                Path backup = null;
+                if (Files.exists(target)) {
+                    backup = target.resolveSibling(target.getFileName() + ".bak");
+                    moveReplacing(target, backup);
+                }
+                committed.put(target, backup);
+                moveReplacing(e.getKey(), target);
+            }
+        } catch (IOException e) {
+            LOGGER.error("Failed to commit batch upload, restoring the previous files", e);
+            List<Path> undo = new ArrayList<>(committed.keySet());
+            for (int i = undo.size() - 1; i >= 0; i--) {
+                Path target = undo.get(i);
+                Path backup = committed.get(target);
+                try {
+                    if (backup != null) {
+                        moveReplacing(backup, target);
+                    } else {
+                        Files.deleteIfExists(target);
+                    }
+                } catch (IOException ex) {
+                    LOGGER.error("Failed to restore {} after a failed batch upload", target, ex);
+                }
+            }
+            deleteQuietly(staged.keySet());
+            return false;
+        }
+
+        for (var e : committed.entrySet()) {
+            ServerHashCache.update(server, e.getKey(), targets.get(e.getKey()));
+        }
+        deleteQuietly(committed.values());
+        LOGGER.info("Uploaded {} scene(s) and {} structure(s) to server storage", scenes.size(), structures.size());
+        return true;
+    }
+
+    private static void deleteQuietly(Collection<Path> paths) {
+        for (Path path : paths) {
+            if (path == null) continue;
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static Path resolveServerPath(Path root, ResourceLocation loc, String ext) {
+        return loc.getNamespace().equals(Ponderer.MODID)
+            ? root.resolve(loc.getPath() + ext)
+            : root.resolve(loc.getNamespace()).resolve(loc.getPath() + ext);
+    }
+
+    /**
+     * Write through a sibling temp file and move it into place, so concurrent readers (pull, hash cache)
+     * see either the old or the new content, never a partial file.
+     */
+    private static void writeReplacing(Path target, byte[] bytes) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.write(temp, bytes);
+        moveReplacing(temp, target);
+    }
+
+    private static void moveReplacing(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public static List<com.nododiiiii.ponderer.network.SyncResponsePayload.FileEntry> collectServerScripts(MinecraftServer server) {
+        return readServerFiles(listServerScripts(server));
     }
 
     public static List<com.nododiiiii.ponderer.network.SyncResponsePayload.FileEntry> collectServerStructures(MinecraftServer server) {
-        Path root = getServerStructureDir(server);
+        return readServerFiles(listServerStructures(server));
+    }
+
+    /**
+     * List server scripts with their sizes without reading their contents.
+     */
+    public static List<ServerFile> listServerScripts(MinecraftServer server) {
+        return listServerFiles(getServerSceneDir(server), ".json");
+    }
+
+    /**
+     * List server structures with their sizes without reading their contents.
+     */
+    public static List<ServerFile> listServerStructures(MinecraftServer server) {
+        return listServerFiles(getServerStructureDir(server), ".nbt");
+    }
+
+    private static List<ServerFile> listServerFiles(Path root, String ext) {
         if (!Files.exists(root)) {
             return List.of();
         }
-        List<com.nododiiiii.ponderer.network.SyncResponsePayload.FileEntry> entries = new ArrayList<>();
+        List<ServerFile> files = new ArrayList<>();
         try (var paths = Files.walk(root)) {
-            for (Path path : paths.filter(p -> p.toString().toLowerCase(Locale.ROOT).endsWith(".nbt")).toList()) {
-                String id = toId(root, path, ".nbt");
+            for (Path path : paths.filter(p -> p.toString().toLowerCase(Locale.ROOT).endsWith(ext)).toList()) {
+                String id = toId(root, path, ext);
                 if (id == null) continue;
-                entries.add(new com.nododiiiii.ponderer.network.SyncResponsePayload.FileEntry(id, Files.readAllBytes(path)));
+                files.add(new ServerFile(id, path, Files.size(path)));
             }
         } catch (Exception e) {
-            LOGGER.warn("Failed to collect server structures", e);
+            LOGGER.warn("Failed to list server files in {}", root, e);
+        }
+        return files;
+    }
+
+    public static List<com.nododiiiii.ponderer.network.SyncResponsePayload.FileEntry> readServerFiles(List<ServerFile> files) {
+        List<com.nododiiiii.ponderer.network.SyncResponsePayload.FileEntry> entries = new ArrayList<>(files.size());
+        for (ServerFile file : files) {
+            try {
+                entries.add(new com.nododiiiii.ponderer.network.SyncResponsePayload.FileEntry(file.id(), Files.readAllBytes(file.path())));
+            } catch (IOException e) {
+                LOGGER.warn("Failed to read server file: {}", file.path(), e);
+            }
         }
         return entries;
     }
 
+    /**
+     * A script or structure in server storage, identified the same way as in sync payloads.
+     */
+    public record ServerFile(String id, Path path, long size) {
+    }
+
     private static String toId(Path root, Path file, String ext) {
         Path rel = root.relativize(file);
         if (rel.getNameCount() < 1) {
@@ -176,15 +345,25 @@ public final class SceneStore {
      * @return true if saved successfully
      */
     public static boolean saveSceneToLocal(DslScene scene) {
+        return saveSceneToLocalHashed(scene) != null;
+    }
+
+    /**
+     * Save a DslScene like {@link #saveSceneToLocal}.
+     *
+     * @return SHA-256 of the bytes written, or null if the scene was not saved
+     */
+    @Nullable
+    public static String saveSceneToLocalHashed(DslScene scene) {
         if (scene == null || scene.id == null || scene.id.isBlank()) {
             LOGGER.warn("Cannot save scene with null/blank id");
-            return false;
+            return null;
         }
 
         ResourceLocation loc = ResourceLocation.tryParse(scene.id);
         if (loc == null) {
             LOGGER.warn("Cannot save scene with invalid id: {}", scene.id);
-            return false;
+            return null;
         }
 
         Path dir = getSceneDir();
@@ -193,36 +372,107 @@ public final class SceneStore {
         Path filePath = dir.resolve(filename);
 
         // Also check if there's an existing file that contains this scene id
-        Path existingFile = findExistingFile(dir, scene.id);
+        Path existingFile = locateSceneFile(dir, scene.id);
         if (existingFile != null) {
             filePath = existingFile;
         }
 
         try {
             Files.createDirectories(filePath.getParent());
-            String json = GSON_PRETTY.toJson(scene);
-            Files.writeString(filePath, json);
+            byte[] json = toLocalJson(scene);
+            SceneFileWatcher.markOwnWrite(filePath);
+            Files.write(filePath, json);
+            indexSceneFile(scene.id, filePath);
             LOGGER.info("Saved scene {} to {}", scene.id, filePath);
-            return true;
+            return SyncMeta.sha256(json);
         } catch (IOException e) {
             LOGGER.error("Failed to save scene {} to {}", scene.id, filePath, e);
-            return false;
+            return null;
+        }
+    }
+
+    /** The bytes {@link #saveSceneToLocal} writes for {@code scene}. */
+    public static byte[] toLocalJson(DslScene scene) {
+        return GSON_PRETTY.toJson(scene).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * SHA-256 of the local file currently holding {@code sceneId}, or null if there is none or it can't be read.
+     */
+    @Nullable
+    public static String hashLocalScene(String sceneId) {
+        Path path = locateSceneFile(getSceneDir(), sceneId);
+        if (path == null) return null;
+        try {
+            return SyncMeta.sha256(path);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Find the JSON file containing the given scene id via the id index.
+     * An indexed file is trusted while its mtime is unchanged; otherwise only that file is re-read.
+     * On a miss the directory is listed and every file not indexed at its current mtime is read, so an id
+     * edited in place by hand is still found.
+     */
+    private static synchronized Path locateSceneFile(Path dir, String sceneId) {
+        IndexedFile indexed = SCENE_FILES.get(sceneId);
+        if (indexed != null) {
+            long mtime = fileMtime(indexed.path());
+            if (mtime != Long.MIN_VALUE && mtime == indexed.mtime()) {
+                return indexed.path();
+            }
+            SCENE_FILES.remove(sceneId);
+            if (mtime != Long.MIN_VALUE && sceneId.equals(readSceneId(indexed.path()))) {
+                SCENE_FILES.put(sceneId, new IndexedFile(indexed.path(), mtime));
+                return indexed.path();
+            }
+        }
+
+        Path found = findExistingFile(dir, sceneId, Set.copyOf(SCENE_FILES.values()));
+        if (found != null) {
+            SCENE_FILES.put(sceneId, new IndexedFile(found, fileMtime(found)));
+        }
+        return found;
+    }
+
+    private static synchronized void indexSceneFile(String sceneId, Path path) {
+        SCENE_FILES.put(sceneId, new IndexedFile(path, fileMtime(path)));
+    }
+
+    private static synchronized void unindexSceneFile(String sceneId) {
+        SCENE_FILES.remove(sceneId);
+    }
+
+    private static String readSceneId(Path path) {
+        try (Reader reader = Files.newBufferedReader(path)) {
+            DslScene existing = GSON.fromJson(reader, DslScene.class);
+            return existing == null ? null : existing.id;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static long fileMtime(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return Long.MIN_VALUE;
         }
     }
 
     /**
      * Find the existing JSON file that contains a scene with the given id.
+     * Files in {@code known} are indexed under another id at their current mtime and are skipped.
      */
-    private static Path findExistingFile(Path dir, String sceneId) {
+    private static Path findExistingFile(Path dir, String sceneId, Set<IndexedFile> known) {
         if (!Files.exists(dir)) return null;
         try (Stream<Path> paths = Files.list(dir)) {
             for (Path path : paths.filter(p -> p.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json")).toList()) {
-                try (Reader reader = Files.newBufferedReader(path)) {
-                    DslScene existing = GSON.fromJson(reader, DslScene.class);
-                    if (existing != null && sceneId.equals(existing.id)) {
-                        return path;
-                    }
-                } catch (Exception ignored) {
+                if (known.contains(new IndexedFile(path, fileMtime(path)))) continue;
+                if (sceneId.equals(readSceneId(path))) {
+                    return path;
                 }
             }
         } catch (IOException ignored) {
@@ -239,13 +489,15 @@ public final class SceneStore {
     public static boolean deleteSceneLocal(String sceneId) {
         if (sceneId == null || sceneId.isBlank()) return false;
         Path dir = getSceneDir();
-        Path existing = findExistingFile(dir, sceneId);
+        Path existing = locateSceneFile(dir, sceneId);
         if (existing == null) {
             LOGGER.warn("No local file found for scene id: {}", sceneId);
             return false;
         }
         try {
+            SceneFileWatcher.markOwnWrite(existing);
             Files.deleteIfExists(existing);
+            unindexSceneFile(sceneId);
             LOGGER.info("Deleted scene file: {}", existing);
             return true;
         } catch (IOException e) {
@@ -297,39 +549,185 @@ public final class SceneStore {
         }
     }
 
-    public static int reloadFromDisk() {
+    /**
+     * Reload all scene scripts, re-parsing only files whose (mtime, size, content hash)
+     * changed since the previous reload. Changed files are parsed in parallel on a small
+     * worker pool; deleted files are dropped. The merged list is published in one step.
+     *
+     * Scenes of unchanged files are published as the same objects again. The scene editor edits
+     * published scenes in place and writes them back to their file, which then counts as changed.
+     */
+    public static synchronized int reloadFromDisk() {
         Path dir = getSceneDir();
-        List<DslScene> loaded = new ArrayList<>();
 
         try {
             Files.createDirectories(dir);
         } catch (IOException e) {
             LOGGER.error("Failed to create ponderer scene directory: {}", dir, e);
+            MANIFEST.clear();
             SceneRuntime.setScenes(List.of());
             return 0;
         }
 
+        List<Path> files;
         try (Stream<Path> paths = Files.list(dir)) {
-            paths.filter(path -> path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json"))
+            files = paths.filter(path -> path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json"))
                 .sorted(Comparator.comparing(Path::toString))
-                .forEach(path -> {
-                    try (Reader reader = Files.newBufferedReader(path)) {
-                        DslScene scene = GSON.fromJson(reader, DslScene.class);
-                        if (scene == null || scene.id == null || scene.id.isBlank()) {
-                            LOGGER.warn("Skipping invalid scene file (missing id): {}", path);
-                            return;
-                        }
-                        loaded.add(scene);
-                    } catch (Exception e) {
-                        LOGGER.warn("Failed to read scene file: {}", path, e);
-                    }
-                });
+                .toList();
         } catch (IOException e) {
             LOGGER.error("Failed to list scene directory: {}", dir, e);
+            files = List.of();
         }
 
+        Map<Path, ManifestEntry> next = new LinkedHashMap<>();
+        Map<Path, Future<ManifestEntry>> pending = new LinkedHashMap<>();
+        for (Path path : files) {
+            BasicFileAttributes attrs;
+            try {
+                attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            } catch (IOException e) {
+                LOGGER.warn("Failed to stat scene file: {}", path, e);
+                continue;
+            }
+            long mtime = attrs.lastModifiedTime().toMillis();
+            long size = attrs.size();
+            ManifestEntry previous = MANIFEST.get(path);
+            if (previous != null && previous.mtime() == mtime && previous.size() == size) {
+                next.put(path, previous);
+                continue;
+            }
+            pending.put(path, LOAD_POOL.submit(() -> loadEntry(path, mtime, size, previous)));
+        }
+
+        int parsed = 0;
+        for (var e : pending.entrySet()) {
+            try {
+                ManifestEntry entry = e.getValue().get();
+                if (entry != null) {
+                    next.put(e.getKey(), entry);
+                    parsed++;
+                }
+            } catch (InterruptedException ex) {
+                // Publishing what was read so far would drop scenes; keep the previous list
+                Thread.currentThread().interrupt();
+                pending.values().forEach(f -> f.cancel(true));
+                LOGGER.warn("Interrupted while reloading ponderer scenes; keeping the previous scene list");
+                return SceneRuntime.getScenes().size();
+            } catch (ExecutionException ex) {
+                LOGGER.warn("Failed to read scene file: {}", e.getKey(), ex.getCause());
+            }
+        }
+
+        MANIFEST.clear();
+        MANIFEST.putAll(next);
+        int count = publishManifest();
+        LOGGER.info("Loaded {} ponderer scene(s) from {} ({} file(s) re-read)", count, dir, parsed);
+        return count;
+    }
+
+    /**
+     * Re-read only the given script files (e.g. reported by a file watcher) and republish.
+     * Paths that no longer exist are dropped; everything else keeps its manifest entry.
+     *
+     * @return number of scenes published
+     */
+    public static synchronized int reloadFiles(Collection<Path> touched) {
+        Path dir = getSceneDir();
+        Map<Path, Future<ManifestEntry>> pending = new LinkedHashMap<>();
+        for (Path path : touched) {
+            if (!dir.equals(path.getParent())
+                || !path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json")) {
+                continue;
+            }
+            if (!Files.isRegularFile(path)) {
+                MANIFEST.remove(path);
+                continue;
+            }
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+                ManifestEntry previous = MANIFEST.get(path);
+                long mtime = attrs.lastModifiedTime().toMillis();
+                long size = attrs.size();
+                if (previous != null && previous.mtime() == mtime && previous.size() == size) {
+                    continue;
+                }
+                pending.putIfAbsent(path, LOAD_POOL.submit(() -> loadEntry(path, mtime, size, previous)));
+            } catch (IOException e) {
+                LOGGER.warn("Failed to read scene file: {}", path, e);
+                MANIFEST.remove(path);
+            }
+        }
+
+        int parsed = 0;
+        for (var e : pending.entrySet()) {
+            try {
+                MANIFEST.put(e.getKey(), e.getValue().get());
+                parsed++;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                pending.values().forEach(f -> f.cancel(true));
+                LOGGER.warn("Interrupted while reloading ponderer scenes; keeping the previous scene list");
+                return SceneRuntime.getScenes().size();
+            } catch (ExecutionException ex) {
+                LOGGER.warn("Failed to read scene file: {}", e.getKey(), ex.getCause());
+                MANIFEST.remove(e.getKey());
+            }
+        }
+        int count = publishManifest();
+        LOGGER.info("Reloaded {} changed ponderer scene file(s), {} scene(s) loaded", parsed, count);
+        return count;
+    }
+
+    private static int publishManifest() {
+        List<DslScene> loaded = new ArrayList<>();
+        SCENE_FILES.clear();
+        for (var e : MANIFEST.entrySet()) {
+            ManifestEntry entry = e.getValue();
+            if (entry.scene() != null) {
+                loaded.add(entry.scene());
+                SCENE_FILES.putIfAbsent(entry.scene().id, new IndexedFile(e.getKey(), entry.mtime()));
+            }
+        }
         SceneRuntime.setScenes(loaded);
-        LOGGER.info("Loaded {} ponderer scene(s) from {}", loaded.size(), dir);
         return loaded.size();
     }
-}
\ No newline at end of file
+
+    /**
+     * Forget the reload manifest so the next {@link #reloadFromDisk()} re-parses every file.
+     */
+    public static synchronized void invalidateManifest() {
+        MANIFEST.clear();
+    }
+
+    /**
+     * Read one scene file, on the {@link #LOAD_POOL}. If its content hash matches the previous manifest entry
+     * the already-bound scene is reused, otherwise the file is bound again.
+     * Invalid files are recorded with a null scene so they are not re-read until they change.
+     */
+    private static ManifestEntry loadEntry(Path path, long mtime, long size, ManifestEntry previous) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        String hash = SyncMeta.sha256(bytes);
+        if (previous != null && previous.hash().equals(hash)) {
+            return new ManifestEntry(mtime, size, hash, previous.scene());
+        }
+        DslScene scene;
+        try {
+            scene = GSON.fromJson(new String(bytes, StandardCharsets.UTF_8), DslScene.class);
+        } catch (Exception e) {
+            LOGGER.warn("Failed to read scene file: {}", path, e);
+            return new ManifestEntry(mtime, size, hash, null);
+        }
+        if (scene == null || scene.id == null || scene.id.isBlank()) {
+            LOGGER.warn("Skipping invalid scene file (missing id): {}", path);
+            scene = null;
+        }
+        return new ManifestEntry(mtime, size, hash, scene);
+    }
+
+    /** {@code scene} is the published scene bound from the file; null if the file is not a valid scene. */
+    private record ManifestEntry(long mtime, long size, String hash, @Nullable DslScene scene) {
+    }
+
+    private record IndexedFile(Path path, long mtime) {
+    }
+}
@@ -0,0 +1,159 @@
+package com.nododiiiii.ponderer.ponder;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.mojang.logging.LogUtils;
+import net.minecraft.server.MinecraftServer;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SHA-256 cache for server-side scripts and structures, so sync and upload handlers
+ * only hash files whose mtime or size changed.
+ *
+ * Storage: <world>/ponderer/.hash_cache.json
+ * Format:  { "scripts/example.json": { "mtime": 1700000000000, "size": 1234, "hash": "abcdef..." } }
+ */
+public final class ServerHashCache {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final String CACHE_FILE = ".hash_cache.json";
+
+    private static Path loadedRoot;
+    private static Map<String, Entry> entries = new HashMap<>();
+    private static boolean dirty;
+
+    private ServerHashCache() {
+    }
+
+    /**
+     * Hash of a file under the world's ponderer directory, or "" if it cannot be read.
+     * Only reads the file when the cached mtime/size no longer match.
+     */
+    public static String hash(MinecraftServer server, Path file) {
+        Path root = getRoot(server);
+        String key = toKey(root, file);
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            remove(root, key);
+            return "";
+        }
+        long mtime = attrs.lastModifiedTime().toMillis();
+        long size = attrs.size();
+
+        synchronized (ServerHashCache.class) {
+            ensureLoaded(root);
+            Entry cached = entries.get(key);
+            if (cached != null && cached.mtime == mtime && cached.size == size) {
+                return cached.hash;
+            }
+        }
+
+        String hash;
+        try {
+            hash = SyncMeta.sha256(file);
+        } catch (IOException e) {
+            return "";
+        }
+        put(root, key, mtime, size, hash);
+        return hash;
+    }
+
+    /**
+     * Record the hash of content just written to {@code file}, avoiding a re-read.
+     */
+    public static void update(MinecraftServer server, Path file, byte[] content) {
+        Path root = getRoot(server);
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            put(root, toKey(root, file), attrs.lastModifiedTime().toMillis(), attrs.size(), SyncMeta.sha256(content));
+        } catch (IOException e) {
+            remove(root, toKey(root, file));
+        }
+    }
+
+    /**
+     * Write the cache to disk if anything changed since the last flush.
+     */
+    public static synchronized void flush() {
+        if (!dirty || loadedRoot == null) return;
+        Path path = loadedRoot.resolve(CACHE_FILE);
+        try {
+            Files.createDirectories(loadedRoot);
+            Path tmp = path.resolveSibling(CACHE_FILE + ".tmp");
+            try (Writer w = Files.newBufferedWriter(tmp)) {
+                GSON.toJson(entries, w);
+            }
+            try {
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+            dirty = false;
+        } catch (Exception e) {
+            LOGGER.warn("Failed to write server hash cache: {}", path, e);
+        }
+    }
+
+    private static synchronized void put(Path root, String key, long mtime, long size, String hash) {
+        ensureLoaded(root);
+        Entry entry = new Entry();
+        entry.mtime = mtime;
+        entry.size = size;
+        entry.hash = hash;
+        entries.put(key, entry);
+        dirty = true;
+    }
+
+    private static synchronized void remove(Path root, String key) {
+        ensureLoaded(root);
+        if (entries.remove(key) != null) {
+            dirty = true;
+        }
+    }
+
+    private static void ensureLoaded(Path root) {
+        if (root.equals(loadedRoot)) return;
+        flush();
+        loadedRoot = root;
+        entries = new HashMap<>();
+        dirty = false;
+        Path path = root.resolve(CACHE_FILE);
+        if (!Files.exists(path)) return;
+        try (Reader r = Files.newBufferedReader(path)) {
+            Map<String, Entry> map = GSON.fromJson(r, new TypeToken<Map<String, Entry>>() {}.getType());
+            if (map != null) {
+                entries.putAll(map);
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Failed to read server hash cache: {}", path, e);
+        }
+    }
+
+    private static Path getRoot(MinecraftServer server) {
+        return SceneStore.getServerSceneDir(server).getParent();
+    }
+
+    private static String toKey(Path root, Path file) {
+        return root.relativize(file).toString().replace("\\", "/");
+    }
+
+    private static final class Entry {
+        long mtime;
+        long size;
+        String hash;
+    }
+}
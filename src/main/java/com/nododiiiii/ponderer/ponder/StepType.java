@@ -0,0 +1,72 @@
+package com.nododiiiii.ponderer.ponder;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Every step type understood by the plugin, editor and PonderJS converter.
+ * The JSON form stays the lowercase {@link #id()} in {@link DslScene.DslStep#type};
+ * code dispatches on {@link DslScene.DslStep#stepType()} instead of comparing strings.
+ */
+public enum StepType {
+    SHOW_STRUCTURE("show_structure"),
+    IDLE("idle"),
+    TEXT("text"),
+    SHARED_TEXT("shared_text"),
+    CREATE_ENTITY("create_entity"),
+    CREATE_ITEM_ENTITY("create_item_entity"),
+    ROTATE_CAMERA_Y("rotate_camera_y"),
+    SHOW_CONTROLS("show_controls"),
+    ENCAPSULATE_BOUNDS("encapsulate_bounds"),
+    PLAY_SOUND("play_sound"),
+    SET_BLOCK("set_block"),
+    DESTROY_BLOCK("destroy_block"),
+    REPLACE_BLOCKS("replace_blocks"),
+    HIDE_SECTION("hide_section"),
+    SHOW_SECTION_AND_MERGE("show_section_and_merge"),
+    ROTATE_SECTION("rotate_section"),
+    MOVE_SECTION("move_section"),
+    TOGGLE_REDSTONE_POWER("toggle_redstone_power"),
+    MODIFY_BLOCK_ENTITY_NBT("modify_block_entity_nbt"),
+    INDICATE_REDSTONE("indicate_redstone"),
+    INDICATE_SUCCESS("indicate_success"),
+    NEXT_SCENE("next_scene"),
+    /** Missing or unrecognised type; the raw string is kept in DslStep.type. */
+    UNKNOWN("");
+
+    private static final Map<String, StepType> BY_ID = new HashMap<>();
+
+    static {
+        for (StepType type : values()) {
+            if (type != UNKNOWN) {
+                BY_ID.put(type.id, type);
+            }
+        }
+    }
+
+    private final String id;
+
+    StepType(String id) {
+        this.id = id;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    /**
+     * Look up a type by its JSON id, case-insensitively. Lowercase ids (the normal case) don't allocate.
+     */
+    public static StepType byId(@Nullable String id) {
+        if (id == null) {
+            return UNKNOWN;
+        }
+        StepType type = BY_ID.get(id);
+        if (type == null) {
+            type = BY_ID.getOrDefault(id.toLowerCase(Locale.ROOT), UNKNOWN);
+        }
+        return type;
+    }
+}
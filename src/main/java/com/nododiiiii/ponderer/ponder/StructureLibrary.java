@@ -0,0 +1,242 @@
+package com.nododiiiii.ponderer.ponder;
+
+import com.mojang.logging.LogUtils;
+import org.slf4j.Logger;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Optional packed form of a structures directory: one {@code structures.pak} file next to it,
+ * so a structure is a lookup in the in-memory index and one positional read instead of a directory probe.
+ * No file handle or mapping is held between reads, so the pack can be replaced while open (Windows refuses
+ * to replace a mapped file).
+ *
+ * Layout (big-endian):
+ *   8 bytes  magic "PNDRPAK1"
+ *   int      entry count
+ *   entries  int key length, key (UTF-8), long offset, int length
+ *   data     the .nbt files as stored on disk (each is its own gzip stream)
+ *
+ * Keys are paths relative to the structures directory without ".nbt", e.g. "example" or "create/mixer".
+ * Loose .nbt files always take precedence over packed entries, so edited structures don't need a repack.
+ */
+public final class StructureLibrary {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    public static final String FILE_NAME = "structures.pak";
+    private static final byte[] MAGIC = "PNDRPAK1".getBytes(StandardCharsets.US_ASCII);
+
+    private static final Map<Path, StructureLibrary> OPEN = new ConcurrentHashMap<>();
+
+    private final Path file;
+    private final long mtime;
+    private final long size;
+    private final Map<String, Entry> index;
+
+    private StructureLibrary(Path file, long mtime, long size, Map<String, Entry> index) {
+        this.file = file;
+        this.mtime = mtime;
+        this.size = size;
+        this.index = index;
+    }
+
+    /**
+     * The library packed from {@code structuresDir}, or null if there is none (or it is unreadable).
+     * Reopened automatically when the file changes.
+     */
+    @Nullable
+    public static StructureLibrary forDir(Path structuresDir) {
+        Path file = structuresDir.resolveSibling(FILE_NAME);
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            OPEN.remove(file);
+            return null;
+        }
+        long mtime = attrs.lastModifiedTime().toMillis();
+        long size = attrs.size();
+
+        StructureLibrary open = OPEN.get(file);
+        if (open != null && open.mtime == mtime && open.size == size) {
+            return open;
+        }
+        try {
+            StructureLibrary library = open(file, mtime, size);
+            OPEN.put(file, library);
+            return library;
+        } catch (IOException e) {
+            LOGGER.warn("Failed to open structure library: {}", file, e);
+            OPEN.remove(file);
+            return null;
+        }
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public long mtime() {
+        return mtime;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean contains(String key) {
+        return index.containsKey(key);
+    }
+
+    public Set<String> keys() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    /**
+     * A stream over the stored .nbt bytes of {@code key}.
+     */
+    @Nullable
+    public InputStream open(String key) throws IOException {
+        byte[] bytes = read(key);
+        return bytes == null ? null : new ByteArrayInputStream(bytes);
+    }
+
+    @Nullable
+    public byte[] read(String key) throws IOException {
+        Entry entry = index.get(key);
+        if (entry == null) return null;
+        ByteBuffer buffer = ByteBuffer.allocate(entry.length);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, entry.offset + buffer.position()) < 0) {
+                    throw new EOFException("Structure library truncated: " + file);
+                }
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Pack every .nbt under {@code structuresDir} into its library file, replacing any previous one.
+     *
+     * @return the number of structures packed
+     */
+    public static int pack(Path structuresDir) throws IOException {
+        Map<String, byte[]> entries = new TreeMap<>();
+        if (Files.isDirectory(structuresDir)) {
+            try (Stream<Path> paths = Files.walk(structuresDir)) {
+                for (Path p : paths.filter(Files::isRegularFile)
+                    .filter(p -> p.getFileName().toString().endsWith(".nbt")).toList()) {
+                    String rel = structuresDir.relativize(p).toString().replace("\\", "/");
+                    entries.put(rel.substring(0, rel.length() - ".nbt".length()), Files.readAllBytes(p));
+                }
+            }
+        }
+
+        Path file = structuresDir.resolveSibling(FILE_NAME);
+        Path temp = file.resolveSibling(FILE_NAME + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            write(out, entries);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        OPEN.remove(file);
+        return entries.size();
+    }
+
+    private static void write(OutputStream target, Map<String, byte[]> entries) throws IOException {
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(header);
+        out.write(MAGIC);
+        out.writeInt(entries.size());
+
+        int indexSize = 0;
+        for (String key : entries.keySet()) {
+            indexSize += 4 + key.getBytes(StandardCharsets.UTF_8).length + 8 + 4;
+        }
+        long offset = MAGIC.length + 4 + indexSize;
+        for (var e : entries.entrySet()) {
+            byte[] key = e.getKey().getBytes(StandardCharsets.UTF_8);
+            out.writeInt(key.length);
+            out.write(key);
+            out.writeLong(offset);
+            out.writeInt(e.getValue().length);
+            offset += e.getValue().length;
+        }
+        out.flush();
+
+        header.writeTo(target);
+        for (byte[] bytes : entries.values()) {
+            target.write(bytes);
+        }
+    }
+
+    private static StructureLibrary open(Path file, long mtime, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Structure library too large: " + size);
+        }
+        // Only the index is read; entry data stays on disk until requested
+        try (DataInputStream header = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            byte[] magic = new byte[MAGIC.length];
+            if (size < MAGIC.length + 4) {
+                throw new IOException("Truncated structure library");
+            }
+            header.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a structure library");
+            }
+            int count = header.readInt();
+            if (count < 0) {
+                throw new IOException("Corrupt structure library index");
+            }
+
+            Map<String, Entry> index = new HashMap<>(Math.min(count, 4096) * 2);
+            for (int i = 0; i < count; i++) {
+                int keyLength = header.readInt();
+                if (keyLength < 0 || keyLength > size) {
+                    throw new IOException("Corrupt structure library index");
+                }
+                byte[] key = new byte[keyLength];
+                header.readFully(key);
+                long offset = header.readLong();
+                int length = header.readInt();
+                if (offset < 0 || length < 0 || offset + length > size) {
+                    throw new IOException("Structure library entry out of bounds");
+                }
+                index.put(new String(key, StandardCharsets.UTF_8), new Entry((int) offset, length));
+            }
+            return new StructureLibrary(file, mtime, size, index);
+        }
+    }
+
+    private record Entry(int offset, int length) {
+    }
+}
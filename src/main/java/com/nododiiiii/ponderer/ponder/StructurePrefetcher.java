@@ -0,0 +1,101 @@
+package com.nododiiiii.ponderer.ponder;
+
+import com.nododiiiii.ponderer.Ponderer;
+import net.minecraft.client.Minecraft;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.storage.LevelResource;
+
+import javax.annotation.Nullable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads the first structure of an item's ponder into {@link StructureTemplateCache} while the item
+ * is hovered, so pressing the ponder key doesn't stall on reading a large schematic.
+ *
+ * DynamicPonderPlugin records item -> first schematic at registration; the tooltip mixin calls
+ * {@link #onHover} every time the hovered item changes.
+ */
+public final class StructurePrefetcher {
+    private static final ExecutorService WORKER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "Ponderer-StructurePrefetch");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    private static final Map<ResourceLocation, ResourceLocation> FIRST_SCHEMATIC = new ConcurrentHashMap<>();
+    private static final Set<ResourceLocation> IN_FLIGHT = ConcurrentHashMap.newKeySet();
+    private static volatile ResourceLocation lastHovered;
+
+    private StructurePrefetcher() {
+    }
+
+    /**
+     * Remember the schematic of the first scene registered for {@code item}.
+     */
+    public static void register(ResourceLocation item, ResourceLocation schematic) {
+        FIRST_SCHEMATIC.putIfAbsent(item, schematic);
+    }
+
+    public static void clear() {
+        FIRST_SCHEMATIC.clear();
+        lastHovered = null;
+    }
+
+    /**
+     * Called on the client thread for the hovered item; cheap when the item hasn't changed.
+     */
+    public static void onHover(ResourceLocation item) {
+        if (item.equals(lastHovered)) return;
+        lastHovered = item;
+
+        ResourceLocation schematic = FIRST_SCHEMATIC.get(item);
+        if (schematic == null || !IN_FLIGHT.add(schematic)) return;
+
+        WORKER.execute(() -> {
+            try {
+                if (Ponderer.MODID.equals(schematic.getNamespace())) {
+                    StructureTemplateCache.getLocal(schematic.getPath());
+                } else {
+                    Path path = resolveLocalPath(schematic);
+                    if (path != null) {
+                        StructureTemplateCache.get(path);
+                    }
+                }
+            } finally {
+                IN_FLIGHT.remove(schematic);
+            }
+        });
+    }
+
+    /**
+     * The local .nbt file a schematic id is loaded from by the PonderSceneRegistry mixin:
+     * config/ponderer/structures for ponderer:, otherwise the singleplayer world's generated structures.
+     *
+     * @return null if there is no such file (the schematic comes from a resource pack or doesn't exist)
+     */
+    @Nullable
+    public static Path resolveLocalPath(ResourceLocation location) {
+        if (Ponderer.MODID.equals(location.getNamespace())) {
+            return SceneStore.getStructurePath(location.getPath());
+        }
+
+        // saves/<world>/generated/<namespace>/structures/<path>.nbt
+        var server = Minecraft.getInstance().getSingleplayerServer();
+        if (server == null) {
+            return null;
+        }
+        Path generatedPath = server.getWorldPath(LevelResource.ROOT)
+            .resolve("generated")
+            .resolve(location.getNamespace())
+            .resolve("structures")
+            .resolve(location.getPath() + ".nbt");
+        return Files.exists(generatedPath) ? generatedPath : null;
+    }
+}
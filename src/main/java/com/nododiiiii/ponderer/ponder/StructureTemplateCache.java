@@ -0,0 +1,157 @@
+package com.nododiiiii.ponderer.ponder;
+
+import com.mojang.logging.LogUtils;
+import net.createmod.ponder.foundation.registration.PonderSceneRegistry;
+import net.minecraft.core.Vec3i;
+import net.minecraft.world.level.levelgen.structure.templatesystem.StructureTemplate;
+import org.slf4j.Logger;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parsed StructureTemplates for local .nbt schematics, so opening a scene (or the next segment
+ * of a multi-segment scene using the same structure) doesn't re-read and re-decompress the file.
+ *
+ * Entries are keyed by path and validated against the file's mtime and size on every lookup
+ * (for {@link StructureLibrary} entries, against the pack file's).
+ * The cache is bounded by total weight (the templates' block volume), evicting least recently used first.
+ * Cleared on every PonderIndex reload; single paths are invalidated when sync writes them.
+ */
+public final class StructureTemplateCache {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    /** Total block volume kept, roughly 64 structures of 32x16x32. */
+    private static final long MAX_WEIGHT = 64L * 32 * 16 * 32;
+
+    /** Guarded by the class lock. */
+    private static final LinkedHashMap<Path, Entry> ENTRIES = new LinkedHashMap<>(16, 0.75f, true);
+    private static long totalWeight;
+
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+
+    private StructureTemplateCache() {
+    }
+
+    /**
+     * The template stored at {@code path}, loading it if it isn't cached or the file changed.
+     *
+     * @return null if the file cannot be read or parsed
+     */
+    @Nullable
+    public static StructureTemplate get(Path path) {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            invalidate(path);
+            return null;
+        }
+        return load(path, attrs.lastModifiedTime().toMillis(), attrs.size(), () -> Files.newInputStream(path));
+    }
+
+    /**
+     * A ponderer: structure by path: the loose file in config/ponderer/structures if present,
+     * otherwise the entry of the packed {@link StructureLibrary}.
+     *
+     * @return null if neither exists or it cannot be parsed
+     */
+    @Nullable
+    public static StructureTemplate getLocal(String structurePath) {
+        Path path = SceneStore.getStructurePath(structurePath);
+        if (Files.exists(path)) {
+            return get(path);
+        }
+        StructureLibrary library = StructureLibrary.forDir(SceneStore.getStructureDir());
+        if (library == null || !library.contains(structurePath)) {
+            return null;
+        }
+        // Entries are validated against the pack file itself; a repack changes its mtime/size
+        Path key = library.file().resolve(structurePath);
+        return load(key, library.mtime(), library.size(), () -> library.open(structurePath));
+    }
+
+    @Nullable
+    private static StructureTemplate load(Path key, long mtime, long size, StreamOpener opener) {
+        synchronized (StructureTemplateCache.class) {
+            Entry cached = ENTRIES.get(key);
+            if (cached != null && cached.mtime == mtime && cached.size == size) {
+                HITS.incrementAndGet();
+                return cached.template;
+            }
+        }
+
+        MISSES.incrementAndGet();
+        StructureTemplate template;
+        try (InputStream stream = opener.open()) {
+            template = PonderSceneRegistry.loadSchematic(stream);
+        } catch (Exception e) {
+            LOGGER.error("Failed to read schematic: {}", key, e);
+            return null;
+        }
+        put(key, new Entry(mtime, size, template, weigh(template)));
+        return template;
+    }
+
+    public static synchronized void invalidate(Path path) {
+        Entry removed = ENTRIES.remove(path);
+        if (removed != null) {
+            totalWeight -= removed.weight;
+        }
+    }
+
+    public static synchronized void clear() {
+        if (!ENTRIES.isEmpty()) {
+            LOGGER.debug("Clearing structure cache: {} entries, {} hits, {} misses",
+                ENTRIES.size(), HITS.get(), MISSES.get());
+        }
+        ENTRIES.clear();
+        totalWeight = 0;
+    }
+
+    public static long hits() {
+        return HITS.get();
+    }
+
+    public static long misses() {
+        return MISSES.get();
+    }
+
+    private static synchronized void put(Path path, Entry entry) {
+        invalidate(path);
+        ENTRIES.put(path, entry);
+        totalWeight += entry.weight;
+
+        // Evict least recently used, but always keep the entry just added
+        Iterator<Map.Entry<Path, Entry>> it = ENTRIES.entrySet().iterator();
+        while (totalWeight > MAX_WEIGHT && ENTRIES.size() > 1 && it.hasNext()) {
+            Map.Entry<Path, Entry> eldest = it.next();
+            if (eldest.getKey().equals(path)) {
+                continue;
+            }
+            totalWeight -= eldest.getValue().weight;
+            it.remove();
+        }
+    }
+
+    private static long weigh(StructureTemplate template) {
+        Vec3i size = template.getSize();
+        return Math.max(1L, (long) size.getX() * size.getY() * size.getZ());
+    }
+
+    @FunctionalInterface
+    private interface StreamOpener {
+        InputStream open() throws IOException;
+    }
+
+    private record Entry(long mtime, long size, StructureTemplate template, long weight) {
+    }
+}
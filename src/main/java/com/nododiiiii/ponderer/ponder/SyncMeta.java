@@ -4,16 +4,28 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 import com.mojang.logging.LogUtils;
+import com.nododiiiii.ponderer.Ponderer;
+import net.minecraft.resources.ResourceLocation;
 import org.slf4j.Logger;
 
+import javax.annotation.Nullable;
+import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HexFormat;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Tracks SHA-256 hashes of files at their last sync point, enabling
@@ -21,11 +33,38 @@ import java.util.Map;
  *
  * Storage: config/ponderer/.sync_hashes.json
  * Format:  { "scripts/example.json": "abcdef...", "structures/castle.nbt": "123456..." }
+ *
+ * The file is read once and kept in memory; it is re-read only if something else rewrote it while
+ * there were no unsaved changes. Updates mark the cache dirty and {@link #flush} writes it to a
+ * temp file which is then renamed over the old one, so a crash never leaves a half-written file.
+ *
+ * For scripts, the content at the sync point is also kept under config/ponderer/.sync_base/ as the
+ * base for {@link SceneMerge} when both sides changed.
  */
 public final class SyncMeta {
     private static final Logger LOGGER = LogUtils.getLogger();
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
     private static final String META_FILE = ".sync_hashes.json";
+    private static final String BASE_DIR = ".sync_base";
+    /** Below this many files a conflict check hashes them on the calling thread. */
+    private static final int PARALLEL_THRESHOLD = 8;
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    /** Reused per thread: getInstance() is a provider lookup, and hashing runs on sync worker threads. */
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+    private static final ThreadLocal<ByteBuffer> HASH_BUFFER =
+        ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(HASH_BUFFER_SIZE));
+
+    /** Guarded by the class lock. */
+    private static Map<String, String> hashes;
+    private static long loadedMtime = Long.MIN_VALUE;
+    private static boolean dirty;
 
     private SyncMeta() {
     }
@@ -34,86 +73,273 @@ public final class SyncMeta {
         return SceneStore.getSceneDir().getParent().resolve(META_FILE);
     }
 
-    public static Map<String, String> load() {
-        Path path = getMetaPath();
-        if (!Files.exists(path)) {
-            return new HashMap<>();
+    /**
+     * Last-sync hash for one key, or "" if it was never synced.
+     */
+    public static synchronized String get(String key) {
+        return cache().getOrDefault(key, "");
+    }
+
+    /**
+     * Set the last-sync hash for one key. Call {@link #flush} once the whole operation is done.
+     */
+    public static synchronized void put(String key, String hash) {
+        if (!hash.equals(cache().put(key, hash))) {
+            dirty = true;
         }
-        try (Reader r = Files.newBufferedReader(path)) {
-            Map<String, String> map = GSON.fromJson(r, new TypeToken<Map<String, String>>() {}.getType());
-            return map == null ? new HashMap<>() : new HashMap<>(map);
-        } catch (Exception e) {
-            LOGGER.warn("Failed to read sync meta: {}", path, e);
-            return new HashMap<>();
+    }
+
+    /**
+     * Update the sync meta for a single key after a successful sync.
+     */
+    public static void recordHash(String key, byte[] content) {
+        put(key, sha256(content));
+        flush();
+    }
+
+    /**
+     * Update hashes for multiple keys at once.
+     */
+    public static void recordHashes(Map<String, byte[]> entries) {
+        Map<String, String> computed = new HashMap<>();
+        for (var e : entries.entrySet()) {
+            computed.put(e.getKey(), sha256(e.getValue()));
+        }
+        synchronized (SyncMeta.class) {
+            computed.forEach(SyncMeta::put);
         }
+        flush();
     }
 
-    public static void save(Map<String, String> hashes) {
+    /**
+     * Write the cache to disk if anything changed since it was loaded or last flushed.
+     */
+    public static synchronized void flush() {
+        if (!dirty) return;
         Path path = getMetaPath();
         try {
             Files.createDirectories(path.getParent());
-            try (Writer w = Files.newBufferedWriter(path)) {
+            Path tmp = path.resolveSibling(META_FILE + ".tmp");
+            try (Writer w = Files.newBufferedWriter(tmp)) {
                 GSON.toJson(hashes, w);
             }
+            try {
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+            loadedMtime = fileMtime(path);
+            dirty = false;
         } catch (Exception e) {
             LOGGER.warn("Failed to write sync meta: {}", path, e);
         }
     }
 
+    private static Map<String, String> cache() {
+        Path path = getMetaPath();
+        if (hashes != null && (dirty || fileMtime(path) == loadedMtime)) {
+            return hashes;
+        }
+        hashes = new HashMap<>();
+        loadedMtime = fileMtime(path);
+        if (loadedMtime == Long.MIN_VALUE) {
+            return hashes;
+        }
+        try (Reader r = Files.newBufferedReader(path)) {
+            Map<String, String> map = GSON.fromJson(r, new TypeToken<Map<String, String>>() {}.getType());
+            if (map != null) {
+                hashes.putAll(map);
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Failed to read sync meta: {}", path, e);
+        }
+        return hashes;
+    }
+
+    private static long fileMtime(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    public static String sha256(byte[] data) {
+        MessageDigest md = DIGEST.get();
+        md.reset();
+        return HexFormat.of().formatHex(md.digest(data));
+    }
+
     /**
-     * Update the sync meta for a single key after a successful sync.
+     * Hash a file without loading it into the heap: it is streamed through a per-thread direct buffer.
      */
-    public static void recordHash(String key, byte[] content) {
-        Map<String, String> meta = load();
-        meta.put(key, sha256(content));
-        save(meta);
+    public static String sha256(Path file) throws IOException {
+        MessageDigest md = DIGEST.get();
+        md.reset();
+        ByteBuffer buffer = HASH_BUFFER.get();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer.clear();
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                md.update(buffer);
+                buffer.clear();
+            }
+        } catch (IOException e) {
+            md.reset();
+            throw e;
+        }
+        return HexFormat.of().formatHex(md.digest());
     }
 
     /**
-     * Update hashes for multiple keys at once.
+     * Keep {@code content} as the last-synced version of a script. Ignored for other keys.
      */
-    public static void recordHashes(Map<String, byte[]> entries) {
-        Map<String, String> meta = load();
-        for (var e : entries.entrySet()) {
-            meta.put(e.getKey(), sha256(e.getValue()));
+    public static void saveBase(String key, byte[] content) {
+        Path path = basePath(key);
+        if (path == null) return;
+        try {
+            Files.createDirectories(path.getParent());
+            Files.write(path, content);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to store sync base {}", path, e);
         }
-        save(meta);
     }
 
-    public static String sha256(byte[] data) {
+    /**
+     * Keep a copy of {@code source} as the last-synced version of a script. Ignored for other keys.
+     */
+    public static void saveBase(String key, Path source) {
+        Path path = basePath(key);
+        if (path == null) return;
         try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] hash = md.digest(data);
-            return HexFormat.of().formatHex(hash);
-        } catch (Exception e) {
-            return "";
+            Files.createDirectories(path.getParent());
+            Files.copy(source, path, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to store sync base {}", path, e);
+        }
+    }
+
+    /**
+     * The last-synced version of a script, or null if none was kept.
+     */
+    @Nullable
+    public static byte[] loadBase(String key) {
+        Path path = basePath(key);
+        if (path == null || !Files.exists(path)) return null;
+        try {
+            return Files.readAllBytes(path);
+        } catch (IOException e) {
+            return null;
         }
     }
 
+    @Nullable
+    private static Path basePath(String key) {
+        if (!key.startsWith("scripts/")) return null;
+        ResourceLocation loc = ResourceLocation.tryParse(key.substring("scripts/".length()));
+        if (loc == null) return null;
+        Path root = getMetaPath().resolveSibling(BASE_DIR);
+        Path path = root.resolve(loc.getNamespace()).resolve(loc.getPath() + ".json").normalize();
+        return path.startsWith(root) ? path : null;
+    }
+
     /**
-     * Read a local file and compute its hash.
+     * Compact form of a hex SHA-256 used in sync negotiation: its first 64 bits.
+     */
+    public static long shortHash(String hexHash) {
+        if (hexHash == null || hexHash.length() < 16) return 0L;
+        try {
+            return Long.parseUnsignedLong(hexHash.substring(0, 16), 16);
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * Last-synced hashes (as {@link #shortHash}) for every tracked file that still exists locally.
+     * Sent with a pull so the server can skip files that have not changed since.
+     */
+    public static Map<String, Long> knownHashes() {
+        Map<String, String> snapshot;
+        synchronized (SyncMeta.class) {
+            snapshot = new HashMap<>(cache());
+        }
+        Map<String, Long> known = new HashMap<>();
+        for (var e : snapshot.entrySet()) {
+            Path local = localPathForKey(e.getKey());
+            if (local != null && Files.exists(local)) {
+                known.put(e.getKey(), shortHash(e.getValue()));
+            }
+        }
+        return known;
+    }
+
+    /**
+     * Resolve a meta key ("scripts/ns:path" or "structures/ns:path") to its local file.
+     */
+    public static Path localPathForKey(String key) {
+        int slash = key.indexOf('/');
+        if (slash < 0) return null;
+        String kind = key.substring(0, slash);
+        String id = key.substring(slash + 1);
+        Path root;
+        String ext;
+        if ("scripts".equals(kind)) {
+            root = SceneStore.getSceneDir();
+            ext = ".json";
+        } else if ("structures".equals(kind)) {
+            root = SceneStore.getStructureDir();
+            ext = ".nbt";
+        } else {
+            return null;
+        }
+        ResourceLocation loc = ResourceLocation.tryParse(id);
+        if (loc == null) return null;
+        return loc.getNamespace().equals(Ponderer.MODID)
+            ? root.resolve(loc.getPath() + ext)
+            : root.resolve(loc.getNamespace()).resolve(loc.getPath() + ext);
+    }
+
+    /**
+     * Hash a local file, or "" if it doesn't exist or can't be read.
      */
     public static String hashLocalFile(Path file) {
         if (!Files.exists(file)) return "";
         try {
-            return sha256(Files.readAllBytes(file));
+            return sha256(file);
         } catch (Exception e) {
             return "";
         }
     }
 
     /**
-     * Check conflict status when pulling a file.
+     * One file of a pull, for {@link #checkConflicts}.
+     */
+    public record PulledFile(String metaKey, byte[] serverContent, Path localFile) {}
+
+    /**
+     * Check conflict status for every file of a pull, reading the sync meta once and hashing
+     * local and server content in parallel.
      *
-     * @return "none" if no conflict, "local_modified" if only local changed,
-     * "server_modified" if only server changed, "both_modified" if conflict
+     * @return status per meta key: "none" if no conflict, "local_modified" if only local changed,
+     * "both_modified" if both local and server changed since the last sync
      */
-    public static String checkConflict(String metaKey, byte[] serverContent, Path localFile) {
-        Map<String, String> meta = load();
-        String lastSyncHash = meta.getOrDefault(metaKey, "");
-        String serverHash = sha256(serverContent);
-        String localHash = hashLocalFile(localFile);
+    public static Map<String, String> checkConflicts(Collection<PulledFile> files) {
+        Map<String, String> lastSync;
+        synchronized (SyncMeta.class) {
+            Map<String, String> meta = cache();
+            lastSync = new HashMap<>(files.size() * 2);
+            for (PulledFile file : files) {
+                lastSync.put(file.metaKey(), meta.getOrDefault(file.metaKey(), ""));
+            }
+        }
+        var stream = files.size() >= PARALLEL_THRESHOLD ? files.parallelStream() : files.stream();
+        return stream.collect(Collectors.toMap(PulledFile::metaKey,
+            f -> conflictStatus(lastSync.get(f.metaKey()), sha256(f.serverContent()), hashLocalFile(f.localFile())),
+            (a, b) -> b));
+    }
 
+    private static String conflictStatus(String lastSyncHash, String serverHash, String localHash) {
         if (localHash.isEmpty()) {
             // Local file doesn't exist -> no conflict, just accept server
             return "none";
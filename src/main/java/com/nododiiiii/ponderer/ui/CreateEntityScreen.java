@@ -85,10 +85,10 @@ public class CreateEntityScreen extends AbstractStepEditorScreen {
     protected void populateFromStep(DslScene.DslStep step) {
         super.populateFromStep(step);
         if (step.entity != null) entityField.setValue(step.entity);
-        if (step.pos != null && step.pos.size() >= 3) {
-            posXField.setValue(String.valueOf(step.pos.get(0)));
-            posYField.setValue(String.valueOf(step.pos.get(1)));
-            posZField.setValue(String.valueOf(step.pos.get(2)));
+        if (step.pos() != null && step.pos().length >= 3) {
+            posXField.setValue(String.valueOf(step.pos()[0]));
+            posYField.setValue(String.valueOf(step.pos()[1]));
+            posZField.setValue(String.valueOf(step.pos()[2]));
         }
         if (step.yaw != null || step.pitch != null) {
             useYawPitch = true;
@@ -180,7 +180,7 @@ public class CreateEntityScreen extends AbstractStepEditorScreen {
         DslScene.DslStep s = new DslScene.DslStep();
         s.type = "create_entity";
         s.entity = entityId;
-        s.pos = List.of(px, py, pz);
+        s.setPos(px, py, pz);
         if (useYawPitch) {
             s.yaw = (float) parseDoubleOr(yawField.getValue(), 0);
             s.pitch = (float) parseDoubleOr(pitchField.getValue(), 0);
@@ -11,7 +11,6 @@ import net.minecraft.resources.ResourceLocation;
 
 import javax.annotation.Nullable;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 public class CreateItemEntityScreen extends AbstractStepEditorScreen {
@@ -72,15 +71,15 @@ public class CreateItemEntityScreen extends AbstractStepEditorScreen {
         super.populateFromStep(step);
         if (step.item != null) itemField.setValue(step.item);
         if (step.count != null) countField.setValue(String.valueOf(step.count));
-        if (step.pos != null && step.pos.size() >= 3) {
-            posXField.setValue(String.valueOf(step.pos.get(0)));
-            posYField.setValue(String.valueOf(step.pos.get(1)));
-            posZField.setValue(String.valueOf(step.pos.get(2)));
+        if (step.pos() != null && step.pos().length >= 3) {
+            posXField.setValue(String.valueOf(step.pos()[0]));
+            posYField.setValue(String.valueOf(step.pos()[1]));
+            posZField.setValue(String.valueOf(step.pos()[2]));
         }
-        if (step.motion != null && step.motion.size() >= 3) {
-            motionXField.setValue(String.valueOf(step.motion.get(0)));
-            motionYField.setValue(String.valueOf(step.motion.get(1)));
-            motionZField.setValue(String.valueOf(step.motion.get(2)));
+        if (step.motion() != null && step.motion().length >= 3) {
+            motionXField.setValue(String.valueOf(step.motion()[0]));
+            motionYField.setValue(String.valueOf(step.motion()[1]));
+            motionZField.setValue(String.valueOf(step.motion()[2]));
         }
     }
 
@@ -168,8 +167,8 @@ public class CreateItemEntityScreen extends AbstractStepEditorScreen {
         s.type = "create_item_entity";
         s.item = itemId;
         s.count = Math.max(1, parseIntOr(countField.getValue(), 1));
-        s.pos = List.of(px, py, pz);
-        s.motion = List.of(mx, my, mz);
+        s.setPos(px, py, pz);
+        s.setMotion(mx, my, mz);
         return s;
     }
 }
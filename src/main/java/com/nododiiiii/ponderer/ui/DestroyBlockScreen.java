@@ -9,7 +9,6 @@ import net.minecraft.network.chat.Component;
 
 import javax.annotation.Nullable;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 public class DestroyBlockScreen extends AbstractStepEditorScreen {
@@ -59,10 +58,10 @@ public class DestroyBlockScreen extends AbstractStepEditorScreen {
     @Override
     protected void populateFromStep(DslScene.DslStep step) {
         super.populateFromStep(step);
-        if (step.blockPos != null && step.blockPos.size() >= 3) {
-            posXField.setValue(String.valueOf(step.blockPos.get(0)));
-            posYField.setValue(String.valueOf(step.blockPos.get(1)));
-            posZField.setValue(String.valueOf(step.blockPos.get(2)));
+        if (step.blockPos() != null && step.blockPos().length >= 3) {
+            posXField.setValue(String.valueOf(step.blockPos()[0]));
+            posYField.setValue(String.valueOf(step.blockPos()[1]));
+            posZField.setValue(String.valueOf(step.blockPos()[2]));
         }
         if (step.destroyParticles != null) {
             destroyParticles = step.destroyParticles;
@@ -118,7 +117,7 @@ public class DestroyBlockScreen extends AbstractStepEditorScreen {
 
         DslScene.DslStep s = new DslScene.DslStep();
         s.type = "destroy_block";
-        s.blockPos = List.of(px, py, pz);
+        s.setBlockPos(px, py, pz);
         if (!destroyParticles) s.destroyParticles = false;
         return s;
     }
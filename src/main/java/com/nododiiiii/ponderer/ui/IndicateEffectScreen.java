@@ -9,7 +9,6 @@ import net.minecraft.network.chat.Component;
 
 import javax.annotation.Nullable;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 public class IndicateEffectScreen extends AbstractStepEditorScreen {
@@ -55,10 +54,10 @@ public class IndicateEffectScreen extends AbstractStepEditorScreen {
     @Override
     protected void populateFromStep(DslScene.DslStep step) {
         super.populateFromStep(step);
-        if (step.blockPos != null && step.blockPos.size() >= 3) {
-            posXField.setValue(String.valueOf(step.blockPos.get(0)));
-            posYField.setValue(String.valueOf(step.blockPos.get(1)));
-            posZField.setValue(String.valueOf(step.blockPos.get(2)));
+        if (step.blockPos() != null && step.blockPos().length >= 3) {
+            posXField.setValue(String.valueOf(step.blockPos()[0]));
+            posYField.setValue(String.valueOf(step.blockPos()[1]));
+            posZField.setValue(String.valueOf(step.blockPos()[2]));
         }
     }
 
@@ -100,7 +99,7 @@ public class IndicateEffectScreen extends AbstractStepEditorScreen {
 
         DslScene.DslStep s = new DslScene.DslStep();
         s.type = stepType;
-        s.blockPos = List.of(px, py, pz);
+        s.setBlockPos(px, py, pz);
         return s;
     }
 }
@@ -11,7 +11,6 @@ import net.minecraft.network.chat.Component;
 
 import javax.annotation.Nullable;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 public class ModifyBlockEntityNbtScreen extends AbstractStepEditorScreen {
@@ -70,15 +69,15 @@ public class ModifyBlockEntityNbtScreen extends AbstractStepEditorScreen {
     @Override
     protected void populateFromStep(DslScene.DslStep step) {
         super.populateFromStep(step);
-        if (step.blockPos != null && step.blockPos.size() >= 3) {
-            posXField.setValue(String.valueOf(step.blockPos.get(0)));
-            posYField.setValue(String.valueOf(step.blockPos.get(1)));
-            posZField.setValue(String.valueOf(step.blockPos.get(2)));
+        if (step.blockPos() != null && step.blockPos().length >= 3) {
+            posXField.setValue(String.valueOf(step.blockPos()[0]));
+            posYField.setValue(String.valueOf(step.blockPos()[1]));
+            posZField.setValue(String.valueOf(step.blockPos()[2]));
         }
-        if (step.blockPos2 != null && step.blockPos2.size() >= 3) {
-            pos2XField.setValue(String.valueOf(step.blockPos2.get(0)));
-            pos2YField.setValue(String.valueOf(step.blockPos2.get(1)));
-            pos2ZField.setValue(String.valueOf(step.blockPos2.get(2)));
+        if (step.blockPos2() != null && step.blockPos2().length >= 3) {
+            pos2XField.setValue(String.valueOf(step.blockPos2()[0]));
+            pos2YField.setValue(String.valueOf(step.blockPos2()[1]));
+            pos2ZField.setValue(String.valueOf(step.blockPos2()[2]));
         }
         if (step.nbt != null) nbtField.setValue(step.nbt);
         if (step.reDrawBlocks != null) redraw = step.reDrawBlocks;
@@ -174,8 +173,8 @@ public class ModifyBlockEntityNbtScreen extends AbstractStepEditorScreen {
 
         DslScene.DslStep s = new DslScene.DslStep();
         s.type = "modify_block_entity_nbt";
-        s.blockPos = List.of(px, py, pz);
-        if (hasPos2) s.blockPos2 = List.of(px2, py2, pz2);
+        s.setBlockPos(px, py, pz);
+        if (hasPos2) s.setBlockPos2(px2, py2, pz2);
         s.nbt = nbt;
         if (redraw) s.reDrawBlocks = true;
         return s;
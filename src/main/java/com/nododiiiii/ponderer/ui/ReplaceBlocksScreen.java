@@ -12,7 +12,6 @@ import net.minecraft.resources.ResourceLocation;
 
 import javax.annotation.Nullable;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 public class ReplaceBlocksScreen extends AbstractStepEditorScreen {
@@ -81,15 +80,15 @@ public class ReplaceBlocksScreen extends AbstractStepEditorScreen {
     protected void populateFromStep(DslScene.DslStep step) {
         super.populateFromStep(step);
         if (step.block != null) blockField.setValue(step.block);
-        if (step.blockPos != null && step.blockPos.size() >= 3) {
-            posXField.setValue(String.valueOf(step.blockPos.get(0)));
-            posYField.setValue(String.valueOf(step.blockPos.get(1)));
-            posZField.setValue(String.valueOf(step.blockPos.get(2)));
+        if (step.blockPos() != null && step.blockPos().length >= 3) {
+            posXField.setValue(String.valueOf(step.blockPos()[0]));
+            posYField.setValue(String.valueOf(step.blockPos()[1]));
+            posZField.setValue(String.valueOf(step.blockPos()[2]));
         }
-        if (step.blockPos2 != null && step.blockPos2.size() >= 3) {
-            pos2XField.setValue(String.valueOf(step.blockPos2.get(0)));
-            pos2YField.setValue(String.valueOf(step.blockPos2.get(1)));
-            pos2ZField.setValue(String.valueOf(step.blockPos2.get(2)));
+        if (step.blockPos2() != null && step.blockPos2().length >= 3) {
+            pos2XField.setValue(String.valueOf(step.blockPos2()[0]));
+            pos2YField.setValue(String.valueOf(step.blockPos2()[1]));
+            pos2ZField.setValue(String.valueOf(step.blockPos2()[2]));
         }
         if (step.spawnParticles != null) {
             spawnParticles = step.spawnParticles;
@@ -191,8 +190,8 @@ public class ReplaceBlocksScreen extends AbstractStepEditorScreen {
         s.type = "replace_blocks";
         s.block = blockId;
         s.blockProperties = collectBlockProperties();
-        s.blockPos = List.of(px, py, pz);
-        if (hasPos2) s.blockPos2 = List.of(px2, py2, pz2);
+        s.setBlockPos(px, py, pz);
+        if (hasPos2) s.setBlockPos2(px2, py2, pz2);
         if (!spawnParticles) s.spawnParticles = false;
         return s;
     }
@@ -2,7 +2,6 @@ package com.nododiiiii.ponderer.ui;
 
 import com.nododiiiii.ponderer.ponder.DslScene;
 import com.nododiiiii.ponderer.ponder.LocalizedText;
-import com.nododiiiii.ponderer.ponder.SceneStore;
 import net.createmod.catnip.config.ui.HintableTextFieldWidget;
 import net.createmod.catnip.gui.AbstractSimiScreen;
 import net.createmod.catnip.gui.element.BoxElement;
@@ -187,7 +186,7 @@ public class SceneDescEditorScreen extends AbstractSimiScreen {
             scene.scenes.get(sceneIndex).title = workingSceneTitle;
         }
 
-        SceneStore.saveSceneToLocal(scene);
+        parent.saveScene();
         returnToParent();
     }
 
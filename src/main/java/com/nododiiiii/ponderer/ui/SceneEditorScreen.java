@@ -2,8 +2,12 @@ package com.nododiiiii.ponderer.ui;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.mojang.logging.LogUtils;
 import com.nododiiiii.ponderer.ponder.DslScene;
+import com.nododiiiii.ponderer.ponder.DslSceneCodec;
 import com.nododiiiii.ponderer.ponder.LocalizedText;
+import com.nododiiiii.ponderer.ponder.StepType;
+import com.nododiiiii.ponderer.ponder.SceneJournal;
 import com.nododiiiii.ponderer.ponder.SceneStore;
 import net.createmod.catnip.gui.AbstractSimiScreen;
 import net.createmod.catnip.gui.ScreenOpener;
@@ -19,7 +23,10 @@ import net.minecraft.client.gui.screens.Screen;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceLocation;
 import org.lwjgl.glfw.GLFW;
+import org.slf4j.Logger;
 
+import javax.annotation.Nullable;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
@@ -31,8 +38,12 @@ import java.util.Locale;
  * Click the row text area to edit. Hover to see config details tooltip.
  * "+ Add Step" opens the type selector; "Split" inserts a new scene.
  * Supports undo/redo via Ctrl+Z / Ctrl+Y.
+ * Step edits are appended to the scene's {@link SceneJournal} and the scene file is only rewritten
+ * every {@link #COMPACT_EVERY} edits and whenever the editor is left; history and edits lost to a crash are
+ * recovered from the journal on reopen.
  */
 public class SceneEditorScreen extends AbstractSimiScreen {
+    private static final Logger LOGGER = LogUtils.getLogger();
 
     private static final int WINDOW_W = 280;
     private static final int WINDOW_H = 240;
@@ -41,6 +52,10 @@ public class SceneEditorScreen extends AbstractSimiScreen {
     private static final int ACTION_BTN_AREA = 84;
     /** Each small inline button width */
     private static final int SMALL_BTN = 14;
+    /** Step edits journaled before the scene file is rewritten. */
+    private static final int COMPACT_EVERY = 20;
+    /** Journal length at which a save also rewrites the journal down to the retained history. */
+    private static final int MAX_JOURNAL_LINES = 1000;
 
     private static final ResourceLocation ICON_MOVE_UP = ResourceLocation.fromNamespaceAndPath("minecraft",
             "server_list/move_up");
@@ -54,12 +69,19 @@ public class SceneEditorScreen extends AbstractSimiScreen {
 
     private static final Gson STEP_GSON = new GsonBuilder()
         .registerTypeAdapter(LocalizedText.class, new LocalizedText.GsonAdapter())
+        .registerTypeAdapterFactory(new DslSceneCodec())
         .create();
+    /** The editor currently open, possibly behind one of its child screens, so a disconnect can flush it. */
+    @Nullable
+    private static SceneEditorScreen openEditor;
 
     private final DslScene scene;
     private int sceneIndex;
     private int scrollOffset = 0;
     private final UndoManager undoManager = new UndoManager();
+    /** Step edits journaled since the scene file was last written. */
+    private int unsavedEdits;
+    private int journalLines;
 
     /** Row index currently hovered by the mouse (text area only), or -1. */
     private int hoveredRow = -1;
@@ -81,6 +103,102 @@ public class SceneEditorScreen extends AbstractSimiScreen {
         super(Component.translatable("ponderer.ui.scene_editor"));
         this.scene = scene;
         this.sceneIndex = sceneIndex;
+        openJournal();
+        openEditor = this;
+    }
+
+    /* -------- Journal -------- */
+
+    /**
+     * Rebuild undo history from the scene's journal and re-apply edits that never reached the scene file,
+     * then start journaling this session's edits.
+     *
+     * The journal's last "saved" hash is compared with both the in-memory scene and the file on disk:
+     * if it matches the scene, pending edits are re-applied to it (recovery after a crash); if it only
+     * matches the file, the scene already carries the pending edits and is written out. Otherwise the journal
+     * is stale, and any unsaved edits in it are kept aside rather than silently dropped.
+     */
+    private void openJournal() {
+        SceneJournal.Recovered recovered = SceneJournal.load(scene.id);
+        String sceneHash = SceneJournal.hash(scene);
+        String fileHash = SceneStore.hashLocalScene(scene.id);
+        int segment = sceneIndex;
+        boolean applies = false;
+        if (recovered != null && recovered.savedHash() != null) {
+            // Pending edits are applied to the scene only if it is still the content they were journaled against
+            boolean apply = recovered.savedHash().equals(sceneHash);
+            if (apply || (!recovered.pending().isEmpty() && recovered.savedHash().equals(fileHash))) {
+                try {
+                    for (SceneJournal.Entry entry : recovered.history()) {
+                        if (entry.op() == SceneJournal.Op.SEGMENT) segment = entry.index();
+                        undoManager.replay(entry, null);
+                    }
+                    for (SceneJournal.Entry entry : recovered.pending()) {
+                        if (entry.op() == SceneJournal.Op.SEGMENT) segment = entry.index();
+                        undoManager.replay(entry, apply ? getMutableSteps(segment) : null);
+                    }
+                    journalLines = recovered.lines();
+                    unsavedEdits = recovered.pending().size();
+                    applies = true;
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Scene journal for {} does not apply, starting a new one", scene.id, e);
+                    undoManager.clear();
+                    segment = sceneIndex;
+                }
+            }
+        }
+        if (!applies) {
+            if (recovered != null && !recovered.pending().isEmpty()) {
+                Path kept = SceneJournal.keepAside(scene.id);
+                LOGGER.warn("{} unsaved edit(s) to scene {} no longer apply to its file; journal kept at {}",
+                    recovered.pending().size(), scene.id, kept);
+                if (kept != null && Minecraft.getInstance().player != null) {
+                    Minecraft.getInstance().player.displayClientMessage(Component.translatable(
+                        "ponderer.ui.scene_editor.journal_kept", recovered.pending().size(), kept.toString()), false);
+                }
+            }
+            unsavedEdits = 0;
+            // Only claim "saved" for content that is actually on disk; otherwise the first save records it
+            List<SceneJournal.Entry> fresh = new ArrayList<>();
+            if (sceneHash.equals(fileHash)) {
+                fresh.add(SceneJournal.Entry.saved(fileHash));
+            }
+            fresh.add(SceneJournal.Entry.segment(sceneIndex));
+            SceneJournal.rewrite(scene.id, fresh);
+            journalLines = fresh.size();
+        }
+        undoManager.setJournal(entry -> {
+            SceneJournal.append(scene.id, entry);
+            journalLines++;
+        });
+        if (unsavedEdits > 0) {
+            LOGGER.info("Recovered {} unsaved edit(s) to scene {} from its journal", unsavedEdits, scene.id);
+            saveScene();
+        }
+        if (segment != sceneIndex) {
+            resetHistory();
+        }
+    }
+
+    /** Drop undo history, e.g. because the edited step list changed; the journal records the new segment. */
+    private void resetHistory() {
+        undoManager.clear();
+        SceneJournal.append(scene.id, SceneJournal.Entry.segment(sceneIndex));
+        journalLines++;
+    }
+
+    /** Called after each journaled step edit; rewrites the scene file once enough edits have piled up. */
+    private void onStepsEdited() {
+        if (++unsavedEdits >= COMPACT_EVERY) {
+            saveScene();
+        }
+    }
+
+    /** Write the scene file if any journaled edits haven't reached it yet. */
+    private void flushEdits() {
+        if (unsavedEdits > 0) {
+            saveScene();
+        }
     }
 
     /* -------- Clipboard helpers -------- */
@@ -195,7 +313,7 @@ public class SceneEditorScreen extends AbstractSimiScreen {
             newIndex = 0;
         sceneIndex = newIndex;
         scrollOffset = 0;
-        undoManager.clear();
+        resetHistory();
         this.init(Minecraft.getInstance(), this.width, this.height);
     }
 
@@ -515,34 +633,19 @@ public class SceneEditorScreen extends AbstractSimiScreen {
     /* -------- Undo / Redo -------- */
 
     private void performUndo() {
-        List<DslScene.DslStep> restored = undoManager.undo(getSteps());
-        if (restored != null) {
-            setMutableSteps(restored);
-            saveToFile();
+        if (undoManager.undo(getMutableSteps())) {
+            onStepsEdited();
             this.init(Minecraft.getInstance(), this.width, this.height);
         }
     }
 
     private void performRedo() {
-        List<DslScene.DslStep> restored = undoManager.redo(getSteps());
-        if (restored != null) {
-            setMutableSteps(restored);
-            saveToFile();
+        if (undoManager.redo(getMutableSteps())) {
+            onStepsEdited();
             this.init(Minecraft.getInstance(), this.width, this.height);
         }
     }
 
-    /** Replace the step list for the current scene/segment. */
-    private void setMutableSteps(List<DslScene.DslStep> newSteps) {
-        if (scene.scenes != null && !scene.scenes.isEmpty()) {
-            if (sceneIndex >= 0 && sceneIndex < scene.scenes.size()) {
-                scene.scenes.get(sceneIndex).steps = new ArrayList<>(newSteps);
-                return;
-            }
-        }
-        scene.steps = new ArrayList<>(newSteps);
-    }
-
     /* -------- Step list helpers -------- */
 
     private List<DslScene.DslStep> getSteps() {
@@ -566,9 +669,13 @@ public class SceneEditorScreen extends AbstractSimiScreen {
      * Returns a mutable steps list for the current scene. Creates/wraps as needed.
      */
     private List<DslScene.DslStep> getMutableSteps() {
+        return getMutableSteps(sceneIndex);
+    }
+
+    private List<DslScene.DslStep> getMutableSteps(int segment) {
         if (scene.scenes != null && !scene.scenes.isEmpty()) {
-            if (sceneIndex >= 0 && sceneIndex < scene.scenes.size()) {
-                DslScene.SceneSegment sc = scene.scenes.get(sceneIndex);
+            if (segment >= 0 && segment < scene.scenes.size()) {
+                DslScene.SceneSegment sc = scene.scenes.get(segment);
                 if (sc.steps == null) {
                     sc.steps = new ArrayList<>();
                 } else if (!(sc.steps instanceof ArrayList)) {
@@ -595,7 +702,7 @@ public class SceneEditorScreen extends AbstractSimiScreen {
 
         if (scene.steps != null) {
             for (DslScene.DslStep step : scene.steps) {
-                if (step != null && step.type != null && "next_scene".equalsIgnoreCase(step.type)) {
+                if (step != null && step.type != null && step.stepType() == StepType.NEXT_SCENE) {
                     if (!current.steps.isEmpty())
                         result.add(current);
                     current = new DslScene.SceneSegment();
@@ -618,44 +725,44 @@ public class SceneEditorScreen extends AbstractSimiScreen {
     private String formatStep(DslScene.DslStep step) {
         if (step == null || step.type == null)
             return UIText.of("ponderer.ui.invalid");
-        return switch (step.type.toLowerCase(Locale.ROOT)) {
-            case "show_structure" ->
+        return switch (step.stepType()) {
+            case SHOW_STRUCTURE ->
                 UIText.of("ponderer.ui.step.summary.show_structure", stepTypeName("show_structure"));
-            case "idle" -> UIText.of("ponderer.ui.step.summary.idle", stepTypeName("idle"), step.durationOrDefault(20),
+            case IDLE -> UIText.of("ponderer.ui.step.summary.idle", stepTypeName("idle"), step.durationOrDefault(20),
                     UIText.of("ponderer.ui.ticks"));
-            case "text" -> UIText.of("ponderer.ui.step.summary.text", stepTypeName("text"),
+            case TEXT -> UIText.of("ponderer.ui.step.summary.text", stepTypeName("text"),
                     truncate(step.text != null ? step.text.resolve() : "", 20));
-            case "shared_text" -> UIText.of("ponderer.ui.step.summary.shared_text", stepTypeName("shared_text"),
+            case SHARED_TEXT -> UIText.of("ponderer.ui.step.summary.shared_text", stepTypeName("shared_text"),
                     step.key != null ? step.key : "?");
-            case "create_entity" -> UIText.of("ponderer.ui.step.summary.single_arg", stepTypeName("create_entity"),
+            case CREATE_ENTITY -> UIText.of("ponderer.ui.step.summary.single_arg", stepTypeName("create_entity"),
                     step.entity != null ? step.entity : "?");
-            case "create_item_entity" -> UIText.of("ponderer.ui.step.summary.single_arg",
+            case CREATE_ITEM_ENTITY -> UIText.of("ponderer.ui.step.summary.single_arg",
                     stepTypeName("create_item_entity"), step.item != null ? step.item : "?");
-            case "rotate_camera_y" -> UIText.of("ponderer.ui.step.summary.rotate_camera",
+            case ROTATE_CAMERA_Y -> UIText.of("ponderer.ui.step.summary.rotate_camera",
                     stepTypeName("rotate_camera_y"), step.degrees != null ? step.degrees : 90);
-            case "show_controls" -> UIText.of(
+            case SHOW_CONTROLS -> UIText.of(
                     "ponderer.ui.step.summary.show_controls_action_item",
                     stepTypeName("show_controls"),
                     controlActionName(step.action),
                     step.item != null && !step.item.isBlank() ? step.item : UIText.of("ponderer.ui.none"));
-            case "encapsulate_bounds" -> stepTypeName("encapsulate_bounds");
-            case "play_sound" -> UIText.of("ponderer.ui.step.summary.single_arg", stepTypeName("play_sound"),
+            case ENCAPSULATE_BOUNDS -> stepTypeName("encapsulate_bounds");
+            case PLAY_SOUND -> UIText.of("ponderer.ui.step.summary.single_arg", stepTypeName("play_sound"),
                     step.sound != null ? step.sound : "?");
-            case "set_block" -> UIText.of("ponderer.ui.step.summary.single_arg", stepTypeName("set_block"),
+            case SET_BLOCK -> UIText.of("ponderer.ui.step.summary.single_arg", stepTypeName("set_block"),
                     step.block != null ? step.block : "?");
-                case "destroy_block" -> stepTypeName("destroy_block");
-                case "replace_blocks" -> UIText.of("ponderer.ui.step.summary.single_arg", stepTypeName("replace_blocks"),
+                case DESTROY_BLOCK -> stepTypeName("destroy_block");
+                case REPLACE_BLOCKS -> UIText.of("ponderer.ui.step.summary.single_arg", stepTypeName("replace_blocks"),
                     step.block != null ? step.block : "?");
-                case "hide_section" -> stepTypeName("hide_section");
-                case "show_section_and_merge" -> stepTypeName("show_section_and_merge");
-                case "toggle_redstone_power" -> stepTypeName("toggle_redstone_power");
-                case "modify_block_entity_nbt" -> stepTypeName("modify_block_entity_nbt");
-                case "rotate_section" -> stepTypeName("rotate_section");
-                case "move_section" -> stepTypeName("move_section");
-                case "indicate_redstone" -> stepTypeName("indicate_redstone");
-                case "indicate_success" -> stepTypeName("indicate_success");
-            case "next_scene" -> UIText.of("ponderer.ui.step.summary.next_scene");
-            default -> step.type;
+                case HIDE_SECTION -> stepTypeName("hide_section");
+                case SHOW_SECTION_AND_MERGE -> stepTypeName("show_section_and_merge");
+                case TOGGLE_REDSTONE_POWER -> stepTypeName("toggle_redstone_power");
+                case MODIFY_BLOCK_ENTITY_NBT -> stepTypeName("modify_block_entity_nbt");
+                case ROTATE_SECTION -> stepTypeName("rotate_section");
+                case MOVE_SECTION -> stepTypeName("move_section");
+                case INDICATE_REDSTONE -> stepTypeName("indicate_redstone");
+                case INDICATE_SUCCESS -> stepTypeName("indicate_success");
+            case NEXT_SCENE -> UIText.of("ponderer.ui.step.summary.next_scene");
+            case UNKNOWN -> step.type;
         };
     }
 
@@ -687,23 +794,18 @@ public class SceneEditorScreen extends AbstractSimiScreen {
 
     /** Insert a new step after the given index and save. If afterIndex is -1, append. */
     public void insertStepAndSave(int afterIndex, DslScene.DslStep newStep) {
-        undoManager.saveState(getSteps());
         List<DslScene.DslStep> steps = getMutableSteps();
-        if (afterIndex >= 0 && afterIndex < steps.size()) {
-            steps.add(afterIndex + 1, newStep);
-        } else {
-            steps.add(newStep);
-        }
-        saveToFile();
+        int index = afterIndex >= 0 && afterIndex < steps.size() ? afterIndex + 1 : steps.size();
+        undoManager.insert(steps, index, newStep);
+        onStepsEdited();
     }
 
     /** Replace an existing step at the given index and save. */
     public void replaceStepAndSave(int index, DslScene.DslStep newStep) {
         List<DslScene.DslStep> steps = getMutableSteps();
         if (index >= 0 && index < steps.size()) {
-            undoManager.saveState(getSteps());
-            steps.set(index, newStep);
-            saveToFile();
+            undoManager.replace(steps, index, newStep);
+            onStepsEdited();
         }
     }
 
@@ -711,10 +813,9 @@ public class SceneEditorScreen extends AbstractSimiScreen {
     public void removeStepAndSave(int index) {
         List<DslScene.DslStep> steps = getMutableSteps();
         if (index >= 0 && index < steps.size()) {
-            undoManager.saveState(getSteps());
-            steps.remove(index);
+            undoManager.remove(steps, index);
             clampScrollOffset(steps.size());
-            saveToFile();
+            onStepsEdited();
             this.init(Minecraft.getInstance(), this.width, this.height);
         }
     }
@@ -723,11 +824,8 @@ public class SceneEditorScreen extends AbstractSimiScreen {
     private void moveStepUp(int index) {
         List<DslScene.DslStep> steps = getMutableSteps();
         if (index > 0 && index < steps.size()) {
-            undoManager.saveState(getSteps());
-            DslScene.DslStep temp = steps.get(index);
-            steps.set(index, steps.get(index - 1));
-            steps.set(index - 1, temp);
-            saveToFile();
+            undoManager.move(steps, index, index - 1);
+            onStepsEdited();
             this.init(Minecraft.getInstance(), this.width, this.height);
         }
     }
@@ -736,11 +834,8 @@ public class SceneEditorScreen extends AbstractSimiScreen {
     private void moveStepDown(int index) {
         List<DslScene.DslStep> steps = getMutableSteps();
         if (index >= 0 && index < steps.size() - 1) {
-            undoManager.saveState(getSteps());
-            DslScene.DslStep temp = steps.get(index);
-            steps.set(index, steps.get(index + 1));
-            steps.set(index + 1, temp);
-            saveToFile();
+            undoManager.move(steps, index, index + 1);
+            onStepsEdited();
             this.init(Minecraft.getInstance(), this.width, this.height);
         }
     }
@@ -750,7 +845,6 @@ public class SceneEditorScreen extends AbstractSimiScreen {
      * steps.
      */
     private void insertSplitStep() {
-        undoManager.saveState(getSteps());
         int newSceneIndex = -1;
 
         if (scene.scenes != null && !scene.scenes.isEmpty()
@@ -768,23 +862,73 @@ public class SceneEditorScreen extends AbstractSimiScreen {
             // Flat steps mode: insert a next_scene marker
             DslScene.DslStep ns = new DslScene.DslStep();
             ns.type = "next_scene";
-            getMutableSteps().add(ns);
+            List<DslScene.DslStep> steps = getMutableSteps();
+            undoManager.insert(steps, steps.size(), ns);
         }
-        saveToFile();
+        saveScene();
 
         if (newSceneIndex >= 0) {
-            // Switch to the new scene and open description editor
+            // Switch to the new scene and open description editor; its step history starts empty
             sceneIndex = newSceneIndex;
             scrollOffset = 0;
+            resetHistory();
             ScreenOpener.open(new SceneDescEditorScreen(scene, sceneIndex, this));
         } else {
             this.init(Minecraft.getInstance(), this.width, this.height);
         }
     }
 
-    /** Save the scene JSON to file without reloading Ponder. */
-    private void saveToFile() {
-        SceneStore.saveSceneToLocal(scene);
+    /**
+     * Save the scene JSON to file without reloading Ponder, and mark the journal as compacted up to here.
+     * Also used by child screens that change more than the step list.
+     */
+    public void saveScene() {
+        String written = SceneStore.saveSceneToLocalHashed(scene);
+        if (written == null) {
+            return;
+        }
+        unsavedEdits = 0;
+        SceneJournal.Entry saved = SceneJournal.Entry.saved(written);
+        if (journalLines < MAX_JOURNAL_LINES) {
+            SceneJournal.append(scene.id, saved);
+            journalLines++;
+            return;
+        }
+        List<SceneJournal.Entry> entries = new ArrayList<>();
+        entries.add(SceneJournal.Entry.segment(sceneIndex));
+        entries.addAll(undoManager.toJournal());
+        entries.add(saved);
+        SceneJournal.rewrite(scene.id, entries);
+        journalLines = entries.size();
+    }
+
+    /**
+     * ESC. Step editors and other child screens replace this screen without closing it, so opening them
+     * doesn't write the file; pending edits stay in the journal until the editor is really left.
+     */
+    @Override
+    public void onClose() {
+        leave();
+        super.onClose();
+    }
+
+    /**
+     * Write pending edits of the open editor, if any, because the client is leaving the world with the editor
+     * or one of its child screens still open.
+     */
+    public static void flushOpenEditor() {
+        SceneEditorScreen editor = openEditor;
+        if (editor != null) {
+            editor.leave();
+        }
+    }
+
+    /** The editor is being left for good: write pending edits so only a crash ever leaves them in the journal alone. */
+    private void leave() {
+        if (openEditor == this) {
+            openEditor = null;
+        }
+        flushEdits();
     }
 
     /**
@@ -842,7 +986,8 @@ public class SceneEditorScreen extends AbstractSimiScreen {
             if (sceneIndex >= scene.scenes.size()) {
                 sceneIndex = scene.scenes.size() - 1;
             }
-            saveToFile();
+            saveScene();
+            resetHistory();
             scrollOffset = 0;
             Minecraft mc = Minecraft.getInstance();
             mc.setScreen(this);
@@ -850,16 +995,21 @@ public class SceneEditorScreen extends AbstractSimiScreen {
     }
 
     private void deletePonderAndExit() {
+        // Nothing left to flush once the file is gone; leaving must not write it back
+        unsavedEdits = 0;
+        leave();
         boolean deleted = SceneStore.deleteSceneLocal(scene.id);
         Minecraft mc = Minecraft.getInstance();
         mc.setScreen(null);
         if (deleted) {
+            SceneJournal.delete(scene.id);
             SceneStore.reloadFromDisk();
             mc.execute(PonderIndex::reload);
         }
     }
 
     private void reloadAndExit() {
+        leave();
         // Close this screen immediately to avoid overlap
         Minecraft mc = Minecraft.getInstance();
         mc.setScreen(null);
@@ -3,6 +3,7 @@ package com.nododiiiii.ponderer.ui;
 import com.nododiiiii.ponderer.ponder.DslScene;
 import com.nododiiiii.ponderer.ponder.PondererClientCommands;
 import com.nododiiiii.ponderer.ponder.SceneStore;
+import com.nododiiiii.ponderer.ponder.StructureLibrary;
 import net.createmod.catnip.config.ui.HintableTextFieldWidget;
 import net.createmod.ponder.foundation.ui.PonderButton;
 import net.minecraft.client.Minecraft;
@@ -266,8 +267,12 @@ public class ShowStructureScreen extends AbstractStepEditorScreen {
     }
 
     private boolean localStructureExists(ResourceLocation id) {
-        Path path = resolveLocalStructurePath(id);
-        return Files.exists(path);
+        if (Files.exists(resolveLocalStructurePath(id))) {
+            return true;
+        }
+        StructureLibrary library = StructureLibrary.forDir(SceneStore.getStructureDir());
+        String key = "ponderer".equals(id.getNamespace()) ? id.getPath() : id.getNamespace() + "/" + id.getPath();
+        return library != null && library.contains(key);
     }
 
     private Path resolveLocalStructurePath(ResourceLocation id) {
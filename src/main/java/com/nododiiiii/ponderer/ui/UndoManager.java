@@ -1,56 +1,129 @@
 package com.nododiiiii.ponderer.ui;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
 import com.nododiiiii.ponderer.ponder.DslScene;
-import com.nododiiiii.ponderer.ponder.LocalizedText;
+import com.nododiiiii.ponderer.ponder.SceneJournal;
 
-import java.lang.reflect.Type;
+import javax.annotation.Nullable;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
- * Snapshot-based undo/redo manager for the scene editor.
- * Captures full step list state as JSON before each mutation.
+ * Edit-based undo/redo manager for the scene editor.
+ *
+ * Every mutation of the step list goes through {@link #insert}, {@link #replace}, {@link #remove} or
+ * {@link #move}, which apply the edit and record just that edit. History entries hold references to
+ * the affected step objects, which are shared with the live list rather than copied; this is safe because
+ * step editors always build a new DslStep instead of modifying one in place.
+ *
+ * History is bounded by an estimated memory budget rather than an entry count, so many small edits
+ * are kept while a few edits to huge steps (long NBT, many block properties) are dropped sooner.
+ *
+ * Every recorded edit, undo and redo is also reported to the optional journal sink as a {@link SceneJournal.Entry},
+ * and {@link #replay} rebuilds history from those entries.
  */
 public class UndoManager {
-    private static final int MAX_HISTORY = 50;
-    private static final Gson GSON = new GsonBuilder()
-        .registerTypeAdapter(LocalizedText.class, new LocalizedText.GsonAdapter())
-        .create();
-    private static final Type STEP_LIST_TYPE = new TypeToken<List<DslScene.DslStep>>(){}.getType();
-
-    private final Deque<String> undoStack = new ArrayDeque<>();
-    private final Deque<String> redoStack = new ArrayDeque<>();
-
-    /** Call before any mutation to capture the current state. */
-    public void saveState(List<DslScene.DslStep> steps) {
-        String json = GSON.toJson(steps, STEP_LIST_TYPE);
-        undoStack.push(json);
-        if (undoStack.size() > MAX_HISTORY) {
-            ((ArrayDeque<String>) undoStack).removeLast();
-        }
-        redoStack.clear();
+    /** Estimated bytes of history to keep; the newest edit is always kept. */
+    private static final long MAX_HISTORY_BYTES = 2L * 1024 * 1024;
+    private static final int EDIT_OVERHEAD = 48;
+    private static final int STEP_OVERHEAD = 320;
+
+    private final Deque<Entry> undoStack = new ArrayDeque<>();
+    private final Deque<Entry> redoStack = new ArrayDeque<>();
+    private long historyBytes;
+    @Nullable
+    private Consumer<SceneJournal.Entry> journal;
+
+    /** Report subsequent edits, undos and redos to {@code sink}; null to stop. */
+    public void setJournal(@Nullable Consumer<SceneJournal.Entry> sink) {
+        this.journal = sink;
+    }
+
+    /** Insert {@code step} at {@code index} (clamped to the end of the list) and record it. */
+    public void insert(List<DslScene.DslStep> steps, int index, DslScene.DslStep step) {
+        record(steps, new Insert(Math.max(0, Math.min(index, steps.size())), step));
+    }
+
+    /** Replace the step at {@code index} and record it. */
+    public void replace(List<DslScene.DslStep> steps, int index, DslScene.DslStep step) {
+        record(steps, new Replace(index, steps.get(index), step));
+    }
+
+    /** Remove the step at {@code index} and record it. */
+    public void remove(List<DslScene.DslStep> steps, int index) {
+        record(steps, new Remove(index, steps.get(index)));
     }
 
-    /** Undo: restore previous state, push current to redo stack. Returns null if nothing to undo. */
-    public List<DslScene.DslStep> undo(List<DslScene.DslStep> currentSteps) {
-        if (undoStack.isEmpty()) return null;
-        String currentJson = GSON.toJson(currentSteps, STEP_LIST_TYPE);
-        redoStack.push(currentJson);
-        String previousJson = undoStack.pop();
-        return GSON.fromJson(previousJson, STEP_LIST_TYPE);
+    /** Move the step at {@code from} so it ends up at index {@code to}, and record it. */
+    public void move(List<DslScene.DslStep> steps, int from, int to) {
+        record(steps, new Move(from, to));
     }
 
-    /** Redo: restore next state, push current to undo stack. Returns null if nothing to redo. */
-    public List<DslScene.DslStep> redo(List<DslScene.DslStep> currentSteps) {
-        if (redoStack.isEmpty()) return null;
-        String currentJson = GSON.toJson(currentSteps, STEP_LIST_TYPE);
-        undoStack.push(currentJson);
-        String nextJson = redoStack.pop();
-        return GSON.fromJson(nextJson, STEP_LIST_TYPE);
+    /** Undo the last edit on {@code steps} in place. Returns false if there is nothing to undo. */
+    public boolean undo(List<DslScene.DslStep> steps) {
+        return undo(steps, true);
+    }
+
+    private boolean undo(@Nullable List<DslScene.DslStep> steps, boolean report) {
+        Entry entry = undoStack.poll();
+        if (entry == null) return false;
+        if (steps != null) entry.edit().revert(steps);
+        redoStack.push(entry);
+        if (report) emit(SceneJournal.Entry.undo());
+        return true;
+    }
+
+    /** Redo the last undone edit on {@code steps} in place. Returns false if there is nothing to redo. */
+    public boolean redo(List<DslScene.DslStep> steps) {
+        return redo(steps, true);
+    }
+
+    private boolean redo(@Nullable List<DslScene.DslStep> steps, boolean report) {
+        Entry entry = redoStack.poll();
+        if (entry == null) return false;
+        if (steps != null) entry.edit().apply(steps);
+        undoStack.push(entry);
+        if (report) emit(SceneJournal.Entry.redo());
+        return true;
+    }
+
+    /**
+     * Rebuild history from a journal entry without reporting it again. The entry is also applied to
+     * {@code steps} when given; pass null for entries whose effect is already in the scene.
+     */
+    public void replay(SceneJournal.Entry entry, @Nullable List<DslScene.DslStep> steps) {
+        switch (entry.op()) {
+            case SAVED -> {
+            }
+            case SEGMENT -> clear();
+            case UNDO -> undo(steps, false);
+            case REDO -> redo(steps, false);
+            case INSERT -> push(new Insert(entry.index(), entry.step()), steps);
+            case REPLACE -> push(new Replace(entry.index(), entry.before(), entry.step()), steps);
+            case REMOVE -> push(new Remove(entry.index(), entry.step()), steps);
+            case MOVE -> push(new Move(entry.index(), entry.to()), steps);
+        }
+    }
+
+    /**
+     * The current history as journal entries which {@link #replay} turns back into the same undo and redo stacks.
+     */
+    public List<SceneJournal.Entry> toJournal() {
+        List<SceneJournal.Entry> entries = new ArrayList<>(undoStack.size() + 2 * redoStack.size());
+        for (Iterator<Entry> it = undoStack.descendingIterator(); it.hasNext(); ) {
+            entries.add(it.next().edit().toJournal());
+        }
+        for (Entry entry : redoStack) {
+            entries.add(entry.edit().toJournal());
+        }
+        for (int i = 0; i < redoStack.size(); i++) {
+            entries.add(SceneJournal.Entry.undo());
+        }
+        return entries;
     }
 
     public boolean canUndo() { return !undoStack.isEmpty(); }
@@ -59,5 +132,144 @@ public class UndoManager {
     public void clear() {
         undoStack.clear();
         redoStack.clear();
+        historyBytes = 0;
+    }
+
+    private void record(List<DslScene.DslStep> steps, Edit edit) {
+        push(edit, steps);
+        emit(edit.toJournal());
+    }
+
+    private void push(Edit edit, @Nullable List<DslScene.DslStep> steps) {
+        if (steps != null) edit.apply(steps);
+        for (Entry dropped : redoStack) {
+            historyBytes -= dropped.weight();
+        }
+        redoStack.clear();
+        // Weigh once: the estimate depends on the current language, which may change while the entry is held
+        Entry entry = new Entry(edit, edit.weight());
+        undoStack.push(entry);
+        historyBytes += entry.weight();
+        while (historyBytes > MAX_HISTORY_BYTES && undoStack.size() > 1) {
+            historyBytes -= undoStack.removeLast().weight();
+        }
+    }
+
+    private void emit(SceneJournal.Entry entry) {
+        if (journal != null) journal.accept(entry);
+    }
+
+    /** Rough retained size of a step, dominated by its free-form strings. */
+    private static long estimateSize(DslScene.DslStep step) {
+        if (step == null) return 0;
+        long size = STEP_OVERHEAD;
+        if (step.nbt != null) size += 2L * step.nbt.length();
+        if (step.text != null) size += 2L * step.text.resolve().length();
+        if (step.blockProperties != null) {
+            for (Map.Entry<String, String> e : step.blockProperties.entrySet()) {
+                size += 64 + 2L * (e.getKey().length() + (e.getValue() != null ? e.getValue().length() : 0));
+            }
+        }
+        return size;
+    }
+
+    private record Entry(Edit edit, long weight) {}
+
+    private interface Edit {
+        void apply(List<DslScene.DslStep> steps);
+
+        void revert(List<DslScene.DslStep> steps);
+
+        long weight();
+
+        SceneJournal.Entry toJournal();
+    }
+
+    private record Insert(int index, DslScene.DslStep step) implements Edit {
+        @Override
+        public void apply(List<DslScene.DslStep> steps) {
+            steps.add(index, step);
+        }
+
+        @Override
+        public void revert(List<DslScene.DslStep> steps) {
+            steps.remove(index);
+        }
+
+        @Override
+        public long weight() {
+            return EDIT_OVERHEAD + estimateSize(step);
+        }
+
+        @Override
+        public SceneJournal.Entry toJournal() {
+            return SceneJournal.Entry.insert(index, step);
+        }
+    }
+
+    private record Remove(int index, DslScene.DslStep step) implements Edit {
+        @Override
+        public void apply(List<DslScene.DslStep> steps) {
+            steps.remove(index);
+        }
+
+        @Override
+        public void revert(List<DslScene.DslStep> steps) {
+            steps.add(index, step);
+        }
+
+        @Override
+        public long weight() {
+            return EDIT_OVERHEAD + estimateSize(step);
+        }
+
+        @Override
+        public SceneJournal.Entry toJournal() {
+            return SceneJournal.Entry.remove(index, step);
+        }
+    }
+
+    private record Replace(int index, DslScene.DslStep before, DslScene.DslStep after) implements Edit {
+        @Override
+        public void apply(List<DslScene.DslStep> steps) {
+            steps.set(index, after);
+        }
+
+        @Override
+        public void revert(List<DslScene.DslStep> steps) {
+            steps.set(index, before);
+        }
+
+        @Override
+        public long weight() {
+            return EDIT_OVERHEAD + estimateSize(before) + estimateSize(after);
+        }
+
+        @Override
+        public SceneJournal.Entry toJournal() {
+            return SceneJournal.Entry.replace(index, before, after);
+        }
+    }
+
+    private record Move(int from, int to) implements Edit {
+        @Override
+        public void apply(List<DslScene.DslStep> steps) {
+            steps.add(to, steps.remove(from));
+        }
+
+        @Override
+        public void revert(List<DslScene.DslStep> steps) {
+            steps.add(from, steps.remove(to));
+        }
+
+        @Override
+        public long weight() {
+            return EDIT_OVERHEAD;
+        }
+
+        @Override
+        public SceneJournal.Entry toJournal() {
+            return SceneJournal.Entry.move(from, to);
+        }
     }
 }
@@ -0,0 +1,118 @@
+package com.nododiiiii.ponderer.ponder;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * DslSceneCodec against Gson's reflective binding of the same classes, with every DslStep field set,
+ * so a field added to DslStep without a codec entry fails here instead of being dropped on save.
+ */
+class DslSceneCodecTest {
+    private static final Gson CODEC = new GsonBuilder()
+        .registerTypeAdapter(LocalizedText.class, new LocalizedText.GsonAdapter())
+        .registerTypeAdapterFactory(new DslSceneCodec())
+        .create();
+    private static final Gson REFLECTIVE = new GsonBuilder()
+        .registerTypeAdapter(LocalizedText.class, new LocalizedText.GsonAdapter())
+        .create();
+
+    @Test
+    void writesEveryStepField() throws IllegalAccessException {
+        DslScene.DslStep step = fullStep();
+        JsonObject json = JsonParser.parseString(CODEC.toJson(step)).getAsJsonObject();
+        for (Field field : persistentFields()) {
+            assertTrue(json.has(field.getName()), () -> "codec does not write DslStep." + field.getName());
+        }
+    }
+
+    @Test
+    void matchesReflectiveBinding() throws IllegalAccessException {
+        DslScene.DslStep step = fullStep();
+        assertEquals(REFLECTIVE.toJson(step), CODEC.toJson(step));
+
+        DslScene scene = new DslScene();
+        scene.id = "ponderer:example";
+        scene.items = List.of("minecraft:stone");
+        scene.title = LocalizedText.of("Example");
+        scene.steps = List.of(step);
+        DslScene.SceneSegment segment = new DslScene.SceneSegment();
+        segment.id = "second";
+        segment.steps = List.of(step, new DslScene.DslStep());
+        scene.scenes = List.of(segment);
+        assertEquals(REFLECTIVE.toJson(scene), CODEC.toJson(scene));
+    }
+
+    @Test
+    void roundTripIsStable() throws IllegalAccessException {
+        String json = CODEC.toJson(fullStep());
+        DslScene.DslStep read = CODEC.fromJson(json, DslScene.DslStep.class);
+        assertEquals(json, CODEC.toJson(read));
+        assertEquals(json, REFLECTIVE.toJson(read));
+    }
+
+    @Test
+    void readsVectorsIntoArrays() {
+        DslScene.DslStep step = CODEC.fromJson(
+            "{\"type\":\"create_item_entity\",\"pos\":[0.5,null,\"2\"],\"motion\":null,"
+                + "\"blockPos\":[1,2,3,4],\"blockPos2\":[],\"unknown\":{\"a\":[1]}}",
+            DslScene.DslStep.class);
+        assertArrayEquals(new double[] {0.5, 0, 2}, step.pos());
+        assertNull(step.motion());
+        assertArrayEquals(new int[] {1, 2, 3, 4}, step.blockPos());
+        assertArrayEquals(new int[0], step.blockPos2());
+        assertSame(StepType.CREATE_ITEM_ENTITY.id(), step.type);
+        assertEquals(StepType.CREATE_ITEM_ENTITY, step.stepType());
+    }
+
+    private static List<Field> persistentFields() {
+        return Arrays.stream(DslScene.DslStep.class.getDeclaredFields())
+            .filter(f -> (f.getModifiers() & (Modifier.STATIC | Modifier.TRANSIENT)) == 0)
+            .toList();
+    }
+
+    /** A step with every persistent field set to a non-null value of its type. */
+    private static DslScene.DslStep fullStep() throws IllegalAccessException {
+        DslScene.DslStep step = new DslScene.DslStep();
+        for (Field field : persistentFields()) {
+            field.setAccessible(true);
+            field.set(step, sample(field));
+        }
+        step.type = StepType.SET_BLOCK.id();
+        return step;
+    }
+
+    private static Object sample(Field field) {
+        Class<?> type = field.getType();
+        if (type == String.class) return field.getName();
+        if (type == Integer.class) return 3;
+        if (type == Float.class) return 1.5f;
+        if (type == Boolean.class) return true;
+        if (type == LocalizedText.class) return LocalizedText.of("Some text");
+        if (type == double[].class) return new double[] {0.5, 1, 2.25};
+        if (type == int[].class) return new int[] {1, -2, 3};
+        if (type == Map.class) return Map.of("facing", "north");
+        if (type == List.class && field.getGenericType() instanceof ParameterizedType p) {
+            Object element = p.getActualTypeArguments()[0];
+            if (element == Double.class) return List.of(0.5, 1.0, 2.25);
+            if (element == Integer.class) return List.of(1, -2, 3);
+        }
+        return fail("no sample value for DslStep." + field.getName() + " of type " + field.getGenericType());
+    }
+}
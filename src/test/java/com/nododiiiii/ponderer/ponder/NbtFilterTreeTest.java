@@ -0,0 +1,151 @@
+package com.nododiiiii.ponderer.ponder;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.StringTag;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * NbtFilterTree against the linear NbtSceneFilter.isSubset scan it replaces, on an item with
+ * 1k CustomModelData filters plus a few filters of other shapes.
+ */
+class NbtFilterTreeTest {
+    private static final int FILTERS = 1000;
+    private static final int STACKS = 2000;
+    private static final int BENCH_ROUNDS = 20;
+
+    @Test
+    void matchesAgreeWithLinearScan() {
+        CompoundTag[] filters = filters();
+        NbtFilterTree tree = NbtFilterTree.build(filters);
+
+        for (CompoundTag stack : stacks(new Random(19))) {
+            Set<CompoundTag> expected = linear(filters, stack);
+            assertEquals(expected, tree.matches(stack), () -> "matches() for " + stack);
+            assertEquals(!expected.isEmpty(), tree.anyMatch(stack), () -> "anyMatch() for " + stack);
+        }
+    }
+
+    /** Excluded from the default test run; run with {@code ./gradlew test -Pbenchmark}. */
+    @Test
+    @Tag("benchmark")
+    void benchmarkThousandFilters(TestReporter reporter) {
+        CompoundTag[] filters = filters();
+        NbtFilterTree tree = NbtFilterTree.build(filters);
+        List<CompoundTag> stacks = stacks(new Random(42));
+
+        // Warm up both paths before timing them
+        long checksum = runTree(tree, stacks) + runLinear(filters, stacks);
+
+        long start = System.nanoTime();
+        long treeMatches = 0;
+        for (int i = 0; i < BENCH_ROUNDS; i++) treeMatches += runTree(tree, stacks);
+        long treeNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        long linearMatches = 0;
+        for (int i = 0; i < BENCH_ROUNDS; i++) linearMatches += runLinear(filters, stacks);
+        long linearNanos = System.nanoTime() - start;
+
+        assertEquals(linearMatches, treeMatches);
+        long lookups = (long) BENCH_ROUNDS * stacks.size();
+        reporter.publishEntry("filters", String.valueOf(filters.length));
+        reporter.publishEntry("tree ns/stack", String.valueOf(treeNanos / lookups));
+        reporter.publishEntry("linear isSubset ns/stack", String.valueOf(linearNanos / lookups));
+        reporter.publishEntry("checksum", String.valueOf(checksum));
+    }
+
+    private static long runTree(NbtFilterTree tree, List<CompoundTag> stacks) {
+        long matched = 0;
+        for (CompoundTag stack : stacks) matched += tree.matches(stack).size();
+        return matched;
+    }
+
+    private static long runLinear(CompoundTag[] filters, List<CompoundTag> stacks) {
+        long matched = 0;
+        for (CompoundTag stack : stacks) matched += linear(filters, stack).size();
+        return matched;
+    }
+
+    private static Set<CompoundTag> linear(CompoundTag[] filters, CompoundTag stack) {
+        Set<CompoundTag> out = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (CompoundTag filter : filters) {
+            if (NbtSceneFilter.isSubset(filter, stack)) out.add(filter);
+        }
+        return out;
+    }
+
+    /** {components:{"minecraft:custom_model_data":i}} for every i, plus filters of other shapes. */
+    private static CompoundTag[] filters() {
+        List<CompoundTag> filters = new ArrayList<>(FILTERS + 5);
+        for (int i = 0; i < FILTERS; i++) {
+            CompoundTag components = new CompoundTag();
+            components.putInt("minecraft:custom_model_data", i);
+            filters.add(wrap(components));
+        }
+
+        CompoundTag named = new CompoundTag();
+        named.put("minecraft:custom_name", StringTag.valueOf("\"Special\""));
+        filters.add(wrap(named));
+
+        // {} only requires the compound to exist
+        filters.add(wrap(new CompoundTag()));
+
+        CompoundTag counted = new CompoundTag();
+        counted.putInt("count", 2);
+        filters.add(counted);
+
+        CompoundTag both = wrap(modelData(7));
+        both.putInt("count", 3);
+        filters.add(both);
+
+        // A duplicate of an existing filter must still be reported as its own match
+        filters.add(wrap(modelData(5)));
+        return filters.toArray(CompoundTag[]::new);
+    }
+
+    /** Saved stack tags as ItemStack.save writes them, with and without components. */
+    private static List<CompoundTag> stacks(Random random) {
+        List<CompoundTag> stacks = new ArrayList<>(STACKS);
+        for (int i = 0; i < STACKS; i++) {
+            CompoundTag stack = new CompoundTag();
+            stack.putString("id", "minecraft:stick");
+            stack.putInt("count", 1 + random.nextInt(3));
+            if (random.nextInt(10) != 0) {
+                CompoundTag components = new CompoundTag();
+                if (random.nextInt(8) != 0) {
+                    // Some values past the last filter never match
+                    components.putInt("minecraft:custom_model_data", random.nextInt(FILTERS + FILTERS / 5));
+                }
+                if (random.nextInt(6) == 0) {
+                    components.put("minecraft:custom_name", StringTag.valueOf(random.nextBoolean() ? "\"Special\"" : "\"Other\""));
+                }
+                stack.put("components", components);
+            }
+            stacks.add(stack);
+        }
+        return stacks;
+    }
+
+    private static CompoundTag modelData(int value) {
+        CompoundTag components = new CompoundTag();
+        components.putInt("minecraft:custom_model_data", value);
+        return components;
+    }
+
+    private static CompoundTag wrap(CompoundTag components) {
+        CompoundTag filter = new CompoundTag();
+        filter.put("components", components);
+        return filter;
+    }
+}